@@ -0,0 +1,32 @@
+package re.ermix.school_app.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a transactional service method that fails with an optimistic locking conflict, each
+ * time in a new transaction after a randomized backoff. Only for methods that can safely run
+ * again from the start, such as those that overwrite fields with the caller's values.
+ *
+ * @see OptimisticRetryAspect
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+
+    /**
+     * Attempts in total, including the first.
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * Upper bound of the backoff before the first retry; it doubles for every later one.
+     */
+    long backoffMillis() default 20;
+
+    long maxBackoffMillis() default 200;
+}
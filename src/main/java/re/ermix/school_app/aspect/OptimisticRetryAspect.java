@@ -0,0 +1,99 @@
+package re.ermix.school_app.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs {@link OptimisticRetry} methods again when they fail with an optimistic locking
+ * conflict. The aspect is ordered before the transaction interceptor, so every attempt gets a
+ * new transaction and persistence context that see the committed row. Between attempts it
+ * sleeps for a random time up to an exponentially growing bound ("full jitter"), which keeps
+ * writers that collided from colliding again in lockstep.
+ * <p>
+ * Conflicts are counted as {@code school.optimistic.conflicts}, tagged with the outcome
+ * ({@code retried} or {@code exhausted}), and the attempts each call took are recorded as
+ * {@code school.optimistic.attempts}; both are tagged with the service and the method.
+ */
+@Log4j2
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+
+    static final String CONFLICTS_METRIC = "school.optimistic.conflicts";
+    static final String ATTEMPTS_METRIC = "school.optimistic.attempts";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(re.ermix.school_app.aspect.OptimisticRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Another attempt would run in the caller's transaction and see the same stale row
+            return joinPoint.proceed();
+        }
+        OptimisticRetry retry = ((MethodSignature) joinPoint.getSignature()).getMethod()
+                .getAnnotation(OptimisticRetry.class);
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        int attempt = 0;
+        try {
+            while (true) {
+                attempt++;
+                try {
+                    return joinPoint.proceed();
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= retry.maxAttempts()) {
+                        conflicts(service, method, "exhausted").increment();
+                        log.warn("{}.{} failed after {} optimistic locking conflicts", service, method, attempt);
+                        throw e;
+                    }
+                    conflicts(service, method, "retried").increment();
+                    long backoff = backoffMillis(retry, attempt);
+                    log.info("{}.{} hit an optimistic locking conflict, retrying in {} ms", service, method, backoff);
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            DistributionSummary.builder(ATTEMPTS_METRIC)
+                    .description("Attempts per call of a method retried on optimistic locking conflicts")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(attempt);
+        }
+    }
+
+    private Counter conflicts(String service, String method, String outcome) {
+        return Counter.builder(CONFLICTS_METRIC)
+                .description("Optimistic locking conflicts")
+                .tag("service", service)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long backoffMillis(OptimisticRetry retry, int attempt) {
+        long bound = Math.min(retry.maxBackoffMillis(), retry.backoffMillis() << Math.min(attempt - 1, 20));
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+}
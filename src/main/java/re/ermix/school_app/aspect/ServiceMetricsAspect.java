@@ -0,0 +1,47 @@
+package re.ermix.school_app.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the application services as {@code school.service.invocations},
+ * tagged with the service, the method, the outcome and the exception thrown, if any.
+ * Repository calls are timed by Spring Data as {@code spring.data.repository.invocations};
+ * percentiles and histogram buckets for both are configured under {@code management.metrics}.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    static final String METRIC_NAME = "school.service.invocations";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(re.ermix.school_app.service..*) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "ERROR";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Service method invocations")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
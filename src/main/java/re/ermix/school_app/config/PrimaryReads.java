@@ -0,0 +1,58 @@
+package re.ermix.school_app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads whose result outlives the request on the primary: the seeds of in-memory counters,
+ * queues and caches. Seeded from a lagging replica, they would keep the missing writes until the
+ * entry expires, long after the replica has caught up.
+ * <p>
+ * In a read-write transaction the read already goes to the primary and simply joins it. Otherwise
+ * it runs in a read-only transaction of its own that {@link ReplicaRoutingDataSource} sends to the
+ * primary; a caller's read-only transaction is suspended meanwhile, as its connection may already
+ * come from the replica. That nested connection is always taken from the primary while holding at
+ * most a replica one, never the other way round, so the two pools cannot wait on each other. It is
+ * skipped when the current request has written, since the caller's transaction is then on the
+ * primary too, and when no replica is configured at all.
+ */
+@Component
+public class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final TransactionTemplate separateReadOnly;
+    private final boolean routed;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${school.datasource.replica.jdbc-url:}") String replicaUrl) {
+        this.separateReadOnly = new TransactionTemplate(transactionManager);
+        this.separateReadOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.separateReadOnly.setReadOnly(true);
+        this.routed = !replicaUrl.isBlank();
+    }
+
+    public <T> T read(Supplier<T> reader) {
+        if (!routed || isActive() || ReadYourWrites.isPinned()
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return reader.get();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return separateReadOnly.execute(status -> reader.get());
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
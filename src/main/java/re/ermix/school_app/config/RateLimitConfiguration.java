@@ -0,0 +1,29 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Active unless {@code school.rate-limit.enabled} is false; applies the configured rate limits
+ * to every MVC request through a {@link RateLimitInterceptor}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "school.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    public RateLimitConfiguration(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimitInterceptor = new RateLimitInterceptor(properties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor);
+    }
+}
@@ -0,0 +1,147 @@
+package re.ermix.school_app.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import re.ermix.school_app.util.TokenBucket;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rate limits the routes configured in {@link RateLimitProperties}. Every client gets its own
+ * {@link TokenBucket} for every endpoint of a route, so one client looping on an endpoint only
+ * exhausts its own bucket; others keep their full rate. A request without a token is answered
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header, before reaching the controller.
+ * <p>
+ * Clients are told apart by their address, which behind a trusted proxy comes from
+ * {@code X-Forwarded-For} (see {@code server.forward-headers-strategy}). A client header is only
+ * used when configured, for an API gateway that overwrites it on every request; trusted as sent,
+ * a client could rotate it to get a fresh bucket each time. Buckets live in a bounded cache and are dropped once unused for
+ * {@code idle-timeout}, by which time they would have refilled anyway. Decisions are counted as
+ * {@code school.rate.limit.requests}, tagged with the route and the outcome.
+ */
+@Log4j2
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    static final String CACHE_NAME = "rateLimitBuckets";
+    static final String METRIC_NAME = "school.rate.limit.requests";
+
+    // Keeps a header a client fills with garbage from bloating the bucket keys
+    private static final int MAX_CLIENT_ID_LENGTH = 128;
+
+    private final String clientHeader;
+    private final List<CompiledRoute> routes;
+    private final Cache<String, TokenBucket> buckets;
+
+    private record CompiledRoute(String name, List<PathPattern> patterns, Set<String> methods,
+                                 RateLimitProperties.Route limit, Counter allowed, Counter rejected) {
+
+        boolean matches(String method, PathContainer path) {
+            return methods.contains(method) && patterns.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+    }
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.clientHeader = properties.clientHeader() == null || properties.clientHeader().isBlank()
+                ? null : properties.clientHeader();
+        this.routes = properties.routes().entrySet().stream()
+                .map(entry -> compile(entry.getKey(), entry.getValue(), meterRegistry))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(properties.idleTimeout())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+        routes.forEach(route -> log.info("Rate limiting {} {} to {} requests per {} (burst {})",
+                route.methods(), route.limit().paths(), route.limit().permits(), route.limit().period(),
+                burst(route.limit())));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PathContainer path = ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication()
+                : ServletRequestPathUtils.parseAndCache(request).pathWithinApplication();
+        String method = request.getMethod();
+        CompiledRoute route = routes.stream()
+                .filter(candidate -> candidate.matches(method, path))
+                .findFirst()
+                .orElse(null);
+        if (route == null) {
+            return true;
+        }
+
+        // One bucket per endpoint of the route, e.g. each of the average endpoints
+        Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String client = clientOf(request);
+        String key = route.name() + ' ' + method + ' ' + (endpoint != null ? endpoint : path.value()) + ' ' + client;
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(route.limit().permits(), route.limit().period(),
+                burst(route.limit()), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            route.allowed().increment();
+            return true;
+        }
+        route.rejected().increment();
+        long retryAfter = Math.max(1, Math.ceilDiv(waitNanos, TimeUnit.SECONDS.toNanos(1)));
+        log.debug("Rate limited {} on {} {}, retry after {} s", client, method, path.value(), retryAfter);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        return false;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = clientHeader != null ? request.getHeader(clientHeader) : null;
+        if (client == null || client.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return client.length() > MAX_CLIENT_ID_LENGTH ? client.substring(0, MAX_CLIENT_ID_LENGTH) : client;
+    }
+
+    private static CompiledRoute compile(String name, RateLimitProperties.Route limit, MeterRegistry meterRegistry) {
+        if (limit.paths() == null || limit.paths().isEmpty()) {
+            throw new IllegalArgumentException("Rate limit route " + name + " has no paths");
+        }
+        // Validates permits, period and burst at startup
+        new TokenBucket(limit.permits(), limit.period(), burst(limit), 0);
+        List<PathPattern> patterns = limit.paths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        Set<String> methods = limit.methods().stream()
+                .map(method -> method.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        return new CompiledRoute(name, patterns, methods, limit,
+                counter(meterRegistry, name, "allowed"), counter(meterRegistry, name, "rejected"));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String route, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Requests to rate limited routes")
+                .tag("route", route)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static int burst(RateLimitProperties.Route limit) {
+        return limit.burst() > 0 ? limit.burst() : limit.permits();
+    }
+}
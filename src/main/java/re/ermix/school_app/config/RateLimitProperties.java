@@ -0,0 +1,31 @@
+package re.ermix.school_app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limits under {@code school.rate-limit}. Each route names the paths it covers, as
+ * patterns within the context path, and the rate every client may call each of them at.
+ */
+@ConfigurationProperties("school.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        // Only for a header the API gateway sets on every request; unset, clients are told apart by address
+        String clientHeader,
+        @DefaultValue("100000") long maxBuckets,
+        @DefaultValue("PT10M") Duration idleTimeout,
+        @DefaultValue Map<String, Route> routes) {
+
+    public record Route(
+            List<String> paths,
+            @DefaultValue("GET") List<String> methods,
+            int permits,
+            @DefaultValue("PT1S") Duration period,
+            // Requests a client can make at once after being idle; defaults to permits
+            int burst) {
+    }
+}
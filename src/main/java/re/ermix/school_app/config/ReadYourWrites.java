@@ -0,0 +1,34 @@
+package re.ermix.school_app.config;
+
+/**
+ * Tracks whether the current request has written to the primary. Once it has, every later
+ * read of the same request is routed to the primary as well, so a client never reads a
+ * replica that has not caught up with its own write. Outside a request nothing is tracked.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<boolean[]> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void startRequest() {
+        PINNED.set(new boolean[1]);
+    }
+
+    public static void endRequest() {
+        PINNED.remove();
+    }
+
+    static void pin() {
+        boolean[] pinned = PINNED.get();
+        if (pinned != null) {
+            pinned[0] = true;
+        }
+    }
+
+    static boolean isPinned() {
+        boolean[] pinned = PINNED.get();
+        return pinned != null && pinned[0];
+    }
+}
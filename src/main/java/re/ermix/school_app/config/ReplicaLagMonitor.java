@@ -0,0 +1,77 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Polls the replica for how far it trails the primary. The replica is usable while it answers
+ * and its lag is within the limit; until the first check succeeds it is not. A server that
+ * reports no replication status at all (e.g. a second local database standing in for a
+ * replica) is treated as current.
+ */
+@Log4j2
+public class ReplicaLagMonitor {
+
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final DataSource replica;
+    private final long maxLagSeconds;
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.toSeconds();
+        Gauge.builder("school.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Seconds the replica trails the primary, NaN when unknown")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("school.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether read-only transactions are sent to the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${school.datasource.routing.lag-check-interval:PT5S}")
+    public void check() {
+        Long lag = readLag();
+        boolean nowUsable = lag != null && lag <= maxLagSeconds;
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                log.info("Replica is usable again, lag: {}s", lag);
+            } else {
+                log.warn("Sending reads to the primary, replica lag: {}", lag == null ? "unknown" : lag + "s");
+            }
+        }
+        lagSeconds = lag == null ? Double.NaN : lag;
+        usable = nowUsable;
+    }
+
+    private Long readLag() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return 0L;
+            }
+            long lag = status.getLong(LAG_COLUMN);
+            // NULL while the replication threads are stopped
+            return status.wasNull() ? null : lag;
+        } catch (SQLException e) {
+            log.warn("Failed to read replica status: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package re.ermix.school_app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Active when {@code school.datasource.replica.jdbc-url} is set. The primary pool is built from
+ * {@code spring.datasource} as before and a second, read-only pool from
+ * {@code school.datasource.replica}; the pools are named {@code primary} and {@code replica}, so
+ * the {@code hikaricp.*} metrics are tagged per pool. The application's data source routes
+ * between them with a {@link ReplicaRoutingDataSource}.
+ */
+@Log4j2
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "school.datasource.replica", name = "jdbc-url")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                       ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        DataSourceBuilder<?> builder = details == null
+                ? properties.initializeDataSourceBuilder()
+                : DataSourceBuilder.create(properties.getClassLoader())
+                        .driverClassName(details.getDriverClassName())
+                        .url(details.getJdbcUrl())
+                        .username(details.getUsername())
+                        .password(details.getPassword());
+        HikariDataSource dataSource = builder.type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("school.datasource.replica")
+    HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                        @Value("${school.datasource.routing.max-replica-lag:PT2S}") Duration maxLag,
+                                        MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        log.info("Routing read-only transactions to the replica pool");
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor::isReplicaUsable, meterRegistry));
+    }
+
+    @Bean
+    OncePerRequestFilter readYourWritesFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                ReadYourWrites.startRequest();
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ReadYourWrites.endRequest();
+                }
+            }
+        };
+    }
+}
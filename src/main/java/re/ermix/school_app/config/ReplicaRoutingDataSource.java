@@ -0,0 +1,78 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. A read goes
+ * to the primary instead when the current request has already written, when it runs under
+ * {@link PrimaryReads}, or when the replica is unreachable or too far behind. The route is decided when a connection is first needed, so
+ * this must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * for the transaction's read-only flag to be known by then.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final BooleanSupplier replicaUsable;
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter pinnedReads;
+    private final Counter primaryReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaUsable,
+                                    MeterRegistry meterRegistry) {
+        this.replicaUsable = replicaUsable;
+        this.writes = routeCounter(meterRegistry, Route.PRIMARY, "read-write");
+        this.reads = routeCounter(meterRegistry, Route.REPLICA, "read");
+        this.pinnedReads = routeCounter(meterRegistry, Route.PRIMARY, "read-your-writes");
+        this.primaryReads = routeCounter(meterRegistry, Route.PRIMARY, "primary-read");
+        this.fallbackReads = routeCounter(meterRegistry, Route.PRIMARY, "replica-unavailable");
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWrites.pin();
+            }
+            writes.increment();
+            return Route.PRIMARY;
+        }
+        if (ReadYourWrites.isPinned()) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        if (PrimaryReads.isActive()) {
+            primaryReads.increment();
+            return Route.PRIMARY;
+        }
+        if (!replicaUsable.getAsBoolean()) {
+            fallbackReads.increment();
+            return Route.PRIMARY;
+        }
+        reads.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, Route route, String reason) {
+        return Counter.builder("school.datasource.route")
+                .description("Connections handed out, by the pool they came from and why")
+                .tag("pool", route.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,55 @@
+package re.ermix.school_app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Active when {@code spring.threads.virtual.enabled} is set, e.g. by the {@code virtual-threads}
+ * profile. Tomcat, the MVC async executor and the scheduler then run on virtual threads, so the
+ * number of requests blocked on MySQL is no longer capped by a thread pool; the connection pool
+ * becomes the limit, and this fronts it with a {@link BoundedDataSource} of the same size.
+ * Callers then wait on its permits before ever asking the pool, so they are counted by
+ * {@code school.datasource.pending} per pool rather than by {@code hikaricp.connections.pending}.
+ */
+@Log4j2
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+    // Hikari only resolves an unset maximum-pool-size to its default of 10 when the pool starts
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor boundedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    int poolSize = hikari.getMaximumPoolSize() > 0
+                            ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                    log.info("Bounding data source '{}' to {} concurrent connections", beanName, poolSize);
+                    BoundedDataSource bounded = new BoundedDataSource(hikari, poolSize,
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                    String pool = hikari.getPoolName() != null ? hikari.getPoolName() : beanName;
+                    meterRegistry.ifAvailable(registry ->
+                            Gauge.builder("school.datasource.pending", bounded, BoundedDataSource::queueLength)
+                                    .description("Callers waiting for a connection of the bounded pool")
+                                    .tag("pool", pool)
+                                    .register(registry));
+                    return bounded;
+                }
+                return bean;
+            }
+        };
+    }
+}
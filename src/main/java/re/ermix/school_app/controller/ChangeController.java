@@ -0,0 +1,38 @@
+package re.ermix.school_app.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import re.ermix.school_app.dto.ChangePage;
+import re.ermix.school_app.service.ChangeFeedService;
+
+@Log4j2
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("changes")
+public class ChangeController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    public ResponseEntity<ChangePage> getChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /changes after={} limit={}", after, limit);
+        return ResponseEntity.ok(changeFeedService.getChanges(after, limit));
+    }
+
+    // A reconnecting EventSource sends the last offset it received as Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long after,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        log.info("GET /changes/stream after={} lastEventId={}", after, lastEventId);
+        return changeFeedService.subscribe(lastEventId != null ? lastEventId : after);
+    }
+}
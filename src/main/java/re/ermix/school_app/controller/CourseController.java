@@ -1,14 +1,26 @@
 package re.ermix.school_app.controller;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.CourseResponse;
 import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.CourseMeeting;
 import re.ermix.school_app.service.CourseService;
+import re.ermix.school_app.service.StaleVersionException;
+import re.ermix.school_app.util.Cursors;
+import re.ermix.school_app.util.ETags;
 
 import java.util.List;
+import java.util.Optional;
 
 @Log4j2
 @RestController
@@ -19,69 +31,141 @@ public class CourseController {
     private final CourseService courseService;
 
     @GetMapping
-    public ResponseEntity<List<Course>> getAllCourses() {
-        log.info("GET /courses");
-        return ResponseEntity.ok(courseService.getAllCourses());
+    public ResponseEntity<CursorPage<CourseResponse>> getAllCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /courses cursor={} size={}", cursor, size);
+        long afterId = Cursors.decode(cursor);
+        if (ifNoneMatch != null) {
+            String current = ETags.of(courseService.getCourseVersionsPage(afterId, size));
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ETags.notModified(current);
+            }
+        }
+        CursorPage<Course> page = courseService.getCoursesPage(afterId, size);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(page.map(course -> new EntityVersion(course.getId(), course.getUpdatedAt()))))
+                .body(page.map(CourseResponse::from));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Course> getCourseById(@PathVariable Long id) {
+    public ResponseEntity<CourseResponse> getCourseById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /courses/{}", id);
+        if (ifNoneMatch != null) {
+            Optional<EntityVersion> version = courseService.getCourseVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String current = ETags.of(version.get());
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ETags.notModified(current);
+            }
+        }
         return courseService.getCourseById(id)
-                .map(ResponseEntity::ok)
+                .map(course -> ResponseEntity.ok()
+                        .eTag(ETags.of(course.getId(), course.getUpdatedAt()))
+                        .body(CourseResponse.from(course)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/meetings")
+    public ResponseEntity<List<CourseMeeting>> getCourseMeetings(@PathVariable Long id) {
+        log.info("GET /courses/{}/meetings", id);
+        return courseService.getCourseMeetings(id)
+                .map(meetings -> meetings.isEmpty()
+                        ? ResponseEntity.noContent().<List<CourseMeeting>>build()
+                        : ResponseEntity.ok(meetings))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/meetings")
+    public ResponseEntity<List<CourseMeeting>> updateCourseMeetings(
+            @PathVariable Long id, @RequestBody List<@Valid @NotNull CourseMeeting> meetings) {
+        log.info("PUT /courses/{}/meetings", id);
+        try {
+            return ResponseEntity.ok(courseService.updateCourseMeetings(id, meetings));
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to update meetings of course {}: {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Failed to update meetings of course {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @GetMapping("/code/{courseCode}")
-    public ResponseEntity<Course> getCourseByCourseCode(@PathVariable String courseCode) {
+    public ResponseEntity<CourseResponse> getCourseByCourseCode(@PathVariable String courseCode) {
         log.info("GET /courses/code/{}", courseCode);
         return courseService.getCourseByCourseCode(courseCode)
+                .map(CourseResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/title/{title}")
-    public ResponseEntity<List<Course>> getCoursesByTitle(@PathVariable String title) {
+    public ResponseEntity<List<CourseResponse>> getCoursesByTitle(@PathVariable String title) {
         log.info("GET /courses/title/{}", title);
-        List<Course> courses = courseService.getCoursesByTitle(title);
+        List<CourseResponse> courses = courseService.getCoursesByTitle(title).stream()
+                .map(CourseResponse::from)
+                .toList();
         return courses.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courses);
     }
 
     @GetMapping("/credits/{credits}")
-    public ResponseEntity<List<Course>> getCoursesByCredits(@PathVariable Integer credits) {
+    public ResponseEntity<List<CourseResponse>> getCoursesByCredits(@PathVariable Integer credits) {
         log.info("GET /courses/credits/{}", credits);
-        List<Course> courses = courseService.getCoursesByCredits(credits);
+        List<CourseResponse> courses = courseService.getCoursesByCredits(credits).stream()
+                .map(CourseResponse::from)
+                .toList();
         return courses.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courses);
     }
 
     @GetMapping("/teacher/{teacherId}")
-    public ResponseEntity<List<Course>> getCoursesByTeacher(@PathVariable Long teacherId) {
+    public ResponseEntity<List<CourseResponse>> getCoursesByTeacher(@PathVariable Long teacherId) {
         log.info("GET /courses/teacher/{}", teacherId);
-        List<Course> courses = courseService.getCoursesByTeacher(teacherId);
+        List<CourseResponse> courses = courseService.getCoursesByTeacher(teacherId).stream()
+                .map(CourseResponse::from)
+                .toList();
         return courses.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courses);
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Course>> getCoursesWithAvailableSeats() {
+    public ResponseEntity<List<CourseResponse>> getCoursesWithAvailableSeats() {
         log.info("GET /courses/available");
-        List<Course> courses = courseService.getCoursesWithAvailableSeats();
+        List<CourseResponse> courses = courseService.getCoursesWithAvailableSeats().stream()
+                .map(CourseResponse::from)
+                .toList();
         return courses.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courses);
     }
 
     @GetMapping("/specialty/{specialty}")
-    public ResponseEntity<List<Course>> getCoursesByTeacherSpecialty(@PathVariable String specialty) {
+    public ResponseEntity<List<CourseResponse>> getCoursesByTeacherSpecialty(@PathVariable String specialty) {
         log.info("GET /courses/specialty/{}", specialty);
-        List<Course> courses = courseService.getCoursesByTeacherSpecialty(specialty);
+        List<CourseResponse> courses = courseService.getCoursesByTeacherSpecialty(specialty).stream()
+                .map(CourseResponse::from)
+                .toList();
         return courses.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courses);
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<Course>> getCoursesByStudent(@PathVariable Long studentId) {
+    public ResponseEntity<List<CourseResponse>> getCoursesByStudent(@PathVariable Long studentId) {
         log.info("GET /courses/student/{}", studentId);
-        List<Course> courses = courseService.getCoursesByStudent(studentId);
+        List<CourseResponse> courses = courseService.getCoursesByStudent(studentId).stream()
+                .map(CourseResponse::from)
+                .toList();
         return courses.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courses);
     }
 
+    @GetMapping("/student/{studentId}/ids")
+    public ResponseEntity<List<Long>> getCourseIdsByStudent(@PathVariable Long studentId) {
+        log.info("GET /courses/student/{}/ids", studentId);
+        List<Long> courseIds = courseService.getCourseIdsByStudent(studentId);
+        return courseIds.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(courseIds);
+    }
+
     @GetMapping("/{id}/available")
     public ResponseEntity<Boolean> isCourseAvailable(@PathVariable Long id) {
         log.info("GET /courses/{}/available", id);
@@ -89,15 +173,47 @@ public class CourseController {
     }
 
     @PostMapping
-    public ResponseEntity<Course> createCourse(@RequestBody Course course) {
+    public ResponseEntity<CourseResponse> createCourse(@RequestBody Course course) {
         log.info("POST /courses");
-        return ResponseEntity.status(HttpStatus.CREATED).body(courseService.saveCourse(course));
+        return ResponseEntity.status(HttpStatus.CREATED).body(CourseResponse.from(courseService.saveCourse(course)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<CourseResponse>> createCourses(@RequestBody List<Course> courses) {
+        log.info("POST /courses/batch ({} courses)", courses.size());
+        try {
+            List<CourseResponse> created = courseService.saveCourses(courses).stream()
+                    .map(CourseResponse::from)
+                    .toList();
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to create courses: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
+    /**
+     * Replaces a course. With an {@code If-Match} header holding the tag from
+     * {@code GET /courses/{id}}, answers 412 instead of overwriting an update made since.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Course> updateCourse(@PathVariable Long id, @RequestBody Course course) {
+    public ResponseEntity<CourseResponse> updateCourse(
+            @PathVariable Long id,
+            @RequestBody Course course,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PUT /courses/{}", id);
-        return ResponseEntity.ok(courseService.updateCourse(id, course));
+        try {
+            return ResponseEntity.ok(CourseResponse.from(courseService.updateCourse(id, course, ifMatch)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to update course {}: {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (StaleVersionException e) {
+            log.warn("Failed to update course {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Failed to update course {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
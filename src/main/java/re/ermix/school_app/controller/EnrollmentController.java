@@ -2,14 +2,31 @@ package re.ermix.school_app.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EnrollmentResponse;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.dto.RosterEntry;
+import re.ermix.school_app.dto.ScheduleConflict;
+import re.ermix.school_app.dto.ScheduleEntry;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.enums.IdempotencyScopeEnum;
 import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.service.CourseFullException;
+import re.ermix.school_app.service.ExportService;
 import re.ermix.school_app.service.EnrollmentService;
+import re.ermix.school_app.service.IdempotencyStore;
+import re.ermix.school_app.util.Cursors;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -20,86 +37,200 @@ import java.util.List;
 public class EnrollmentController {
 
     private final EnrollmentService enrollmentService;
+    private final ExportService exportService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
-    public ResponseEntity<List<Enrollment>> getAllEnrollments() {
-        log.info("GET /enrollments");
-        return ResponseEntity.ok(enrollmentService.getAllEnrollments());
+    public ResponseEntity<CursorPage<EnrollmentResponse>> getAllEnrollments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /enrollments cursor={} size={}", cursor, size);
+        return ResponseEntity.ok(enrollmentService.getEnrollmentsPage(Cursors.decode(cursor), size)
+                .map(EnrollmentResponse::from));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEnrollments() {
+        log.info("GET /enrollments/export");
+        StreamingResponseBody body = exportService::exportEnrollments;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Enrollment> getEnrollmentById(@PathVariable Long id) {
+    public ResponseEntity<EnrollmentResponse> getEnrollmentById(@PathVariable Long id) {
         log.info("GET /enrollments/{}", id);
         return enrollmentService.getEnrollmentById(id)
+                .map(EnrollmentResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByStudent(@PathVariable Long studentId) {
+    public ResponseEntity<List<EnrollmentResponse>> getEnrollmentsByStudent(@PathVariable Long studentId) {
         log.info("GET /enrollments/student/{}", studentId);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsByStudent(studentId);
+        List<EnrollmentResponse> enrollments = enrollmentService.getEnrollmentsByStudent(studentId).stream()
+                .map(EnrollmentResponse::from)
+                .toList();
         return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
     }
 
+    @GetMapping("/student/{studentId}/summary")
+    public ResponseEntity<List<EnrollmentSummary>> getEnrollmentSummariesByStudent(@PathVariable Long studentId) {
+        log.info("GET /enrollments/student/{}/summary", studentId);
+        List<EnrollmentSummary> enrollments = enrollmentService.getEnrollmentSummariesByStudent(studentId);
+        return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
+    }
+
+    @GetMapping("/student/{studentId}/schedule")
+    public ResponseEntity<List<ScheduleEntry>> getStudentSchedule(@PathVariable Long studentId) {
+        log.info("GET /enrollments/student/{}/schedule", studentId);
+        List<ScheduleEntry> schedule = enrollmentService.getStudentSchedule(studentId).stream()
+                .map(ScheduleEntry::from)
+                .toList();
+        return schedule.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(schedule);
+    }
+
+    @GetMapping("/student/{studentId}/conflicts")
+    public ResponseEntity<List<ScheduleConflict>> getScheduleConflicts(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) List<Long> courseIds) {
+        log.info("GET /enrollments/student/{}/conflicts?courseIds={}", studentId, courseIds);
+        List<ScheduleConflict> conflicts = enrollmentService.getScheduleConflicts(studentId, courseIds);
+        return conflicts.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(conflicts);
+    }
+
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<List<EnrollmentResponse>> getEnrollmentsByCourse(@PathVariable Long courseId) {
         log.info("GET /enrollments/course/{}", courseId);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsByCourse(courseId);
+        List<EnrollmentResponse> enrollments = enrollmentService.getEnrollmentsByCourse(courseId).stream()
+                .map(EnrollmentResponse::from)
+                .toList();
         return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
     }
 
+    @GetMapping("/course/{courseId}/roster")
+    public ResponseEntity<List<RosterEntry>> getCourseRoster(@PathVariable Long courseId) {
+        log.info("GET /enrollments/course/{}/roster", courseId);
+        List<RosterEntry> roster = enrollmentService.getCourseRoster(courseId).stream()
+                .map(RosterEntry::from)
+                .toList();
+        return roster.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(roster);
+    }
+
     @GetMapping("/student/{studentId}/course/{courseId}")
-    public ResponseEntity<Enrollment> getEnrollmentByStudentAndCourse(
+    public ResponseEntity<EnrollmentResponse> getEnrollmentByStudentAndCourse(
             @PathVariable Long studentId, @PathVariable Long courseId) {
         log.info("GET /enrollments/student/{}/course/{}", studentId, courseId);
         return enrollmentService.getEnrollmentByStudentAndCourse(studentId, courseId)
+                .map(EnrollmentResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByStatus(@PathVariable EnrollmentStatusEnum status) {
-        log.info("GET /enrollments/status/{}", status);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsByStatus(status);
-        return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
+    public ResponseEntity<CursorPage<EnrollmentResponse>> getEnrollmentsByStatus(
+            @PathVariable EnrollmentStatusEnum status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /enrollments/status/{} cursor={} size={}", status, cursor, size);
+        CursorPage<EnrollmentResponse> page = enrollmentService
+                .getEnrollmentsByStatusPage(status, Cursors.decode(cursor), size)
+                .map(EnrollmentResponse::from);
+        return page.items().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
     }
 
     @GetMapping("/dateRange")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByDateRange(
+    public ResponseEntity<CursorPage<EnrollmentResponse>> getEnrollmentsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        log.info("GET /enrollments/dateRange?startDate={}&endDate={}", startDate, endDate);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsByDateRange(startDate, endDate);
-        return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /enrollments/dateRange?startDate={}&endDate={}&cursor={}&size={}", startDate, endDate, cursor, size);
+        CursorPage<EnrollmentResponse> page = enrollmentService.getEnrollmentsByDateRangePage(
+                startDate, endDate, Cursors.decodeDated(cursor), size)
+                .map(EnrollmentResponse::from);
+        return page.items().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
     }
 
     @GetMapping("/student/{studentId}/status/{status}")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByStudentAndStatus(
+    public ResponseEntity<List<EnrollmentResponse>> getEnrollmentsByStudentAndStatus(
             @PathVariable Long studentId, @PathVariable EnrollmentStatusEnum status) {
         log.info("GET /enrollments/student/{}/status/{}", studentId, status);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsByStudentAndStatus(studentId, status);
+        List<EnrollmentResponse> enrollments = enrollmentService.getEnrollmentsByStudentAndStatus(studentId, status)
+                .stream()
+                .map(EnrollmentResponse::from)
+                .toList();
+        return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
+    }
+
+    @GetMapping("/student/{studentId}/status/{status}/summary")
+    public ResponseEntity<List<EnrollmentSummary>> getEnrollmentSummariesByStudentAndStatus(
+            @PathVariable Long studentId, @PathVariable EnrollmentStatusEnum status) {
+        log.info("GET /enrollments/student/{}/status/{}/summary", studentId, status);
+        List<EnrollmentSummary> enrollments = enrollmentService.getEnrollmentSummariesByStudentAndStatus(studentId, status);
         return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
     }
 
     @GetMapping("/course/{courseId}/status/{status}")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByCourseAndStatus(
+    public ResponseEntity<List<EnrollmentResponse>> getEnrollmentsByCourseAndStatus(
             @PathVariable Long courseId, @PathVariable EnrollmentStatusEnum status) {
         log.info("GET /enrollments/course/{}/status/{}", courseId, status);
-        List<Enrollment> enrollments = enrollmentService.getEnrollmentsByCourseAndStatus(courseId, status);
+        List<EnrollmentResponse> enrollments = enrollmentService.getEnrollmentsByCourseAndStatus(courseId, status)
+                .stream()
+                .map(EnrollmentResponse::from)
+                .toList();
         return enrollments.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(enrollments);
     }
 
+    @GetMapping("/course/{courseId}/waitlist")
+    public ResponseEntity<List<WaitlistEntryResponse>> getCourseWaitlist(@PathVariable Long courseId) {
+        log.info("GET /enrollments/course/{}/waitlist", courseId);
+        List<WaitlistEntryResponse> waitlist = enrollmentService.getCourseWaitlist(courseId);
+        return waitlist.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(waitlist);
+    }
+
+    @DeleteMapping("/course/{courseId}/waitlist/{studentId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable Long courseId, @PathVariable Long studentId) {
+        log.info("DELETE /enrollments/course/{}/waitlist/{}", courseId, studentId);
+        return enrollmentService.leaveWaitlist(studentId, courseId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Enrolls the student, or answers 202 Accepted with their waitlist place when the course is
+     * full; they are enrolled automatically when a seat is freed. Retrying keeps the same place.
+     * With an {@code Idempotency-Key} header, a retry replays the first successful response.
+     */
     @PostMapping("/enroll")
-    public ResponseEntity<Enrollment> enrollStudentInCourse(
+    public ResponseEntity<?> enrollStudentInCourse(
             @RequestParam Long studentId,
             @RequestParam Long courseId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enrollmentDate) {
-        log.info("POST /enrollments/enroll?studentId={}&courseId={}&enrollmentDate={}", studentId, courseId, enrollmentDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enrollmentDate,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        log.info("POST /enrollments/enroll?studentId={}&courseId={}&enrollmentDate={}",
+                studentId, courseId, enrollmentDate);
+        if (idempotencyKey == null) {
+            return enroll(studentId, courseId, enrollmentDate);
+        }
+        return idempotencyStore.execute(IdempotencyScopeEnum.ENROLLMENT, idempotencyKey,
+                List.of(studentId, courseId, enrollmentDate),
+                () -> enroll(studentId, courseId, enrollmentDate));
+    }
+
+    private ResponseEntity<?> enroll(Long studentId, Long courseId, LocalDate enrollmentDate) {
         try {
             Enrollment enrollment = enrollmentService.enrollStudentInCourse(studentId, courseId, enrollmentDate);
             log.info("Student {} successfully enrolled in course {}", studentId, courseId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(enrollment);
+            return ResponseEntity.status(HttpStatus.CREATED).body(EnrollmentResponse.from(enrollment));
+        } catch (CourseFullException e) {
+            log.info("Student {} waitlisted for course {} at position {}", studentId, courseId,
+                    e.getWaitlistEntry().position());
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/enrollments/course/{courseId}/waitlist")
+                    .buildAndExpand(courseId)
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(e.getWaitlistEntry());
         } catch (IllegalArgumentException e) {
             log.warn("Failed to enroll student {} in course {}: {}", studentId, courseId, e.getMessage());
             return ResponseEntity.notFound().build();
@@ -110,16 +241,19 @@ public class EnrollmentController {
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<Enrollment> updateEnrollmentStatus(
+    public ResponseEntity<EnrollmentResponse> updateEnrollmentStatus(
             @PathVariable Long id, @RequestParam EnrollmentStatusEnum status) {
         log.info("PUT /enrollments/{}/status?status={}", id, status);
         try {
             Enrollment enrollment = enrollmentService.updateEnrollmentStatus(id, status);
             log.info("Enrollment {} status updated to {}", id, status);
-            return ResponseEntity.ok(enrollment);
+            return ResponseEntity.ok(EnrollmentResponse.from(enrollment));
         } catch (IllegalArgumentException e) {
             log.warn("Failed to update enrollment {} status: {}", id, e.getMessage());
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            log.warn("Failed to update enrollment {} status: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
@@ -1,17 +1,29 @@
 package re.ermix.school_app.controller;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import re.ermix.school_app.dto.BulkGradeRequest;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.GradeResponse;
 import re.ermix.school_app.enums.GradeTypeEnum;
+import re.ermix.school_app.enums.IdempotencyScopeEnum;
 import re.ermix.school_app.model.Grade;
+import re.ermix.school_app.service.ExportService;
 import re.ermix.school_app.service.GradeService;
+import re.ermix.school_app.service.IdempotencyStore;
+import re.ermix.school_app.util.Cursors;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 @Log4j2
@@ -21,63 +33,92 @@ import java.util.List;
 public class GradeController {
 
     private final GradeService gradeService;
+    private final ExportService exportService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
-    public ResponseEntity<List<Grade>> getAllGrades() {
-        log.info("GET /grades");
-        return ResponseEntity.ok(gradeService.getAllGrades());
+    public ResponseEntity<CursorPage<GradeResponse>> getAllGrades(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /grades cursor={} size={}", cursor, size);
+        return ResponseEntity.ok(gradeService.getGradesPage(Cursors.decode(cursor), size)
+                .map(GradeResponse::from));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportGrades() {
+        log.info("GET /grades/export");
+        StreamingResponseBody body = exportService::exportGrades;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Grade> getGradeById(@PathVariable Long id) {
+    public ResponseEntity<GradeResponse> getGradeById(@PathVariable Long id) {
         log.info("GET /grades/{}", id);
         return gradeService.getGradeById(id)
+                .map(GradeResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/enrollment/{enrollmentId}")
-    public ResponseEntity<List<Grade>> getGradesByEnrollment(@PathVariable Long enrollmentId) {
+    public ResponseEntity<List<GradeResponse>> getGradesByEnrollment(@PathVariable Long enrollmentId) {
         log.info("GET /grades/enrollment/{}", enrollmentId);
-        List<Grade> grades = gradeService.getGradesByEnrollment(enrollmentId);
+        List<GradeResponse> grades = gradeService.getGradesByEnrollment(enrollmentId).stream()
+                .map(GradeResponse::from)
+                .toList();
         return grades.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(grades);
     }
 
     @GetMapping("/type/{gradeTypeEnum}")
-    public ResponseEntity<List<Grade>> getGradesByType(@PathVariable GradeTypeEnum gradeTypeEnum) {
-        log.info("GET /grades/type/{}", gradeTypeEnum);
-        List<Grade> grades = gradeService.getGradesByType(gradeTypeEnum);
-        return grades.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(grades);
+    public ResponseEntity<CursorPage<GradeResponse>> getGradesByType(
+            @PathVariable GradeTypeEnum gradeTypeEnum,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /grades/type/{} cursor={} size={}", gradeTypeEnum, cursor, size);
+        CursorPage<GradeResponse> page = gradeService.getGradesByTypePage(gradeTypeEnum, Cursors.decode(cursor), size)
+                .map(GradeResponse::from);
+        return page.items().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
     }
 
     @GetMapping("/dateRange")
-    public ResponseEntity<List<Grade>> getGradesByDateRange(
+    public ResponseEntity<CursorPage<GradeResponse>> getGradesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        log.info("GET /grades/dateRange startDate={} endDate={}", startDate, endDate);
-        List<Grade> grades = gradeService.getGradesByDateRange(startDate, endDate);
-        return grades.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(grades);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("GET /grades/dateRange startDate={} endDate={} cursor={} size={}", startDate, endDate, cursor, size);
+        CursorPage<GradeResponse> page = gradeService
+                .getGradesByDateRangePage(startDate, endDate, Cursors.decodeDated(cursor), size)
+                .map(GradeResponse::from);
+        return page.items().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<Grade>> getGradesByStudent(@PathVariable Long studentId) {
+    public ResponseEntity<List<GradeResponse>> getGradesByStudent(@PathVariable Long studentId) {
         log.info("GET /grades/student/{}", studentId);
-        List<Grade> grades = gradeService.getGradesByStudent(studentId);
+        List<GradeResponse> grades = gradeService.getGradesByStudent(studentId).stream()
+                .map(GradeResponse::from)
+                .toList();
         return grades.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(grades);
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<Grade>> getGradesByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<List<GradeResponse>> getGradesByCourse(@PathVariable Long courseId) {
         log.info("GET /grades/course/{}", courseId);
-        List<Grade> grades = gradeService.getGradesByCourse(courseId);
+        List<GradeResponse> grades = gradeService.getGradesByCourse(courseId).stream()
+                .map(GradeResponse::from)
+                .toList();
         return grades.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(grades);
     }
 
     @GetMapping("/student/{studentId}/course/{courseId}")
-    public ResponseEntity<List<Grade>> getGradesByStudentAndCourse(
+    public ResponseEntity<List<GradeResponse>> getGradesByStudentAndCourse(
             @PathVariable Long studentId, @PathVariable Long courseId) {
         log.info("GET /grades/student/{}/course/{}", studentId, courseId);
-        List<Grade> grades = gradeService.getGradesByStudentAndCourse(studentId, courseId);
+        List<GradeResponse> grades = gradeService.getGradesByStudentAndCourse(studentId, courseId).stream()
+                .map(GradeResponse::from)
+                .toList();
         return grades.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(grades);
     }
 
@@ -102,31 +143,90 @@ public class GradeController {
         return average != null ? ResponseEntity.ok(average) : ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<Void> rebuildGradeAggregates() {
+        log.info("POST /grades/aggregates/rebuild");
+        gradeService.rebuildGradeAggregates();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Records a grade. With an {@code Idempotency-Key} header, a retry replays the first
+     * successful response instead of recording the grade again.
+     */
     @PostMapping
-    public ResponseEntity<Grade> addGradeToEnrollment(
+    public ResponseEntity<?> addGradeToEnrollment(
             @RequestParam Long enrollmentId,
             @RequestParam BigDecimal gradeValue,
             @RequestParam GradeTypeEnum gradeTypeEnum,
             @RequestParam(required = false) String comment,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateRecorded) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateRecorded,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         log.info("POST /grades enrollmentId={} gradeValue={} gradeTypeEnum={} dateRecorded={}",
                 enrollmentId, gradeValue, gradeTypeEnum, dateRecorded);
+        if (idempotencyKey == null) {
+            return addGrade(enrollmentId, gradeValue, gradeTypeEnum, comment, dateRecorded);
+        }
+        return idempotencyStore.execute(IdempotencyScopeEnum.GRADE, idempotencyKey,
+                Arrays.asList(enrollmentId, gradeValue, gradeTypeEnum, comment, dateRecorded),
+                () -> addGrade(enrollmentId, gradeValue, gradeTypeEnum, comment, dateRecorded));
+    }
+
+    private ResponseEntity<?> addGrade(Long enrollmentId, BigDecimal gradeValue, GradeTypeEnum gradeTypeEnum,
+                                       String comment, LocalDate dateRecorded) {
         try {
             Grade grade = gradeService.addGradeToEnrollment(enrollmentId, gradeValue, gradeTypeEnum, comment, dateRecorded);
-            return ResponseEntity.status(HttpStatus.CREATED).body(grade);
+            return ResponseEntity.status(HttpStatus.CREATED).body(GradeResponse.from(grade));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Records the grades of one assessment, all or none. Takes an {@code Idempotency-Key} header
+     * like {@link #addGradeToEnrollment}.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addGradesForCourse(
+            @Valid @RequestBody BulkGradeRequest request,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        log.info("POST /grades/bulk courseId={} gradeType={} ({} grades)",
+                request.courseId(), request.gradeType(), request.grades().size());
+        if (idempotencyKey == null) {
+            return addGrades(request);
+        }
+        return idempotencyStore.execute(IdempotencyScopeEnum.GRADE_BULK, idempotencyKey, List.of(request),
+                () -> addGrades(request));
+    }
+
+    private ResponseEntity<?> addGrades(BulkGradeRequest request) {
+        try {
+            List<GradeResponse> created = gradeService.addGradesForCourse(request).stream()
+                    .map(GradeResponse::from)
+                    .toList();
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
         } catch (IllegalArgumentException e) {
+            log.warn("Failed to add grades: {}", e.getMessage());
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Failed to add grades: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Grade> updateGrade(@PathVariable Long id, @RequestBody Grade grade) {
+    public ResponseEntity<GradeResponse> updateGrade(@PathVariable Long id, @RequestBody Grade grade) {
         log.info("PUT /grades/{}", id);
         try {
             Grade updatedGrade = gradeService.updateGrade(id, grade);
-            return ResponseEntity.ok(updatedGrade);
+            return ResponseEntity.ok(GradeResponse.from(updatedGrade));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Failed to update grade {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
@@ -0,0 +1,58 @@
+package re.ermix.school_app.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import re.ermix.school_app.dto.ImportReport;
+import re.ermix.school_app.service.CsvImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@Log4j2
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("imports")
+public class ImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final CsvImportService csvImportService;
+
+    @PostMapping(value = "/students", consumes = TEXT_CSV)
+    public ResponseEntity<ImportReport> importStudents(InputStream csv) throws IOException {
+        log.info("POST /imports/students");
+        return accepted(csvImportService.importStudents(csv));
+    }
+
+    @PostMapping(value = "/teachers", consumes = TEXT_CSV)
+    public ResponseEntity<ImportReport> importTeachers(InputStream csv) throws IOException {
+        log.info("POST /imports/teachers");
+        return accepted(csvImportService.importTeachers(csv));
+    }
+
+    @PostMapping(value = "/courses", consumes = TEXT_CSV)
+    public ResponseEntity<ImportReport> importCourses(InputStream csv) throws IOException {
+        log.info("POST /imports/courses");
+        return accepted(csvImportService.importCourses(csv));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportReport> getImport(@PathVariable String id) {
+        log.info("GET /imports/{}", id);
+        return csvImportService.getReport(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<ImportReport> accepted(ImportReport report) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/imports/{id}")
+                .buildAndExpand(report.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(report);
+    }
+}
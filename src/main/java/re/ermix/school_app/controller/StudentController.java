@@ -2,15 +2,27 @@ package re.ermix.school_app.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.StudentResponse;
+import re.ermix.school_app.dto.Transcript;
 import re.ermix.school_app.model.Student;
 import re.ermix.school_app.model.StudentSearchCriteria;
 import re.ermix.school_app.service.StudentService;
+import re.ermix.school_app.service.TranscriptService;
+import re.ermix.school_app.util.Cursors;
+import re.ermix.school_app.util.ETags;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Log4j2
 @RestController
@@ -19,23 +31,68 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final TranscriptService transcriptService;
 
     @GetMapping
-    public ResponseEntity<List<Student>> getAllStudents() {
-        log.info("GET /students");
-        return ResponseEntity.ok(studentService.getAllStudents());
+    public ResponseEntity<CursorPage<StudentResponse>> getAllStudents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /students cursor={} size={}", cursor, size);
+        long afterId = Cursors.decode(cursor);
+        if (ifNoneMatch != null) {
+            String current = ETags.of(studentService.getStudentVersionsPage(afterId, size));
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ETags.notModified(current);
+            }
+        }
+        CursorPage<Student> page = studentService.getStudentsPage(afterId, size);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(page.map(student -> new EntityVersion(student.getId(), student.getUpdatedAt()))))
+                .body(page.map(StudentResponse::from));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Student> getStudentById(@PathVariable Long id) {
+    public ResponseEntity<StudentResponse> getStudentById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /students/{}", id);
+        if (ifNoneMatch != null) {
+            Optional<EntityVersion> version = studentService.getStudentVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String current = ETags.of(version.get());
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ETags.notModified(current);
+            }
+        }
         return studentService.getStudentById(id)
+                .map(student -> ResponseEntity.ok()
+                        .eTag(ETags.of(student.getId(), student.getUpdatedAt()))
+                        .body(StudentResponse.from(student)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/transcript")
+    public ResponseEntity<Transcript> getTranscript(@PathVariable Long id) {
+        log.info("GET /students/{}/transcript", id);
+        return transcriptService.getTranscript(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/transcripts/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTranscripts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("GET /students/transcripts/export from {} to {}", startDate, endDate);
+        StreamingResponseBody body = out -> transcriptService.exportCohortTranscripts(startDate, endDate, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<Student>> searchStudents(
+    public ResponseEntity<List<StudentResponse>> searchStudents(
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String firstName,
             @RequestParam(required = false) String lastName,
@@ -55,19 +112,36 @@ public class StudentController {
         criteria.setDateOfBirthEnd(dateOfBirthEnd);
         criteria.setCourseId(courseId);
         
-        List<Student> students = studentService.searchStudents(criteria);
+        List<StudentResponse> students = studentService.searchStudents(criteria).stream()
+                .map(StudentResponse::from)
+                .toList();
         return students.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(students);
     }
 
     @PostMapping
-    public ResponseEntity<Student> createStudent(@RequestBody Student student) {
+    public ResponseEntity<StudentResponse> createStudent(@RequestBody Student student) {
         log.info("POST /students");
-        return ResponseEntity.status(HttpStatus.CREATED).body(studentService.saveStudent(student));
+        Student created = studentService.saveStudent(student);
+        return ResponseEntity.status(HttpStatus.CREATED).body(StudentResponse.from(created));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<StudentResponse>> createStudents(@RequestBody List<Student> students) {
+        log.info("POST /students/batch ({} students)", students.size());
+        try {
+            List<StudentResponse> created = studentService.saveStudents(students).stream()
+                    .map(StudentResponse::from)
+                    .toList();
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to create students: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Student> updateStudent(@PathVariable Long id, @RequestBody Student student) {
-        return ResponseEntity.ok(studentService.updateStudent(id, student));
+    public ResponseEntity<StudentResponse> updateStudent(@PathVariable Long id, @RequestBody Student student) {
+        return ResponseEntity.ok(StudentResponse.from(studentService.updateStudent(id, student)));
     }
 
     @DeleteMapping("/{id}")
@@ -2,14 +2,21 @@ package re.ermix.school_app.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.TeacherResponse;
 import re.ermix.school_app.model.Teacher;
 import re.ermix.school_app.service.TeacherService;
+import re.ermix.school_app.util.Cursors;
+import re.ermix.school_app.util.ETags;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Log4j2
 @RestController
@@ -20,74 +27,135 @@ public class TeacherController {
     private final TeacherService teacherService;
 
     @GetMapping
-    public ResponseEntity<List<Teacher>> getAllTeachers() {
-        log.info("GET /teachers");
-        return ResponseEntity.ok(teacherService.getAllTeachers());
+    public ResponseEntity<CursorPage<TeacherResponse>> getAllTeachers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /teachers cursor={} size={}", cursor, size);
+        long afterId = Cursors.decode(cursor);
+        if (ifNoneMatch != null) {
+            String current = ETags.of(teacherService.getTeacherVersionsPage(afterId, size));
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ETags.notModified(current);
+            }
+        }
+        CursorPage<Teacher> page = teacherService.getTeachersPage(afterId, size);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(page.map(teacher -> new EntityVersion(teacher.getId(), teacher.getUpdatedAt()))))
+                .body(page.map(TeacherResponse::from));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Teacher> getTeacherById(@PathVariable Long id) {
+    public ResponseEntity<TeacherResponse> getTeacherById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /teachers/{}", id);
+        if (ifNoneMatch != null) {
+            Optional<EntityVersion> version = teacherService.getTeacherVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String current = ETags.of(version.get());
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ETags.notModified(current);
+            }
+        }
         return teacherService.getTeacherById(id)
-                .map(ResponseEntity::ok)
+                .map(teacher -> ResponseEntity.ok()
+                        .eTag(ETags.of(teacher.getId(), teacher.getUpdatedAt()))
+                        .body(TeacherResponse.from(teacher)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<Teacher> getTeacherByEmail(@PathVariable String email) {
+    public ResponseEntity<TeacherResponse> getTeacherByEmail(@PathVariable String email) {
         log.info("GET /teachers/email/{}", email);
         return teacherService.getTeacherByEmail(email)
+                .map(TeacherResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/lastName/{lastName}")
-    public ResponseEntity<List<Teacher>> getTeachersByLastName(@PathVariable String lastName) {
+    public ResponseEntity<List<TeacherResponse>> getTeachersByLastName(@PathVariable String lastName) {
         log.info("GET /teachers/lastName/{}", lastName);
-        List<Teacher> teachers = teacherService.getTeachersByLastName(lastName);
+        List<TeacherResponse> teachers = teacherService.getTeachersByLastName(lastName).stream()
+                .map(TeacherResponse::from)
+                .toList();
+        return teachers.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(teachers);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<TeacherResponse>> searchTeachers(@RequestParam String q) {
+        log.info("GET /teachers/search q={}", q);
+        List<TeacherResponse> teachers = teacherService.searchTeachers(q).stream()
+                .map(TeacherResponse::from)
+                .toList();
         return teachers.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(teachers);
     }
 
     @GetMapping("/name")
-    public ResponseEntity<List<Teacher>> getTeachersByName(
+    public ResponseEntity<List<TeacherResponse>> getTeachersByName(
             @RequestParam String firstName, @RequestParam String lastName) {
         log.info("GET /teachers/name firstName={} lastName={}", firstName, lastName);
-        List<Teacher> teachers = teacherService.getTeachersByName(firstName, lastName);
+        List<TeacherResponse> teachers = teacherService.getTeachersByName(firstName, lastName).stream()
+                .map(TeacherResponse::from)
+                .toList();
         return teachers.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(teachers);
     }
 
     @GetMapping("/specialty/{specialty}")
-    public ResponseEntity<List<Teacher>> getTeachersBySubjectSpecialty(@PathVariable String specialty) {
+    public ResponseEntity<List<TeacherResponse>> getTeachersBySubjectSpecialty(@PathVariable String specialty) {
         log.info("GET /teachers/specialty/{}", specialty);
-        List<Teacher> teachers = teacherService.getTeachersBySubjectSpecialty(specialty);
+        List<TeacherResponse> teachers = teacherService.getTeachersBySubjectSpecialty(specialty).stream()
+                .map(TeacherResponse::from)
+                .toList();
         return teachers.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(teachers);
     }
 
     @GetMapping("/hiredAfter/{date}")
-    public ResponseEntity<List<Teacher>> getTeachersHiredAfter(@PathVariable LocalDate date) {
+    public ResponseEntity<List<TeacherResponse>> getTeachersHiredAfter(@PathVariable LocalDate date) {
         log.info("GET /teachers/hiredAfter/{}", date);
-        List<Teacher> teachers = teacherService.getTeachersHiredAfter(date);
+        List<TeacherResponse> teachers = teacherService.getTeachersHiredAfter(date).stream()
+                .map(TeacherResponse::from)
+                .toList();
         return teachers.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(teachers);
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<Teacher> getTeacherByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<TeacherResponse> getTeacherByCourse(@PathVariable Long courseId) {
         log.info("GET /teachers/course/{}", courseId);
         return teacherService.getTeacherByCourse(courseId)
+                .map(TeacherResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Teacher> createTeacher(@RequestBody Teacher teacher) {
+    public ResponseEntity<TeacherResponse> createTeacher(@RequestBody Teacher teacher) {
         log.info("POST /teachers");
-        return ResponseEntity.status(HttpStatus.CREATED).body(teacherService.saveTeacher(teacher));
+        Teacher created = teacherService.saveTeacher(teacher);
+        return ResponseEntity.status(HttpStatus.CREATED).body(TeacherResponse.from(created));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<TeacherResponse>> createTeachers(@RequestBody List<Teacher> teachers) {
+        log.info("POST /teachers/batch ({} teachers)", teachers.size());
+        try {
+            List<TeacherResponse> created = teacherService.saveTeachers(teachers).stream()
+                    .map(TeacherResponse::from)
+                    .toList();
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to create teachers: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Teacher> updateTeacher(@PathVariable Long id, @RequestBody Teacher teacher) {
+    public ResponseEntity<TeacherResponse> updateTeacher(@PathVariable Long id, @RequestBody Teacher teacher) {
         log.info("PUT /teachers/{}", id);
-        return ResponseEntity.ok(teacherService.updateTeacher(id, teacher));
+        return ResponseEntity.ok(TeacherResponse.from(teacherService.updateTeacher(id, teacher)));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,39 @@
+package re.ermix.school_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import re.ermix.school_app.enums.GradeTypeEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Grades of one assessment in a course. Each entry names its enrollment either directly or
+ * by the enrolled student.
+ */
+public record BulkGradeRequest(@NotNull Long courseId,
+                               @NotNull GradeTypeEnum gradeType,
+                               @NotNull LocalDate dateRecorded,
+                               @NotEmpty @Size(max = BulkGradeRequest.MAX_ENTRIES) List<@Valid @NotNull Entry> grades) {
+
+    public static final int MAX_ENTRIES = 1000;
+
+    public record Entry(Long enrollmentId,
+                        Long studentId,
+                        @NotNull @DecimalMin("0") @Digits(integer = 3, fraction = 2) BigDecimal gradeValue,
+                        String comment) {
+
+        @JsonIgnore
+        @AssertTrue(message = "exactly one of enrollmentId and studentId must be given")
+        public boolean isSingleTarget() {
+            return (enrollmentId == null) != (studentId == null);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package re.ermix.school_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
+import re.ermix.school_app.model.ChangeEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the change feed. The payload is the entity as returned by its own endpoint after
+ * the change, or null for deletions; deleting an enrollment also deletes its grades.
+ */
+public record ChangeEventResponse(long offset, ChangeEntityEnum entity, Long entityId, ChangeTypeEnum type,
+                                  @JsonRawValue String payload, LocalDateTime createdAt) {
+
+    public static ChangeEventResponse from(ChangeEvent event) {
+        return new ChangeEventResponse(event.getFeedOffset(), event.getEntity(), event.getEntityId(), event.getChangeType(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,10 @@
+package re.ermix.school_app.dto;
+
+import java.util.List;
+
+/**
+ * Changes after a given offset. {@code next} is the offset to ask for next time; it equals the
+ * requested offset when nothing new has been published.
+ */
+public record ChangePage(List<ChangeEventResponse> changes, long next) {
+}
@@ -0,0 +1,18 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Teacher;
+
+/**
+ * Course as returned by the API. The teacher is referenced by id only; reading the id of a
+ * lazy proxy does not initialize it, so building one never loads the teacher.
+ */
+public record CourseResponse(Long id, String courseCode, String title, String description, Integer credits,
+                             Integer maxStudents, Long teacherId) {
+
+    public static CourseResponse from(Course course) {
+        Teacher teacher = course.getTeacher();
+        return new CourseResponse(course.getId(), course.getCourseCode(), course.getTitle(), course.getDescription(),
+                course.getCredits(), course.getMaxStudents(), teacher != null ? teacher.getId() : null);
+    }
+}
@@ -0,0 +1,43 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.util.Cursors;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code next} is the cursor to pass back to get
+ * the following page and is {@code null} on the last page.
+ */
+public record CursorPage<T>(List<T> items, String next) {
+
+    public static final int MAX_SIZE = 500;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row
+     * only tells whether there is a next page and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idExtractor) {
+        return keyedBy(rows, size, row -> Cursors.encode(idExtractor.apply(row)));
+    }
+
+    /**
+     * Like {@link #of}, for lists whose cursor is more than the id; {@code cursorEncoder} turns
+     * the last row of the page into the cursor of the next one.
+     */
+    public static <T> CursorPage<T> keyedBy(List<T> rows, int size, Function<T, String> cursorEncoder) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorEncoder.apply(items.get(size - 1)));
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,19 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.model.Enrollment;
+
+import java.time.LocalDate;
+
+/**
+ * Enrollment as returned by the API and written by the NDJSON export. The student and course
+ * are referenced by id only, so building one never loads either of them.
+ */
+public record EnrollmentResponse(Long id, Long studentId, Long courseId, LocalDate enrollmentDate,
+                                 EnrollmentStatusEnum status) {
+
+    public static EnrollmentResponse from(Enrollment enrollment) {
+        return new EnrollmentResponse(enrollment.getId(), enrollment.getStudent().getId(),
+                enrollment.getCourse().getId(), enrollment.getEnrollmentDate(), enrollment.getStatus());
+    }
+}
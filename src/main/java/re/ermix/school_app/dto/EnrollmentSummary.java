@@ -0,0 +1,11 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+
+import java.time.LocalDate;
+
+/**
+ * Compact view of one of a student's enrollments, as held by the per-student enrollment cache.
+ */
+public record EnrollmentSummary(Long id, Long courseId, EnrollmentStatusEnum status, LocalDate enrollmentDate) {
+}
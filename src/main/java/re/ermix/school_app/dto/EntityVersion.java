@@ -0,0 +1,10 @@
+package re.ermix.school_app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id and last modification time of a row, read without loading the entity to answer
+ * conditional requests.
+ */
+public record EntityVersion(Long id, LocalDateTime updatedAt) {
+}
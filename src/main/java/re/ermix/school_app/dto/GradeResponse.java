@@ -0,0 +1,20 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.enums.GradeTypeEnum;
+import re.ermix.school_app.model.Grade;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Grade as returned by the API and written by the NDJSON export. The enrollment is referenced
+ * by id only, so building one never loads the enrollment.
+ */
+public record GradeResponse(Long id, Long enrollmentId, BigDecimal gradeValue, GradeTypeEnum gradeType,
+                            String comment, LocalDate dateRecorded) {
+
+    public static GradeResponse from(Grade grade) {
+        return new GradeResponse(grade.getId(), grade.getEnrollment().getId(), grade.getGradeValue(),
+                grade.getGradeType(), grade.getComment(), grade.getDateRecorded());
+    }
+}
@@ -0,0 +1,26 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.enums.ImportStateEnum;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State of a CSV import job. Progress is the share of the uploaded file parsed so far;
+ * every rejected row is listed with its line number and reason.
+ */
+public record ImportReport(String id,
+                           String entity,
+                           ImportStateEnum state,
+                           int progressPercent,
+                           long rowsRead,
+                           long rowsImported,
+                           long rowsRejected,
+                           List<RowError> errors,
+                           String failure,
+                           LocalDateTime startedAt,
+                           LocalDateTime finishedAt) {
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,16 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.model.CourseMeeting;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One weekly meeting of a course, read without loading the course.
+ */
+public record MeetingSlot(Long courseId, CourseMeeting meeting) {
+
+    public MeetingSlot(Long courseId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this(courseId, new CourseMeeting(dayOfWeek, startTime, endTime));
+    }
+}
@@ -0,0 +1,20 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Student;
+
+import java.time.LocalDate;
+
+/**
+ * One student on a course roster. Built from an enrollment loaded together with its student.
+ */
+public record RosterEntry(Long enrollmentId, Long studentId, String firstName, String lastName, String email,
+                          EnrollmentStatusEnum status, LocalDate enrollmentDate) {
+
+    public static RosterEntry from(Enrollment enrollment) {
+        Student student = enrollment.getStudent();
+        return new RosterEntry(enrollment.getId(), student.getId(), student.getFirstName(), student.getLastName(),
+                student.getEmail(), enrollment.getStatus(), enrollment.getEnrollmentDate());
+    }
+}
@@ -0,0 +1,9 @@
+package re.ermix.school_app.dto;
+
+import java.util.List;
+
+/**
+ * A course whose meetings overlap those of courses the student is actively enrolled in.
+ */
+public record ScheduleConflict(Long courseId, List<Long> conflictingCourseIds) {
+}
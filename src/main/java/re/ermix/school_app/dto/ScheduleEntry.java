@@ -0,0 +1,23 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Teacher;
+
+import java.time.LocalDate;
+
+/**
+ * One course on a student's schedule. Built from an enrollment loaded together with its course.
+ */
+public record ScheduleEntry(Long enrollmentId, Long courseId, String courseCode, String title, Integer credits,
+                            Long teacherId, EnrollmentStatusEnum status, LocalDate enrollmentDate) {
+
+    public static ScheduleEntry from(Enrollment enrollment) {
+        Course course = enrollment.getCourse();
+        Teacher teacher = course.getTeacher();
+        return new ScheduleEntry(enrollment.getId(), course.getId(), course.getCourseCode(), course.getTitle(),
+                course.getCredits(), teacher != null ? teacher.getId() : null, enrollment.getStatus(),
+                enrollment.getEnrollmentDate());
+    }
+}
@@ -0,0 +1,7 @@
+package re.ermix.school_app.dto;
+
+/**
+ * The searchable text of a student or teacher, as loaded into the name search index.
+ */
+public record SearchableName(Long id, String firstName, String lastName, String email) {
+}
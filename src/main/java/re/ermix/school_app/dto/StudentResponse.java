@@ -0,0 +1,18 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.model.Student;
+
+import java.time.LocalDate;
+
+/**
+ * Student as returned by the API. Enrollments are not included; they have their own endpoints.
+ */
+public record StudentResponse(Long id, String firstName, String lastName, String email, LocalDate dateOfBirth,
+                              String address, String phoneNumber, LocalDate enrollmentDate) {
+
+    public static StudentResponse from(Student student) {
+        return new StudentResponse(student.getId(), student.getFirstName(), student.getLastName(),
+                student.getEmail(), student.getDateOfBirth(), student.getAddress(), student.getPhoneNumber(),
+                student.getEnrollmentDate());
+    }
+}
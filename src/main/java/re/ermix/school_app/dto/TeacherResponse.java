@@ -0,0 +1,17 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.model.Teacher;
+
+import java.time.LocalDate;
+
+/**
+ * Teacher as returned by the API. Courses are not included; they have their own endpoints.
+ */
+public record TeacherResponse(Long id, String firstName, String lastName, String email, String phoneNumber,
+                              LocalDate hireDate, String subjectSpecialty) {
+
+    public static TeacherResponse from(Teacher teacher) {
+        return new TeacherResponse(teacher.getId(), teacher.getFirstName(), teacher.getLastName(),
+                teacher.getEmail(), teacher.getPhoneNumber(), teacher.getHireDate(), teacher.getSubjectSpecialty());
+    }
+}
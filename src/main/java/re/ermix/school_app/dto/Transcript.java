@@ -0,0 +1,41 @@
+package re.ermix.school_app.dto;
+
+import re.ermix.school_app.model.Student;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A student's courses with their averages, and the GPA: the mean of the course averages weighted
+ * by course credits, on the same scale as grade values. Only courses with grades count towards
+ * the GPA and the graded credits; dropped enrollments are left out altogether.
+ */
+public record Transcript(Long studentId,
+                         String firstName,
+                         String lastName,
+                         String email,
+                         LocalDate enrollmentDate,
+                         List<TranscriptCourse> courses,
+                         int creditsAttempted,
+                         int creditsGraded,
+                         BigDecimal gpa) {
+
+    public static Transcript of(Student student, List<TranscriptCourse> courses) {
+        int creditsAttempted = 0;
+        int creditsGraded = 0;
+        BigDecimal weightedSum = BigDecimal.ZERO;
+        for (TranscriptCourse course : courses) {
+            creditsAttempted += course.credits();
+            if (course.average() != null) {
+                creditsGraded += course.credits();
+                weightedSum = weightedSum.add(course.average().multiply(BigDecimal.valueOf(course.credits())));
+            }
+        }
+        BigDecimal gpa = creditsGraded == 0
+                ? null : weightedSum.divide(BigDecimal.valueOf(creditsGraded), 2, RoundingMode.HALF_UP);
+        return new Transcript(student.getId(), student.getFirstName(), student.getLastName(), student.getEmail(),
+                student.getEnrollmentDate(), courses, creditsAttempted, creditsGraded, gpa);
+    }
+}
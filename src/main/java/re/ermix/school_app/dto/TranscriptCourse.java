@@ -0,0 +1,34 @@
+package re.ermix.school_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * One course on a student's transcript. The average is that of the enrollment's grades, or null
+ * while it has none.
+ */
+public record TranscriptCourse(@JsonIgnore Long studentId,
+                               Long enrollmentId,
+                               Long courseId,
+                               String courseCode,
+                               String title,
+                               Integer credits,
+                               EnrollmentStatusEnum status,
+                               LocalDate enrollmentDate,
+                               long gradeCount,
+                               BigDecimal average) {
+
+    // Built by the transcript query from the enrollment's grade aggregate, absent without grades
+    public TranscriptCourse(Long studentId, Long enrollmentId, Long courseId, String courseCode, String title,
+                            Integer credits, EnrollmentStatusEnum status, LocalDate enrollmentDate,
+                            BigDecimal gradeSum, Long gradeCount) {
+        this(studentId, enrollmentId, courseId, courseCode, title, credits, status, enrollmentDate,
+                gradeCount == null ? 0 : gradeCount,
+                gradeCount == null || gradeCount <= 0
+                        ? null : gradeSum.divide(BigDecimal.valueOf(gradeCount), 2, RoundingMode.HALF_UP));
+    }
+}
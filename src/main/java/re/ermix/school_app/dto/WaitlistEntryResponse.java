@@ -0,0 +1,10 @@
+package re.ermix.school_app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A student's place on a course waitlist; position 1 is promoted when the next seat is freed.
+ */
+public record WaitlistEntryResponse(Long id, Long studentId, Long courseId, int position, int priority,
+                                    LocalDateTime requestedAt) {
+}
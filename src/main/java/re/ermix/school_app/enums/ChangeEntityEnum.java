@@ -0,0 +1,5 @@
+package re.ermix.school_app.enums;
+
+public enum ChangeEntityEnum {
+    ENROLLMENT, GRADE
+}
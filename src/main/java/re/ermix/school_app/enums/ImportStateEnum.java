@@ -0,0 +1,5 @@
+package re.ermix.school_app.enums;
+
+public enum ImportStateEnum {
+    RUNNING, COMPLETED, FAILED
+}
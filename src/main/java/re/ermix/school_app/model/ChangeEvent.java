@@ -0,0 +1,50 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the change outbox. Rows are written by {@link re.ermix.school_app.service.ChangeOutbox}
+ * and only ever read through this entity.
+ */
+@Data
+@Entity
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "change_events")
+public class ChangeEvent {
+
+    // Only orders the inserts; rows are published by feedOffset
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Assigned by ChangeOutbox once the row has committed; null until then
+    @Column(name = "feed_offset", unique = true)
+    private Long feedOffset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeEntityEnum entity;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ChangeTypeEnum changeType;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
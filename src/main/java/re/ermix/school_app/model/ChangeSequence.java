@@ -0,0 +1,25 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row holding the last change feed offset handed out. It is read and written by
+ * {@link re.ermix.school_app.service.ChangeOutbox} with plain JDBC; this entity only maps the
+ * table.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "change_sequence")
+public class ChangeSequence {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_offset", nullable = false)
+    private Long lastOffset;
+}
@@ -1,14 +1,19 @@
 package re.ermix.school_app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Data
@@ -19,7 +24,9 @@ import java.util.Set;
 public class Course {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "courses_id")
+    @TableGenerator(name = "courses_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "courses", allocationSize = 50)
     private Long id;
     
     @Column(name = "course_code", nullable = false, unique = true)
@@ -40,6 +47,19 @@ public class Course {
     
     @Column(name = "max_students")
     private Integer maxStudents;
+
+    // Managed through /courses/{id}/meetings, which also invalidates the students' schedules
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ElementCollection
+    @CollectionTable(name = "course_meetings", joinColumns = @JoinColumn(name = "course_id"))
+    private List<CourseMeeting> meetings = new ArrayList<>();
+
+    // Checked and incremented on every update; not part of the API
+    @JsonIgnore
+    @Version
+    private Long version;
     
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -0,0 +1,60 @@
+package re.ermix.school_app.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A weekly meeting of a course, from {@code startTime} up to but excluding {@code endTime}, so
+ * back-to-back meetings do not overlap.
+ */
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseMeeting {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @NotNull
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @NotNull
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @JsonIgnore
+    @AssertTrue(message = "a meeting must end after it starts")
+    public boolean isValidRange() {
+        // Meetings are compared to the minute
+        return startTime == null || endTime == null
+                || endTime.truncatedTo(ChronoUnit.MINUTES).isAfter(startTime.truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    // Minutes since Monday 00:00, the scale of the schedule interval trees
+    public int startMinuteOfWeek() {
+        return minuteOfWeek(startTime);
+    }
+
+    public int endMinuteOfWeek() {
+        return minuteOfWeek(endTime);
+    }
+
+    private int minuteOfWeek(LocalTime time) {
+        return (dayOfWeek.getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -1,8 +1,10 @@
 package re.ermix.school_app.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
@@ -20,10 +22,18 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "enrollments")
+@NamedEntityGraph(name = Enrollment.WITH_STUDENT, attributeNodes = @NamedAttributeNode("student"))
+@NamedEntityGraph(name = Enrollment.WITH_COURSE, attributeNodes = @NamedAttributeNode("course"))
 public class Enrollment {
 
+    // Fetch plans for endpoints that return fields of the associated student or course
+    public static final String WITH_STUDENT = "Enrollment.withStudent";
+    public static final String WITH_COURSE = "Enrollment.withCourse";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "enrollments_id")
+    @TableGenerator(name = "enrollments_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "enrollments", allocationSize = 50)
     private Long id;
 
     @JsonBackReference
@@ -42,10 +52,16 @@ public class Enrollment {
     @Column(nullable = false)
     private EnrollmentStatusEnum status = EnrollmentStatusEnum.ACTIVE;
 
+    // Loaded for many enrollments at once when a student and their enrollments are deleted
     @JsonBackReference
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "enrollment", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Grade> grades = new HashSet<>();
 
+    @JsonIgnore
+    @Version
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
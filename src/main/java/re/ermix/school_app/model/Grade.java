@@ -1,5 +1,6 @@
 package re.ermix.school_app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -27,7 +28,9 @@ import java.time.LocalDateTime;
 public class Grade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "grades_id")
+    @TableGenerator(name = "grades_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "grades", allocationSize = 50)
     private Long id;
 
     @JsonManagedReference
@@ -48,6 +51,10 @@ public class Grade {
     @Column(name = "date_recorded", nullable = false)
     private LocalDate dateRecorded;
 
+    @JsonIgnore
+    @Version
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
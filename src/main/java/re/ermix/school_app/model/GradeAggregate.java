@@ -0,0 +1,40 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "grade_aggregates")
+public class GradeAggregate {
+
+    @EmbeddedId
+    private GradeAggregateId id;
+
+    @Column(name = "grade_sum", nullable = false, precision = 15, scale = 2)
+    private BigDecimal gradeSum;
+
+    @Column(name = "grade_count", nullable = false)
+    private Long gradeCount;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Average of the aggregated grades, or null when there are none
+    public BigDecimal average() {
+        if (gradeCount == null || gradeCount <= 0) {
+            return null;
+        }
+        return gradeSum.divide(BigDecimal.valueOf(gradeCount), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,26 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import re.ermix.school_app.enums.GradeAggregateScopeEnum;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeAggregateId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GradeAggregateScopeEnum scope;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+}
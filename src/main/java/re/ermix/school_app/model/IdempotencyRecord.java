@@ -0,0 +1,40 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored response for an {@code Idempotency-Key}. Rows are written and read by
+ * {@link re.ermix.school_app.service.IdempotencyStore} with plain JDBC; this entity only maps
+ * the table.
+ */
+@Data
+@Entity
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @EmbeddedId
+    private IdempotencyRecordId id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    private Integer status;
+
+    @Column(length = 2048)
+    private String location;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import re.ermix.school_app.enums.IdempotencyScopeEnum;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecordId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyScopeEnum scope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+}
@@ -3,6 +3,7 @@ package re.ermix.school_app.model;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -22,7 +23,9 @@ import java.util.Set;
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "students_id")
+    @TableGenerator(name = "students_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "students", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name", nullable = false)
@@ -46,6 +49,7 @@ public class Student {
     private LocalDate enrollmentDate;
 
     @JsonManagedReference
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Enrollment> enrollments = new HashSet<>();
 
@@ -20,7 +20,9 @@ import java.util.Set;
 public class Teacher {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "teachers_id")
+    @TableGenerator(name = "teachers_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "teachers", allocationSize = 50)
     private Long id;
     
     @Column(name = "first_name", nullable = false)
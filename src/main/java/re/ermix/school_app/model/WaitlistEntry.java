@@ -0,0 +1,43 @@
+package re.ermix.school_app.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * A student waiting for a seat in a full course. Entries are ordered by descending priority and
+ * then by request time; see {@link re.ermix.school_app.service.CourseWaitlist}.
+ */
+@Getter
+@Setter
+@ToString(exclude = {"student", "course"})
+@EqualsAndHashCode(exclude = {"student", "course"})
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "waitlist_entries")
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @Column(nullable = false)
+    private int priority;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+}
@@ -0,0 +1,29 @@
+package re.ermix.school_app.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import re.ermix.school_app.model.ChangeEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    List<ChangeEvent> findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(Long afterOffset, Limit limit);
+
+    List<ChangeEvent> findByFeedOffsetGreaterThanAndFeedOffsetLessThanEqualOrderByFeedOffsetAsc(Long afterOffset,
+                                                                                              Long maxOffset,
+                                                                                              Limit limit);
+
+    @Query("SELECT MAX(c.feedOffset) FROM ChangeEvent c")
+    Optional<Long> findMaxFeedOffset();
+
+    @Modifying
+    @Query("DELETE FROM ChangeEvent c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(LocalDateTime cutoff);
+}
@@ -1,10 +1,14 @@
 package re.ermix.school_app.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.MeetingSlot;
 import re.ermix.school_app.model.Course;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +17,21 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     Optional<Course> findByCourseCode(String courseCode);
     
+    @Query("SELECT c.courseCode FROM Course c WHERE c.courseCode IN :courseCodes")
+    List<String> findExistingCourseCodes(Collection<String> courseCodes);
+
+    @Query("SELECT c.courseCode FROM Course c")
+    List<String> findAllCourseCodes();
+    
+    List<Course> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT new re.ermix.school_app.dto.EntityVersion(c.id, c.updatedAt) FROM Course c WHERE c.id = :id")
+    Optional<EntityVersion> findVersionById(Long id);
+
+    @Query("SELECT new re.ermix.school_app.dto.EntityVersion(c.id, c.updatedAt) FROM Course c " +
+            "WHERE c.id > :afterId ORDER BY c.id")
+    List<EntityVersion> findVersionsAfter(Long afterId, Limit limit);
+    
     List<Course> findByTitle(String title);
     
     List<Course> findByCredits(Integer credits);
@@ -27,4 +46,13 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     @Query("SELECT c FROM Course c JOIN Enrollment e ON c.id = e.course.id WHERE e.student.id = :studentId")
     List<Course> findByStudentId(Long studentId);
+
+    @Query("SELECT new re.ermix.school_app.dto.MeetingSlot(c.id, m.dayOfWeek, m.startTime, m.endTime) " +
+            "FROM Enrollment e JOIN e.course c JOIN c.meetings m " +
+            "WHERE e.student.id = :studentId AND e.status = 'ACTIVE'")
+    List<MeetingSlot> findActiveMeetingSlotsByStudentId(Long studentId);
+
+    @Query("SELECT new re.ermix.school_app.dto.MeetingSlot(c.id, m.dayOfWeek, m.startTime, m.endTime) " +
+            "FROM Course c JOIN c.meetings m WHERE c.id IN :courseIds")
+    List<MeetingSlot> findMeetingSlotsByCourseIdIn(Collection<Long> courseIds);
 }
\ No newline at end of file
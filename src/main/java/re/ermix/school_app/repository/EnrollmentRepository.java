@@ -1,14 +1,24 @@
 package re.ermix.school_app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import re.ermix.school_app.dto.EnrollmentResponse;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.dto.TranscriptCourse;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
 import re.ermix.school_app.model.Enrollment;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
@@ -17,18 +27,61 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
     List<Enrollment> findByCourseId(Long courseId);
 
+    @EntityGraph(Enrollment.WITH_STUDENT)
+    @Query("SELECT e FROM Enrollment e WHERE e.course.id = :courseId ORDER BY e.student.lastName, e.student.firstName, e.id")
+    List<Enrollment> findRosterByCourseId(Long courseId);
+
+    @EntityGraph(Enrollment.WITH_COURSE)
+    @Query("SELECT e FROM Enrollment e WHERE e.student.id = :studentId ORDER BY e.enrollmentDate, e.id")
+    List<Enrollment> findScheduleByStudentId(Long studentId);
+
     Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
 
     List<Enrollment> findByStatus(EnrollmentStatusEnum status);
 
     List<Enrollment> findByEnrollmentDateBetween(LocalDate startDate, LocalDate endDate);
 
+    List<Enrollment> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<Enrollment> findByStatusAndIdGreaterThanOrderByIdAsc(EnrollmentStatusEnum status, Long afterId, Limit limit);
+
+    // Keyset page in (enrollment_date, id) order, which the enrollment date index reads without sorting
+    @Query("SELECT e FROM Enrollment e WHERE e.enrollmentDate BETWEEN :startDate AND :endDate " +
+            "AND (e.enrollmentDate > :afterDate OR (e.enrollmentDate = :afterDate AND e.id > :afterId)) " +
+            "ORDER BY e.enrollmentDate, e.id")
+    List<Enrollment> findPageByEnrollmentDateBetween(LocalDate startDate, LocalDate endDate,
+                                                     LocalDate afterDate, Long afterId, Limit limit);
+
+    @Query("SELECT e FROM Enrollment e WHERE e.course.id = :courseId AND e.id IN :ids")
+    List<Enrollment> findByCourseIdAndIdIn(Long courseId, Collection<Long> ids);
+
+    @Query("SELECT e FROM Enrollment e WHERE e.course.id = :courseId AND e.student.id IN :studentIds")
+    List<Enrollment> findByCourseIdAndStudentIdIn(Long courseId, Collection<Long> studentIds);
+
     @Query("SELECT e FROM Enrollment e WHERE e.student.id = :studentId AND e.status = :status")
     List<Enrollment> findByStudentIdAndStatus(Long studentId, EnrollmentStatusEnum status);
 
     @Query("SELECT e FROM Enrollment e WHERE e.course.id = :courseId AND e.status = :status")
     List<Enrollment> findByCourseIdAndStatus(Long courseId, EnrollmentStatusEnum status);
 
+    @Query("SELECT new re.ermix.school_app.dto.EnrollmentSummary(e.id, e.course.id, e.status, e.enrollmentDate) " +
+            "FROM Enrollment e WHERE e.student.id = :studentId ORDER BY e.id")
+    List<EnrollmentSummary> findSummariesByStudentId(Long studentId);
+
+    // Course averages come from the enrollment grade aggregates, so no grade rows are read
+    @Query("SELECT new re.ermix.school_app.dto.TranscriptCourse(e.student.id, e.id, c.id, c.courseCode, c.title, " +
+            "c.credits, e.status, e.enrollmentDate, a.gradeSum, a.gradeCount) FROM Enrollment e JOIN e.course c " +
+            "LEFT JOIN GradeAggregate a ON a.id.scope = 'ENROLLMENT' AND a.id.scopeId = e.id " +
+            "WHERE e.student.id IN :studentIds AND e.status <> 'DROPPED' " +
+            "ORDER BY e.student.id, e.enrollmentDate, c.courseCode")
+    List<TranscriptCourse> findTranscriptCourses(Collection<Long> studentIds);
+
     @Query("SELECT COUNT(e) FROM Enrollment e WHERE e.course.id = :courseId AND e.status = 'ACTIVE'")
     Long countActiveByCourseId(Long courseId);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new re.ermix.school_app.dto.EnrollmentResponse(e.id, e.student.id, e.course.id, " +
+            "e.enrollmentDate, e.status) FROM Enrollment e ORDER BY e.id")
+    Stream<EnrollmentResponse> streamAllForExport();
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package re.ermix.school_app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import re.ermix.school_app.model.GradeAggregate;
+import re.ermix.school_app.model.GradeAggregateId;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Repository
+public interface GradeAggregateRepository extends JpaRepository<GradeAggregate, GradeAggregateId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "VALUES (:scope, :scopeId, :sumDelta, :countDelta) " +
+            "ON DUPLICATE KEY UPDATE grade_sum = grade_sum + :sumDelta, grade_count = grade_count + :countDelta",
+            nativeQuery = true)
+    void applyDelta(String scope, Long scopeId, BigDecimal sumDelta, long countDelta);
+
+    // The grade deltas are summed per scope id in a derived table, so each aggregate row is upserted once
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "SELECT * FROM (SELECT 'ENROLLMENT' AS scope, g.enrollment_id AS scope_id, " +
+            "SUM(g.grade_value) AS sum_delta, COUNT(*) AS count_delta FROM grades g " +
+            "WHERE g.id IN (:gradeIds) GROUP BY g.enrollment_id) AS delta " +
+            "ON DUPLICATE KEY UPDATE grade_sum = grade_sum + delta.sum_delta, grade_count = grade_count + delta.count_delta",
+            nativeQuery = true)
+    int addEnrollmentDeltas(Collection<Long> gradeIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "SELECT * FROM (SELECT 'STUDENT' AS scope, e.student_id AS scope_id, " +
+            "SUM(g.grade_value) AS sum_delta, COUNT(*) AS count_delta FROM grades g " +
+            "JOIN enrollments e ON e.id = g.enrollment_id " +
+            "WHERE g.id IN (:gradeIds) GROUP BY e.student_id) AS delta " +
+            "ON DUPLICATE KEY UPDATE grade_sum = grade_sum + delta.sum_delta, grade_count = grade_count + delta.count_delta",
+            nativeQuery = true)
+    int addStudentDeltas(Collection<Long> gradeIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "SELECT * FROM (SELECT 'COURSE' AS scope, e.course_id AS scope_id, " +
+            "SUM(g.grade_value) AS sum_delta, COUNT(*) AS count_delta FROM grades g " +
+            "JOIN enrollments e ON e.id = g.enrollment_id " +
+            "WHERE g.id IN (:gradeIds) GROUP BY e.course_id) AS delta " +
+            "ON DUPLICATE KEY UPDATE grade_sum = grade_sum + delta.sum_delta, grade_count = grade_count + delta.count_delta",
+            nativeQuery = true)
+    int addCourseDeltas(Collection<Long> gradeIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM grade_aggregates", nativeQuery = true)
+    void deleteAllAggregates();
+
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "SELECT 'ENROLLMENT', g.enrollment_id, SUM(g.grade_value), COUNT(*) FROM grades g " +
+            "GROUP BY g.enrollment_id", nativeQuery = true)
+    int rebuildEnrollmentAggregates();
+
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "SELECT 'STUDENT', e.student_id, SUM(g.grade_value), COUNT(*) FROM grades g " +
+            "JOIN enrollments e ON e.id = g.enrollment_id GROUP BY e.student_id", nativeQuery = true)
+    int rebuildStudentAggregates();
+
+    @Modifying
+    @Query(value = "INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count) " +
+            "SELECT 'COURSE', e.course_id, SUM(g.grade_value), COUNT(*) FROM grades g " +
+            "JOIN enrollments e ON e.id = g.enrollment_id GROUP BY e.course_id", nativeQuery = true)
+    int rebuildCourseAggregates();
+}
@@ -1,14 +1,20 @@
 package re.ermix.school_app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import re.ermix.school_app.dto.GradeResponse;
 import re.ermix.school_app.enums.GradeTypeEnum;
 import re.ermix.school_app.model.Grade;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface GradeRepository extends JpaRepository<Grade, Long> {
@@ -19,6 +25,17 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
     
     List<Grade> findByDateRecordedBetween(LocalDate startDate, LocalDate endDate);
     
+    List<Grade> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    List<Grade> findByGradeTypeAndIdGreaterThanOrderByIdAsc(GradeTypeEnum gradeType, Long afterId, Limit limit);
+    
+    // Keyset page in (date_recorded, id) order, which the date recorded index reads without sorting
+    @Query("SELECT g FROM Grade g WHERE g.dateRecorded BETWEEN :startDate AND :endDate " +
+            "AND (g.dateRecorded > :afterDate OR (g.dateRecorded = :afterDate AND g.id > :afterId)) " +
+            "ORDER BY g.dateRecorded, g.id")
+    List<Grade> findPageByDateRecordedBetween(LocalDate startDate, LocalDate endDate,
+                                              LocalDate afterDate, Long afterId, Limit limit);
+    
     @Query("SELECT g FROM Grade g WHERE g.enrollment.student.id = :studentId")
     List<Grade> findByStudentId(Long studentId);
     
@@ -28,6 +45,12 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
     @Query("SELECT g FROM Grade g WHERE g.enrollment.student.id = :studentId AND g.enrollment.course.id = :courseId")
     List<Grade> findByStudentIdAndCourseId(Long studentId, Long courseId);
     
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new re.ermix.school_app.dto.GradeResponse(g.id, g.enrollment.id, g.gradeValue, g.gradeType, " +
+            "g.comment, g.dateRecorded) FROM Grade g ORDER BY g.id")
+    Stream<GradeResponse> streamAllForExport();
+    
     @Query("SELECT AVG(g.gradeValue) FROM Grade g WHERE g.enrollment.id = :enrollmentId")
     BigDecimal calculateAverageGradeForEnrollment(Long enrollmentId);
     
@@ -1,20 +1,54 @@
 package re.ermix.school_app.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.SearchableName;
 import re.ermix.school_app.model.Student;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpecificationExecutor<Student> {
 
     Optional<Student> findByEmail(String email);
 
+    // Holds the student's row lock until commit, to serialise changes to their enrollments
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Student s WHERE s.id = :id")
+    Optional<Student> findForUpdateById(Long id);
+
+    @Query("SELECT s.email FROM Student s WHERE s.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @Query("SELECT s.email FROM Student s")
+    List<String> findAllEmails();
+
+    List<Student> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Read from the enrollment_date index alone, which carries the primary key
+    @Query("SELECT s.id FROM Student s WHERE s.enrollmentDate BETWEEN :startDate AND :endDate ORDER BY s.id")
+    List<Long> findIdsByEnrollmentDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT new re.ermix.school_app.dto.EntityVersion(s.id, s.updatedAt) FROM Student s WHERE s.id = :id")
+    Optional<EntityVersion> findVersionById(Long id);
+
+    @Query("SELECT new re.ermix.school_app.dto.EntityVersion(s.id, s.updatedAt) FROM Student s " +
+            "WHERE s.id > :afterId ORDER BY s.id")
+    List<EntityVersion> findVersionsAfter(Long afterId, Limit limit);
+
     List<Student> findByLastName(String lastName);
 
     List<Student> findByFirstNameAndLastName(String firstName, String lastName);
@@ -26,4 +60,9 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
 
     @Query("SELECT s FROM Student s JOIN s.enrollments e WHERE e.course.id = :courseId")
     List<Student> findByCourseId(Long courseId);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new re.ermix.school_app.dto.SearchableName(s.id, s.firstName, s.lastName, s.email) FROM Student s")
+    Stream<SearchableName> streamSearchableNames();
 }
\ No newline at end of file
@@ -1,19 +1,46 @@
 package re.ermix.school_app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.SearchableName;
 import re.ermix.school_app.model.Teacher;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     
     Optional<Teacher> findByEmail(String email);
     
+    @Query("SELECT t.email FROM Teacher t WHERE t.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @Query("SELECT t.email FROM Teacher t")
+    List<String> findAllEmails();
+
+    @Query("SELECT t.id FROM Teacher t")
+    List<Long> findAllIds();
+    
+    List<Teacher> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT new re.ermix.school_app.dto.EntityVersion(t.id, t.updatedAt) FROM Teacher t WHERE t.id = :id")
+    Optional<EntityVersion> findVersionById(Long id);
+
+    @Query("SELECT new re.ermix.school_app.dto.EntityVersion(t.id, t.updatedAt) FROM Teacher t " +
+            "WHERE t.id > :afterId ORDER BY t.id")
+    List<EntityVersion> findVersionsAfter(Long afterId, Limit limit);
+    
     List<Teacher> findByLastName(String lastName);
     
     List<Teacher> findByFirstNameAndLastName(String firstName, String lastName);
@@ -24,4 +51,18 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     
     @Query("SELECT t FROM Teacher t JOIN Course c ON t.id = c.teacher.id WHERE c.id = :courseId")
     Optional<Teacher> findByCourseId(Long courseId);
+
+    @Query("SELECT t FROM Teacher t WHERE LOWER(t.firstName) LIKE :pattern OR LOWER(t.lastName) LIKE :pattern " +
+            "OR LOWER(t.email) LIKE :pattern ORDER BY t.id")
+    List<Teacher> searchByNameOrEmail(String pattern);
+
+    @Query("SELECT t FROM Teacher t WHERE (t.id IN :ids OR t.updatedAt >= :since) " +
+            "AND (LOWER(t.firstName) LIKE :pattern OR LOWER(t.lastName) LIKE :pattern OR LOWER(t.email) LIKE :pattern) " +
+            "ORDER BY t.id")
+    List<Teacher> searchByNameOrEmailAmongOrUpdatedSince(String pattern, Collection<Long> ids, LocalDateTime since);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new re.ermix.school_app.dto.SearchableName(t.id, t.firstName, t.lastName, t.email) FROM Teacher t")
+    Stream<SearchableName> streamSearchableNames();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package re.ermix.school_app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import re.ermix.school_app.model.WaitlistEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByCourseId(Long courseId);
+
+    Optional<WaitlistEntry> findByStudentIdAndCourseId(Long studentId, Long courseId);
+}
@@ -0,0 +1,48 @@
+package re.ermix.school_app.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persists a list of new entities in JDBC batches. Ids come from the pooled table generators,
+ * so persisting does not hit the database; the inserts go out {@code batchSize} at a time on
+ * each flush, and the persistence context is cleared after every batch to keep it small.
+ */
+@Log4j2
+@Component
+public class BatchInserter {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BatchInserter(EntityManager entityManager,
+                         @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts the entities in the caller's transaction. They are detached, with their ids set,
+     * when this returns.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> List<T> insertAll(List<T> entities) {
+        log.info("Inserting {} entities in batches of {}", entities.size(), batchSize);
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entities;
+    }
+}
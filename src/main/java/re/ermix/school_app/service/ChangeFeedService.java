@@ -0,0 +1,259 @@
+package re.ermix.school_app.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import re.ermix.school_app.dto.ChangeEventResponse;
+import re.ermix.school_app.dto.ChangePage;
+import re.ermix.school_app.model.ChangeEvent;
+import re.ermix.school_app.repository.ChangeEventRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the change outbox as a feed of offsets. A single reader polls the outbox and hands
+ * new rows to every stream subscriber; pull requests read the outbox directly, up to the same
+ * published offset.
+ * <p>
+ * Before each read the reader has {@link ChangeOutbox} number the rows committed since, so a row
+ * never gets an offset before it is visible and the reader publishes every row it reads. Changes
+ * are published within a poll interval of their commit. A hole in the offsets can only be left by
+ * the retention cleanup.
+ * <p>
+ * Each stream subscriber first catches up from the outbox and then receives published changes
+ * through its own queue, drained on the application task executor, so a slow client never
+ * holds up the reader. A subscriber whose queue overflows is disconnected and can resume from
+ * the last offset it received.
+ */
+@Log4j2
+@Service
+public class ChangeFeedService {
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeOutbox changeOutbox;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+    private final int subscriberBuffer;
+    private final Duration retention;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Written by the reader only, under this service's lock
+    private volatile long publishedOffset = -1;
+
+    public ChangeFeedService(ChangeEventRepository changeEventRepository,
+                             ChangeOutbox changeOutbox,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                             TaskExecutor taskExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${school.changes.batch-size:500}") int batchSize,
+                             @Value("${school.changes.subscriber-buffer:10000}") int subscriberBuffer,
+                             @Value("${school.changes.retention:P7D}") Duration retention) {
+        this.changeEventRepository = changeEventRepository;
+        this.changeOutbox = changeOutbox;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.retention = retention;
+        Gauge.builder("school.changes.subscribers", subscribers, Set::size)
+                .description("Open change stream connections")
+                .register(meterRegistry);
+        Gauge.builder("school.changes.published.offset", this, feed -> feed.publishedOffset)
+                .description("Offset of the last change handed to subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Offset of the last published change. Starts at the outbox's highest offset when the
+     * application starts.
+     */
+    public synchronized long getPublishedOffset() {
+        if (publishedOffset < 0) {
+            publishedOffset = changeEventRepository.findMaxFeedOffset().orElse(0L);
+            log.info("Change feed starts at offset {}", publishedOffset);
+        }
+        return publishedOffset;
+    }
+
+    public ChangePage getChanges(long afterOffset, int limit) {
+        log.info("Get changes after offset: {} limit: {}", afterOffset, limit);
+        long upTo = getPublishedOffset();
+        if (afterOffset >= upTo) {
+            return new ChangePage(List.of(), afterOffset);
+        }
+        List<ChangeEventResponse> changes = changeEventRepository
+                .findByFeedOffsetGreaterThanAndFeedOffsetLessThanEqualOrderByFeedOffsetAsc(afterOffset, upTo,
+                        Limit.of(clampLimit(limit)))
+                .stream()
+                .map(ChangeEventResponse::from)
+                .toList();
+        return new ChangePage(changes, changes.isEmpty() ? afterOffset : changes.getLast().offset());
+    }
+
+    /**
+     * Streams changes after the given offset, or only new ones when it is null.
+     */
+    public SseEmitter subscribe(Long afterOffset) {
+        long published = getPublishedOffset();
+        long from = afterOffset != null ? afterOffset : published;
+        log.info("Subscribe to changes after offset: {}", from);
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter, from);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        taskExecutor.execute(subscriber::catchUp);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${school.changes.poll-interval:PT0.5S}")
+    public synchronized void poll() {
+        long offset = getPublishedOffset();
+        while (true) {
+            changeOutbox.assignOffsets(batchSize);
+            List<ChangeEvent> rows = changeEventRepository.findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(offset,
+                    Limit.of(batchSize));
+            if (!rows.isEmpty()) {
+                List<ChangeEventResponse> published = rows.stream().map(ChangeEventResponse::from).toList();
+                offset = rows.getLast().getFeedOffset();
+                publishedOffset = offset;
+                subscribers.forEach(subscriber -> subscriber.offer(published));
+            }
+            if (rows.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${school.changes.cleanup-interval:PT1H}")
+    public void deleteExpiredChanges() {
+        int deleted = changeEventRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} changes older than {}", deleted, retention);
+        }
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, 1000));
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Deque<ChangeEventResponse> pending = new ArrayDeque<>();
+        private volatile long lastSent;
+        private boolean catchingUp = true;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        void catchUp() {
+            try {
+                List<ChangeEvent> rows;
+                do {
+                    rows = changeEventRepository.findByFeedOffsetGreaterThanAndFeedOffsetLessThanEqualOrderByFeedOffsetAsc(
+                            lastSent, publishedOffset, Limit.of(batchSize));
+                    for (ChangeEvent row : rows) {
+                        send(ChangeEventResponse.from(row));
+                    }
+                } while (!rows.isEmpty());
+            } catch (IOException | RuntimeException e) {
+                close(e);
+                return;
+            }
+            synchronized (this) {
+                catchingUp = false;
+                startDraining();
+            }
+        }
+
+        synchronized void offer(List<ChangeEventResponse> changes) {
+            if (closed) {
+                return;
+            }
+            if (pending.size() + changes.size() > subscriberBuffer) {
+                log.warn("Disconnecting change stream subscriber that fell {} changes behind", pending.size());
+                closed = true;
+                pending.clear();
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.addAll(changes);
+            if (!catchingUp) {
+                startDraining();
+            }
+        }
+
+        // Called with the lock held
+        private void startDraining() {
+            if (!draining && !pending.isEmpty()) {
+                draining = true;
+                taskExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                ChangeEventResponse change;
+                synchronized (this) {
+                    change = pending.poll();
+                    if (change == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                // Already sent while catching up
+                if (change.offset() <= lastSent) {
+                    continue;
+                }
+                try {
+                    send(change);
+                } catch (IOException | RuntimeException e) {
+                    close(e);
+                    return;
+                }
+            }
+        }
+
+        private void send(ChangeEventResponse change) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.offset()))
+                    .name(change.entity().name().toLowerCase())
+                    .data(change));
+            lastSent = change.offset();
+        }
+
+        private void close(Exception e) {
+            log.info("Change stream subscriber disconnected: {}", e.getMessage());
+            synchronized (this) {
+                closed = true;
+                draining = false;
+                pending.clear();
+            }
+            subscribers.remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes domain changes to the {@code change_events} outbox in the caller's transaction, so a
+ * change is published exactly when it commits.
+ * <p>
+ * Rows are inserted without a feed offset, so writers only ever lock their own rows and commit
+ * concurrently. The change feed reader numbers them afterwards through {@link #assignOffsets},
+ * holding the lock of the single {@code change_sequence} row, which only the readers of the
+ * application instances take. A row is numbered once it is visible, in the order the reader finds
+ * it: the feed never sees a change before a lower offset that is still to commit, and a
+ * transaction that rolls back leaves no hole.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO change_events " +
+            "(entity, entity_id, change_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String LOCK_SQL = "SELECT last_offset FROM change_sequence WHERE id = 1 FOR UPDATE";
+    private static final String SEED_SQL = "INSERT INTO change_sequence (id, last_offset) " +
+            "SELECT 1, COALESCE(MAX(feed_offset), 0) FROM change_events";
+    private static final String UNASSIGNED_SQL = "SELECT id FROM change_events WHERE feed_offset IS NULL " +
+            "ORDER BY id LIMIT ?";
+    private static final String ASSIGN_SQL = "UPDATE change_events SET feed_offset = ? WHERE id = ?";
+    private static final String ADVANCE_SQL = "UPDATE change_sequence SET last_offset = ? WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public record Change(ChangeEntityEnum entity, ChangeTypeEnum type, Long entityId, Object payload) {
+    }
+
+    /**
+     * Records one change; the payload is serialized as JSON and should be null for deletions.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEntityEnum entity, ChangeTypeEnum type, Long entityId, Object payload) {
+        recordAll(List.of(new Change(entity, type, entityId, payload)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            args.add(new Object[]{change.entity().name(), change.entityId(), change.type().name(),
+                    toJson(change.payload()), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * Numbers up to {@code max} committed rows that have no offset yet, in insert order, and
+     * returns how many it numbered. Read committed, so it sees every row committed before it
+     * locked the sequence row.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public int assignOffsets(int max) {
+        long offset = lockSequence();
+        List<Long> ids = jdbcTemplate.queryForList(UNASSIGNED_SQL, Long.class, max);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{++offset, id});
+        }
+        jdbcTemplate.batchUpdate(ASSIGN_SQL, args);
+        jdbcTemplate.update(ADVANCE_SQL, offset);
+        return ids.size();
+    }
+
+    // Returns the last offset handed out; the sequence row stays locked until commit
+    private long lockSequence() {
+        List<Long> offset = jdbcTemplate.queryForList(LOCK_SQL, Long.class);
+        if (!offset.isEmpty()) {
+            return offset.getFirst();
+        }
+        // The migration creates the row; a schema generated from the entities has none yet
+        try {
+            jdbcTemplate.update(SEED_SQL);
+        } catch (DuplicateKeyException e) {
+            // Seeded by another instance meanwhile
+        }
+        return jdbcTemplate.queryForObject(LOCK_SQL, Long.class);
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
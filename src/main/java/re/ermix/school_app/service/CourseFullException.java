@@ -0,0 +1,19 @@
+package re.ermix.school_app.service;
+
+import lombok.Getter;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
+
+/**
+ * Thrown instead of enrolling a student in a full course; the student has been put on the
+ * course's waitlist, and that is committed with the transaction.
+ */
+@Getter
+public class CourseFullException extends IllegalStateException {
+
+    private final transient WaitlistEntryResponse waitlistEntry;
+
+    public CourseFullException(WaitlistEntryResponse waitlistEntry) {
+        super("Course is full and cannot accept more students; waitlisted at position " + waitlistEntry.position());
+        this.waitlistEntry = waitlistEntry;
+    }
+}
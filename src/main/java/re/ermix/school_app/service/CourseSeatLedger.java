@@ -0,0 +1,136 @@
+package re.ermix.school_app.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.util.TransactionCallbacks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory count of taken seats per course, used to decide enrollments without a
+ * count query. Each course is seeded from {@link EnrollmentRepository#countActiveByCourseId},
+ * read on the primary, the first time it is touched; reservations are a compare-and-set on the
+ * counter, so two concurrent requests can never both take the last seat.
+ * <p>
+ * A reservation takes effect immediately and is handed back if the transaction rolls back.
+ * A release only takes effect once the transaction commits, and only on a counter seeded
+ * before it. The counters are periodically
+ * reconciled against the database to correct drift from writes made outside this service.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class CourseSeatLedger {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final PrimaryReads primaryReads;
+    private final Map<Long, Seats> seatsByCourse = new ConcurrentHashMap<>();
+
+    /**
+     * Takes a seat in the given course if one is left.
+     *
+     * @return false when the course is full
+     */
+    public boolean tryReserve(Course course) {
+        Seats seats = seatsFor(course.getId());
+        Integer maxStudents = course.getMaxStudents();
+        while (true) {
+            int taken = seats.taken.get();
+            if (maxStudents != null && taken >= maxStudents) {
+                log.info("No seat left in course {} ({} of {} taken)", course.getId(), taken, maxStudents);
+                return false;
+            }
+            if (seats.taken.compareAndSet(taken, taken + 1)) {
+                break;
+            }
+        }
+        seats.pending.incrementAndGet();
+        TransactionCallbacks.onCompletion(
+                seats.pending::decrementAndGet,
+                () -> {
+                    seats.taken.decrementAndGet();
+                    seats.pending.decrementAndGet();
+                });
+        return true;
+    }
+
+    /**
+     * Gives a seat back once the current transaction commits.
+     * <p>
+     * A course without a counter is not seeded here: the caller has already dropped or deleted
+     * the enrollment, and Hibernate flushes that before the count query, so the seed would
+     * already leave the seat out. The counter is seeded later from the committed rows instead.
+     * If another transaction seeds it before this one commits, it over-counts by one seat until
+     * the next reconcile, which can turn an enrollment away but never overbooks the course.
+     */
+    public void release(Long courseId) {
+        Seats seats = seatsByCourse.get(courseId);
+        if (seats == null) {
+            log.debug("Seat ledger for course {} not seeded, nothing to release", courseId);
+            return;
+        }
+        seats.pending.incrementAndGet();
+        TransactionCallbacks.onCompletion(
+                () -> {
+                    seats.taken.updateAndGet(taken -> Math.max(0, taken - 1));
+                    seats.pending.decrementAndGet();
+                },
+                seats.pending::decrementAndGet);
+    }
+
+    public int takenSeats(Long courseId) {
+        return seatsFor(courseId).taken.get();
+    }
+
+    public void evict(Long courseId) {
+        TransactionCallbacks.afterCommit(() -> seatsByCourse.remove(courseId));
+    }
+
+    @Scheduled(fixedDelayString = "${school.seats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        seatsByCourse.forEach((courseId, seats) -> {
+            // Only overwrite a counter nobody touched while the count query ran
+            int expected = seats.taken.get();
+            if (seats.pending.get() > 0) {
+                return;
+            }
+            int actual = countActive(courseId);
+            if (seats.pending.get() == 0 && expected != actual && seats.taken.compareAndSet(expected, actual)) {
+                log.warn("Seat ledger for course {} drifted: {} in memory, {} in database", courseId, expected, actual);
+            }
+        });
+    }
+
+    private Seats seatsFor(Long courseId) {
+        Seats seats = seatsByCourse.get(courseId);
+        if (seats != null) {
+            return seats;
+        }
+        int active = countActive(courseId);
+        log.debug("Seeding seat ledger for course {} with {} active enrollments", courseId, active);
+        Seats seeded = new Seats(active);
+        Seats existing = seatsByCourse.putIfAbsent(courseId, seeded);
+        return existing != null ? existing : seeded;
+    }
+
+    private int countActive(Long courseId) {
+        Long active = primaryReads.read(() -> enrollmentRepository.countActiveByCourseId(courseId));
+        return active == null ? 0 : active.intValue();
+    }
+
+    private static final class Seats {
+        private final AtomicInteger taken;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Seats(int taken) {
+            this.taken = new AtomicInteger(taken);
+        }
+    }
+}
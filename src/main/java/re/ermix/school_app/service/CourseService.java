@@ -2,14 +2,25 @@ package re.ermix.school_app.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.aspect.OptimisticRetry;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.dto.EnrollmentSummary;
 import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.CourseMeeting;
 import re.ermix.school_app.repository.CourseRepository;
 import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.util.ETags;
 
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Log4j2
 @Service
@@ -19,17 +30,60 @@ public class CourseService {
 
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final CourseSeatLedger seatLedger;
+    private final CourseWaitlist courseWaitlist;
+    private final StudentEnrollmentCache studentEnrollmentCache;
+    private final StudentScheduleIndex studentScheduleIndex;
+    private final BatchInserter batchInserter;
+    private final EnrollmentService enrollmentService;
 
     public List<Course> getAllCourses() {
         log.info("Get all courses");
         return courseRepository.findAll();
     }
 
+    public CursorPage<Course> getCoursesPage(long afterId, int size) {
+        log.info("Get courses page after id: {} size: {}", afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<Course> rows = courseRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Course::getId);
+    }
+
     public Optional<Course> getCourseById(Long id) {
         log.info("Get course by id: {}", id);
         return courseRepository.findById(id);
     }
 
+    public Optional<List<CourseMeeting>> getCourseMeetings(Long id) {
+        log.info("Get meetings of course id: {}", id);
+        return courseRepository.findById(id).map(course -> sortedMeetings(course.getMeetings()));
+    }
+
+    @OptimisticRetry
+    @Transactional
+    public List<CourseMeeting> updateCourseMeetings(Long id, List<CourseMeeting> meetings) {
+        log.info("Update meetings of course id: {} to {} meetings", id, meetings.size());
+        Course course = courseRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found with id: " + id));
+        course.getMeetings().clear();
+        course.getMeetings().addAll(meetings);
+        courseRepository.save(course);
+        studentScheduleIndex.invalidateAll();
+        return sortedMeetings(course.getMeetings());
+    }
+
+    public Optional<EntityVersion> getCourseVersion(Long id) {
+        log.info("Get course version by id: {}", id);
+        return courseRepository.findVersionById(id);
+    }
+
+    public CursorPage<EntityVersion> getCourseVersionsPage(long afterId, int size) {
+        log.info("Get course versions page after id: {} size: {}", afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<EntityVersion> rows = courseRepository.findVersionsAfter(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, EntityVersion::id);
+    }
+
     public Optional<Course> getCourseByCourseCode(String courseCode) {
         log.info("Get course by course code: {}", courseCode);
         return courseRepository.findByCourseCode(courseCode);
@@ -65,6 +119,14 @@ public class CourseService {
         return courseRepository.findByStudentId(studentId);
     }
 
+    public List<Long> getCourseIdsByStudent(Long studentId) {
+        log.info("Get course ids by student id: {}", studentId);
+        return studentEnrollmentCache.get(studentId).stream()
+                .map(EnrollmentSummary::courseId)
+                .distinct()
+                .toList();
+    }
+
     public boolean isCourseAvailable(Long courseId) {
         log.info("Check if course is available: {}", courseId);
         Optional<Course> courseOpt = courseRepository.findById(courseId);
@@ -95,30 +157,72 @@ public class CourseService {
         return courseRepository.save(course);
     }
 
+    @Transactional
+    public List<Course> saveCourses(List<Course> courses) {
+        log.info("Save {} courses", courses.size());
+        Set<String> courseCodes = new HashSet<>();
+        for (Course course : courses) {
+            if (!courseCodes.add(course.getCourseCode())) {
+                throw new IllegalStateException("Duplicate course code in batch: " + course.getCourseCode());
+            }
+        }
+        List<String> existing = courseRepository.findExistingCourseCodes(courseCodes);
+        if (!existing.isEmpty()) {
+            throw new IllegalStateException("Courses already exist with codes: " + existing);
+        }
+        return batchInserter.insertAll(courses);
+    }
+
     @Transactional
     public void deleteCourse(Long id) {
         log.info("Delete course with id: {}", id);
         courseRepository.deleteById(id);
+        seatLedger.evict(id);
+        courseWaitlist.evict(id);
+        studentScheduleIndex.invalidateAll();
     }
 
-    @Transactional
-    public Course updateCourse(Long id, Course courseDetails) {
+    /**
+     * Replaces the course's details. With an {@code expectedETag}, as sent in {@code If-Match},
+     * the update only goes ahead while the course still has that tag; that is checked again on
+     * every retry, so a concurrent update makes this one fail instead of overwriting it.
+     *
+     * @throws StaleVersionException when the course no longer has the expected tag
+     */
+    @OptimisticRetry
+    // Read committed, as raising the capacity can promote waitlisted students
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Course updateCourse(Long id, Course courseDetails, String expectedETag) {
         log.info("Update course with id: {}", id);
-        return courseRepository.findById(id)
-                .map(course -> {
-                    course.setCourseCode(courseDetails.getCourseCode());
-                    course.setTitle(courseDetails.getTitle());
-                    course.setDescription(courseDetails.getDescription());
-                    course.setCredits(courseDetails.getCredits());
-                    course.setTeacher(courseDetails.getTeacher());
-                    course.setMaxStudents(courseDetails.getMaxStudents());
-                    log.info("Updating existing course: {}", course.getCourseCode());
-                    return courseRepository.save(course);
-                })
-                .orElseGet(() -> {
-                    courseDetails.setId(id);
-                    log.info("Creating new course with id: {}", id);
-                    return courseRepository.save(courseDetails);
-                });
+        Course course = courseRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found with id: " + id));
+        if (expectedETag != null && !ETags.matchesStrongly(expectedETag, ETags.of(course.getId(), course.getUpdatedAt()))) {
+            throw new StaleVersionException("Course id: " + id + " was updated since " + expectedETag);
+        }
+        course.setCourseCode(courseDetails.getCourseCode());
+        course.setTitle(courseDetails.getTitle());
+        course.setDescription(courseDetails.getDescription());
+        course.setCredits(courseDetails.getCredits());
+        course.setTeacher(courseDetails.getTeacher());
+        boolean seatsAdded = addsSeats(course.getMaxStudents(), courseDetails.getMaxStudents());
+        course.setMaxStudents(courseDetails.getMaxStudents());
+        log.info("Updating existing course: {}", course.getCourseCode());
+        Course saved = courseRepository.save(course);
+        if (seatsAdded) {
+            // The new seats go to the waitlist first, not to whoever enrolls next
+            enrollmentService.fillFreeSeats(saved);
+        }
+        return saved;
+    }
+
+    // A null maxStudents means no limit
+    private static boolean addsSeats(Integer maxStudents, Integer newMaxStudents) {
+        return maxStudents != null && (newMaxStudents == null || newMaxStudents > maxStudents);
+    }
+
+    private static List<CourseMeeting> sortedMeetings(List<CourseMeeting> meetings) {
+        return meetings.stream()
+                .sorted(Comparator.comparingInt(CourseMeeting::startMinuteOfWeek))
+                .toList();
     }
 }
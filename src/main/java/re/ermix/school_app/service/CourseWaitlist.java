@@ -0,0 +1,214 @@
+package re.ermix.school_app.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.WaitlistEntry;
+import re.ermix.school_app.repository.WaitlistEntryRepository;
+import re.ermix.school_app.util.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Waitlists of full courses. The {@code waitlist_entries} table is the record; each course's
+ * entries are also kept in an in-memory priority queue, ordered by descending priority and then
+ * request time, so promoting the next student and answering a queued student's retry need no
+ * sorted query. Each queue is seeded from the table, read on the primary, the first time its
+ * course is touched.
+ * <p>
+ * As with the seat ledger, taking the head of a queue takes effect immediately and is undone if
+ * the transaction rolls back, so two concurrent promotions never pick the same student. Entries
+ * that join or leave only change the queue once their transaction commits.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class CourseWaitlist {
+
+    private static final Comparator<Ticket> ORDER = Comparator.comparingInt(Ticket::priority).reversed()
+            .thenComparing(Ticket::requestedAt)
+            .thenComparing(Ticket::id);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final PrimaryReads primaryReads;
+    private final Map<Long, Queue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Puts the student on the course's waitlist, or returns their place if they are already on it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public WaitlistEntryResponse join(Student student, Course course, int priority) {
+        Queue queue = queueFor(course.getId());
+        Ticket ticket = queue.find(student.getId());
+        if (ticket == null) {
+            // Not committed yet, or joined before this queue was seeded
+            ticket = waitlistEntryRepository.findByStudentIdAndCourseId(student.getId(), course.getId())
+                    .map(Ticket::of)
+                    .orElse(null);
+        }
+        if (ticket == null) {
+            WaitlistEntry entry = new WaitlistEntry();
+            entry.setStudent(student);
+            entry.setCourse(course);
+            entry.setPriority(priority);
+            entry.setRequestedAt(LocalDateTime.now());
+            Ticket joined = Ticket.of(waitlistEntryRepository.save(entry));
+            log.info("Student {} joined the waitlist of course {}", student.getId(), course.getId());
+            TransactionCallbacks.afterCommit(() -> queue.add(joined));
+            ticket = joined;
+        }
+        return ticket.toResponse(course.getId(), queue.positionOf(ticket));
+    }
+
+    /**
+     * Takes the next student off the course's waitlist and deletes their entry.
+     *
+     * @return the entry promoted, or empty when nobody is waiting
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WaitlistEntry> promote(Long courseId) {
+        Queue queue = queueFor(courseId);
+        Ticket ticket;
+        while ((ticket = queue.poll()) != null) {
+            Ticket taken = ticket;
+            TransactionCallbacks.onCompletion(() -> queue.remove(taken), () -> queue.add(taken));
+            Optional<WaitlistEntry> entry = waitlistEntryRepository.findById(ticket.id());
+            // Left the waitlist, or the student was deleted, since the entry was queued
+            if (entry.isPresent()) {
+                waitlistEntryRepository.delete(entry.get());
+                log.info("Promoting student {} from the waitlist of course {}", ticket.studentId(), courseId);
+                return entry;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Takes the student off the course's waitlist, if they are on it.
+     *
+     * @return whether they were
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean leave(Long studentId, Long courseId) {
+        Queue queue = queueFor(courseId);
+        Ticket ticket = queue.find(studentId);
+        if (ticket == null) {
+            return false;
+        }
+        waitlistEntryRepository.deleteById(ticket.id());
+        TransactionCallbacks.afterCommit(() -> queue.remove(ticket));
+        log.info("Student {} left the waitlist of course {}", studentId, courseId);
+        return true;
+    }
+
+    public List<WaitlistEntryResponse> entries(Long courseId) {
+        List<Ticket> tickets = queueFor(courseId).sorted();
+        List<WaitlistEntryResponse> entries = new ArrayList<>(tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            entries.add(tickets.get(i).toResponse(courseId, i + 1));
+        }
+        return entries;
+    }
+
+    // The table cascades deletes of students and courses; these drop their queued entries
+    public void removeStudent(Long studentId) {
+        TransactionCallbacks.afterCommit(() -> queues.values().forEach(queue -> queue.removeStudent(studentId)));
+    }
+
+    public void evict(Long courseId) {
+        TransactionCallbacks.afterCommit(() -> queues.remove(courseId));
+    }
+
+    private Queue queueFor(Long courseId) {
+        Queue queue = queues.get(courseId);
+        if (queue != null) {
+            return queue;
+        }
+        List<WaitlistEntry> entries = primaryReads.read(() -> waitlistEntryRepository.findByCourseId(courseId));
+        log.debug("Seeding waitlist of course {} with {} entries", courseId, entries.size());
+        Queue seeded = new Queue();
+        entries.forEach(entry -> seeded.add(Ticket.of(entry)));
+        Queue existing = queues.putIfAbsent(courseId, seeded);
+        return existing != null ? existing : seeded;
+    }
+
+    private record Ticket(Long id, Long studentId, int priority, LocalDateTime requestedAt) {
+
+        static Ticket of(WaitlistEntry entry) {
+            return new Ticket(entry.getId(), entry.getStudent().getId(), entry.getPriority(), entry.getRequestedAt());
+        }
+
+        WaitlistEntryResponse toResponse(Long courseId, int position) {
+            return new WaitlistEntryResponse(id, studentId, courseId, position, priority, requestedAt);
+        }
+    }
+
+    private static final class Queue {
+
+        private final PriorityQueue<Ticket> tickets = new PriorityQueue<>(ORDER);
+        private final Map<Long, Ticket> byStudent = new HashMap<>();
+
+        synchronized void add(Ticket ticket) {
+            // A commit can race the seeding query that already saw the row
+            if (byStudent.putIfAbsent(ticket.studentId(), ticket) == null) {
+                tickets.add(ticket);
+            }
+        }
+
+        synchronized Ticket poll() {
+            Ticket ticket = tickets.poll();
+            if (ticket != null) {
+                byStudent.remove(ticket.studentId());
+            }
+            return ticket;
+        }
+
+        synchronized void remove(Ticket ticket) {
+            if (byStudent.remove(ticket.studentId(), ticket)) {
+                tickets.remove(ticket);
+            }
+        }
+
+        synchronized void removeStudent(Long studentId) {
+            Ticket ticket = byStudent.remove(studentId);
+            if (ticket != null) {
+                tickets.remove(ticket);
+            }
+        }
+
+        synchronized Ticket find(Long studentId) {
+            return byStudent.get(studentId);
+        }
+
+        // Also right for a ticket that is not in the queue yet
+        synchronized int positionOf(Ticket ticket) {
+            int ahead = 0;
+            for (Ticket queued : tickets) {
+                if (ORDER.compare(queued, ticket) < 0) {
+                    ahead++;
+                }
+            }
+            return ahead + 1;
+        }
+
+        synchronized List<Ticket> sorted() {
+            List<Ticket> sorted = new ArrayList<>(tickets);
+            sorted.sort(ORDER);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package re.ermix.school_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import re.ermix.school_app.dto.ImportReport;
+import re.ermix.school_app.enums.ImportStateEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.Teacher;
+import re.ermix.school_app.repository.CourseRepository;
+import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.repository.TeacherRepository;
+import re.ermix.school_app.util.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Imports students, teachers and courses from CSV files in the background.
+ * <p>
+ * The upload is spooled to a temporary file and the request returns straight away with a job
+ * id. The job then parses the file record by record, validates each chunk of rows in parallel,
+ * rejects emails and course codes that already exist or repeat within the file, checked against
+ * a set loaded in a single query up front, and inserts the remaining rows of the chunk in one
+ * transaction with JDBC batching. A chunk the database refuses is retried in halves until the
+ * offending rows are isolated. Rejected rows are reported with their line number and reason;
+ * the rest of the file is still imported. Finished jobs are kept for
+ * {@code school.import.retention}.
+ * <p>
+ * The first record is a header naming the columns after the JSON properties of the entity, in
+ * any order and case.
+ */
+@Log4j2
+@Service
+public class CsvImportService {
+
+    private static final int MAX_NAME = 50;
+    private static final int MAX_EMAIL = 100;
+    private static final int MAX_ADDRESS = 255;
+    private static final int MAX_PHONE = 20;
+    private static final int MAX_SPECIALTY = 100;
+    private static final int MAX_COURSE_CODE = 20;
+    private static final int MAX_TITLE = 100;
+
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final CourseRepository courseRepository;
+    private final BatchInserter batchInserter;
+    private final NameSearchIndex nameSearchIndex;
+    private final TransactionOperations transactionOperations;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final Cache<String, ImportJob> jobs;
+
+    public CsvImportService(StudentRepository studentRepository,
+                            TeacherRepository teacherRepository,
+                            CourseRepository courseRepository,
+                            BatchInserter batchInserter,
+                            NameSearchIndex nameSearchIndex,
+                            TransactionOperations transactionOperations,
+                            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                            TaskExecutor taskExecutor,
+                            @Value("${school.import.chunk-size:1000}") int chunkSize,
+                            @Value("${school.import.max-errors:10000}") int maxErrors,
+                            @Value("${school.import.retention:PT1H}") Duration retention) {
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.courseRepository = courseRepository;
+        this.batchInserter = batchInserter;
+        this.nameSearchIndex = nameSearchIndex;
+        this.transactionOperations = transactionOperations;
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(retention).build();
+    }
+
+    public ImportReport importStudents(InputStream csv) throws IOException {
+        log.info("Start student import");
+        return start("students", csv, () -> new Importer<>(
+                List.of("firstName", "lastName", "email", "dateOfBirth", "enrollmentDate"),
+                List.of("address", "phoneNumber"),
+                "email",
+                lowerCase(studentRepository.findAllEmails()),
+                this::parseStudent,
+                student -> student.getEmail().toLowerCase(Locale.ROOT),
+                students -> students.forEach(nameSearchIndex::indexStudent)));
+    }
+
+    public ImportReport importTeachers(InputStream csv) throws IOException {
+        log.info("Start teacher import");
+        return start("teachers", csv, () -> new Importer<>(
+                List.of("firstName", "lastName", "email", "hireDate"),
+                List.of("phoneNumber", "subjectSpecialty"),
+                "email",
+                lowerCase(teacherRepository.findAllEmails()),
+                this::parseTeacher,
+                teacher -> teacher.getEmail().toLowerCase(Locale.ROOT),
+                teachers -> teachers.forEach(nameSearchIndex::indexTeacher)));
+    }
+
+    public ImportReport importCourses(InputStream csv) throws IOException {
+        log.info("Start course import");
+        return start("courses", csv, () -> {
+            Set<Long> teacherIds = new HashSet<>(teacherRepository.findAllIds());
+            return new Importer<>(
+                    List.of("courseCode", "title", "credits"),
+                    List.of("description", "maxStudents", "teacherId"),
+                    "courseCode",
+                    lowerCase(courseRepository.findAllCourseCodes()),
+                    row -> parseCourse(row, teacherIds),
+                    course -> course.getCourseCode().toLowerCase(Locale.ROOT),
+                    courses -> { });
+        });
+    }
+
+    public Optional<ImportReport> getReport(String id) {
+        log.info("Get import report: {}", id);
+        return Optional.ofNullable(jobs.getIfPresent(id)).map(ImportJob::report);
+    }
+
+    private <T> ImportReport start(String entity, InputStream csv, ImporterFactory<T> importer) throws IOException {
+        Path file = Files.createTempFile("school-import-", ".csv");
+        try {
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), entity, Files.size(file), maxErrors);
+        jobs.put(job.id, job);
+        try {
+            taskExecutor.execute(() -> run(job, file, importer));
+        } catch (RuntimeException e) {
+            jobs.invalidate(job.id);
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return job.report();
+    }
+
+    private <T> void run(ImportJob job, Path file, ImporterFactory<T> factory) {
+        log.info("Importing {} {} from {} bytes", job.entity, job.id, job.size);
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+             CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))) {
+            Importer<T> importer = factory.create();
+            Map<String, Integer> columns = header(reader.next(), importer);
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                chunk.add(new Row(reader.recordLine(), fields, columns));
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, importer, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                job.bytesRead = in.count;
+            }
+            importChunk(job, importer, chunk);
+            job.bytesRead = job.size;
+            job.finish(ImportStateEnum.COMPLETED, null);
+            log.info("Imported {} of {} {} rows, {} rejected", job.rowsImported, job.rowsRead, job.entity, job.rowsRejected);
+        } catch (Exception e) {
+            log.error("Import {} of {} failed", job.id, job.entity, e);
+            job.finish(ImportStateEnum.FAILED, e.getMessage());
+        } finally {
+            jobs.put(job.id, job);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    private static Map<String, Integer> header(List<String> fields, Importer<?> importer) {
+        if (fields == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, String> known = new HashMap<>();
+        importer.required.forEach(column -> known.put(column.toLowerCase(Locale.ROOT), column));
+        importer.optional.forEach(column -> known.put(column.toLowerCase(Locale.ROOT), column));
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String column = known.get(fields.get(i).strip().toLowerCase(Locale.ROOT));
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown column: " + fields.get(i));
+            }
+            if (columns.put(column, i) != null) {
+                throw new IllegalArgumentException("Duplicate column: " + fields.get(i));
+            }
+        }
+        List<String> missing = importer.required.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private <T> void importChunk(ImportJob job, Importer<T> importer, List<Row> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Parsed<T>> parsed = chunk.parallelStream().map(row -> parse(importer, row)).toList();
+        List<T> accepted = new ArrayList<>(parsed.size());
+        List<Row> acceptedRows = new ArrayList<>(parsed.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            Parsed<T> result = parsed.get(i);
+            if (result.error != null) {
+                job.reject(result.line, result.error);
+            } else if (!importer.keys.add(importer.key.apply(result.entity))) {
+                job.reject(result.line, importer.keyName + " already exists or repeats an earlier row: "
+                        + importer.key.apply(result.entity));
+            } else {
+                accepted.add(result.entity);
+                acceptedRows.add(chunk.get(i));
+            }
+        }
+        job.rowsRead += chunk.size();
+        if (!accepted.isEmpty()) {
+            insert(job, importer, acceptedRows, accepted);
+        }
+    }
+
+    /**
+     * Inserts the rows in one transaction. When that fails, the rows are inserted again in two
+     * halves, and so on down to single rows, so only the rows the database refuses are rejected,
+     * each with its own reason.
+     */
+    private <T> void insert(ImportJob job, Importer<T> importer, List<Row> rows, List<T> entities) {
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                batchInserter.insertAll(entities);
+                importer.afterInsert.accept(entities);
+            });
+            job.rowsImported += entities.size();
+        } catch (RuntimeException e) {
+            if (rows.size() == 1) {
+                String message = "Not inserted: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.debug("Rejected line {} of import {}: {}", rows.get(0).line, job.id, message);
+                job.reject(rows.get(0).line, message);
+                importer.keys.remove(importer.key.apply(entities.get(0)));
+                return;
+            }
+            log.warn("Could not insert {} {} rows of import {}, retrying in halves", rows.size(), job.entity, job.id, e);
+            // The failed entities kept the ids they were given, so the halves are parsed again
+            int half = rows.size() / 2;
+            insert(job, importer, rows.subList(0, half), parseAll(importer, rows.subList(0, half)));
+            insert(job, importer, rows.subList(half, rows.size()), parseAll(importer, rows.subList(half, rows.size())));
+        }
+    }
+
+    private static <T> List<T> parseAll(Importer<T> importer, List<Row> rows) {
+        return rows.stream().map(importer.parser).toList();
+    }
+
+    private static <T> Parsed<T> parse(Importer<T> importer, Row row) {
+        try {
+            return new Parsed<>(row.line, importer.parser.apply(row), null);
+        } catch (IllegalArgumentException e) {
+            return new Parsed<>(row.line, null, e.getMessage());
+        }
+    }
+
+    private Student parseStudent(Row row) {
+        Student student = new Student();
+        student.setFirstName(row.required("firstName", MAX_NAME));
+        student.setLastName(row.required("lastName", MAX_NAME));
+        student.setEmail(row.email("email"));
+        student.setDateOfBirth(row.date("dateOfBirth"));
+        student.setAddress(row.optional("address", MAX_ADDRESS));
+        student.setPhoneNumber(row.optional("phoneNumber", MAX_PHONE));
+        student.setEnrollmentDate(row.date("enrollmentDate"));
+        return student;
+    }
+
+    private Teacher parseTeacher(Row row) {
+        Teacher teacher = new Teacher();
+        teacher.setFirstName(row.required("firstName", MAX_NAME));
+        teacher.setLastName(row.required("lastName", MAX_NAME));
+        teacher.setEmail(row.email("email"));
+        teacher.setPhoneNumber(row.optional("phoneNumber", MAX_PHONE));
+        teacher.setHireDate(row.date("hireDate"));
+        teacher.setSubjectSpecialty(row.optional("subjectSpecialty", MAX_SPECIALTY));
+        return teacher;
+    }
+
+    private Course parseCourse(Row row, Set<Long> teacherIds) {
+        Course course = new Course();
+        course.setCourseCode(row.required("courseCode", MAX_COURSE_CODE));
+        course.setTitle(row.required("title", MAX_TITLE));
+        course.setDescription(row.optional("description", Integer.MAX_VALUE));
+        course.setCredits(row.positiveInt("credits"));
+        if (row.optional("maxStudents", Integer.MAX_VALUE) != null) {
+            course.setMaxStudents(row.positiveInt("maxStudents"));
+        }
+        if (row.optional("teacherId", Integer.MAX_VALUE) != null) {
+            long teacherId = row.positiveInt("teacherId");
+            if (!teacherIds.contains(teacherId)) {
+                throw new IllegalArgumentException("Teacher not found with id: " + teacherId);
+            }
+            Teacher teacher = new Teacher();
+            teacher.setId(teacherId);
+            course.setTeacher(teacher);
+        }
+        return course;
+    }
+
+    private static Set<String> lowerCase(List<String> keys) {
+        Set<String> set = new HashSet<>(Math.max(16, keys.size() * 2));
+        keys.forEach(key -> set.add(key.toLowerCase(Locale.ROOT)));
+        return set;
+    }
+
+    @FunctionalInterface
+    private interface ImporterFactory<T> {
+        Importer<T> create();
+    }
+
+    /**
+     * What differs between the entities: their columns, how a row becomes an entity, the unique
+     * key that is checked against the lower-cased existing {@code keys} and what to do once a
+     * chunk is inserted.
+     */
+    private record Importer<T>(List<String> required,
+                               List<String> optional,
+                               String keyName,
+                               Set<String> keys,
+                               Function<Row, T> parser,
+                               Function<T, String> key,
+                               Consumer<List<T>> afterInsert) {
+    }
+
+    private record Parsed<T>(long line, T entity, String error) {
+    }
+
+    private record Row(long line, List<String> fields, Map<String, Integer> columns) {
+
+        private String value(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).strip();
+            return value.isEmpty() ? null : value;
+        }
+
+        private String optional(String column, int maxLength) {
+            String value = value(column);
+            if (value != null && value.length() > maxLength) {
+                throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+            }
+            return value;
+        }
+
+        private String required(String column, int maxLength) {
+            String value = optional(column, maxLength);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return value;
+        }
+
+        private String email(String column) {
+            String value = required(column, MAX_EMAIL);
+            int at = value.indexOf('@');
+            if (at <= 0 || at == value.length() - 1 || value.indexOf('@', at + 1) >= 0) {
+                throw new IllegalArgumentException(column + " is not a valid email: " + value);
+            }
+            return value;
+        }
+
+        private LocalDate date(String column) {
+            String value = required(column, Integer.MAX_VALUE);
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(column + " is not a date (yyyy-MM-dd): " + value);
+            }
+        }
+
+        private int positiveInt(String column) {
+            String value = required(column, Integer.MAX_VALUE);
+            try {
+                int number = Integer.parseInt(value);
+                if (number > 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException(column + " is not a positive whole number: " + value);
+        }
+    }
+
+    /**
+     * Mutable state of a running job. Only the import thread writes it; report() may read a
+     * slightly stale snapshot.
+     */
+    private static final class ImportJob {
+        private final String id;
+        private final String entity;
+        private final long size;
+        private final int maxErrors;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private volatile ImportStateEnum state = ImportStateEnum.RUNNING;
+        private volatile long bytesRead;
+        private volatile long rowsRead;
+        private volatile long rowsImported;
+        private volatile long rowsRejected;
+        private volatile String failure;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, String entity, long size, int maxErrors) {
+            this.id = id;
+            this.entity = entity;
+            this.size = size;
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long line, String message) {
+            rowsRejected++;
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ImportReport.RowError(line, message));
+                }
+            }
+        }
+
+        private void finish(ImportStateEnum state, String failure) {
+            this.failure = failure;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+
+        private ImportReport report() {
+            List<ImportReport.RowError> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            int progress = size == 0 ? 100 : (int) Math.min(100, bytesRead * 100 / size);
+            return new ImportReport(id, entity, state, progress, rowsRead, rowsImported, rowsRejected,
+                    snapshot, failure, startedAt, finishedAt);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
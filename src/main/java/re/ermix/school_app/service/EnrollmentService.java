@@ -2,19 +2,41 @@ package re.ermix.school_app.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.aspect.OptimisticRetry;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EnrollmentResponse;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.dto.MeetingSlot;
+import re.ermix.school_app.dto.ScheduleConflict;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
 import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.CourseMeeting;
 import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Grade;
 import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.WaitlistEntry;
 import re.ermix.school_app.repository.CourseRepository;
 import re.ermix.school_app.repository.EnrollmentRepository;
 import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.util.Cursors;
+import re.ermix.school_app.util.IntervalTree;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Log4j2
 @Service
@@ -22,16 +44,31 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class EnrollmentService {
 
+    // Never taken from the request, so nobody can jump a queue; everyone waits in request order
+    private static final int WAITLIST_PRIORITY = 0;
+
     private final EnrollmentRepository enrollmentRepository;
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
-    private final CourseService courseService;
+    private final CourseSeatLedger seatLedger;
+    private final GradeAggregateService gradeAggregateService;
+    private final StudentEnrollmentCache studentEnrollmentCache;
+    private final ChangeOutbox changeOutbox;
+    private final CourseWaitlist courseWaitlist;
+    private final StudentScheduleIndex studentScheduleIndex;
 
     public List<Enrollment> getAllEnrollments() {
         log.info("Get all enrollments");
         return enrollmentRepository.findAll();
     }
 
+    public CursorPage<Enrollment> getEnrollmentsPage(long afterId, int size) {
+        log.info("Get enrollments page after id: {} size: {}", afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<Enrollment> rows = enrollmentRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Enrollment::getId);
+    }
+
     public Optional<Enrollment> getEnrollmentById(Long id) {
         log.info("Get enrollment by id: {}", id);
         return enrollmentRepository.findById(id);
@@ -42,11 +79,28 @@ public class EnrollmentService {
         return enrollmentRepository.findByStudentId(studentId);
     }
 
+    public List<EnrollmentSummary> getEnrollmentSummariesByStudent(Long studentId) {
+        log.info("Get enrollment summaries by student id: {}", studentId);
+        return studentEnrollmentCache.get(studentId);
+    }
+
     public List<Enrollment> getEnrollmentsByCourse(Long courseId) {
         log.info("Get enrollments by course id: {}", courseId);
         return enrollmentRepository.findByCourseId(courseId);
     }
 
+    // The enrollments come with their students, so building the roster runs no further queries
+    public List<Enrollment> getCourseRoster(Long courseId) {
+        log.info("Get roster of course id: {}", courseId);
+        return enrollmentRepository.findRosterByCourseId(courseId);
+    }
+
+    // The enrollments come with their courses, so building the schedule runs no further queries
+    public List<Enrollment> getStudentSchedule(Long studentId) {
+        log.info("Get schedule of student id: {}", studentId);
+        return enrollmentRepository.findScheduleByStudentId(studentId);
+    }
+
     public Optional<Enrollment> getEnrollmentByStudentAndCourse(Long studentId, Long courseId) {
         log.info("Get enrollment by student id: {} and course id: {}", studentId, courseId);
         return enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
@@ -57,78 +111,306 @@ public class EnrollmentService {
         return enrollmentRepository.findByStatus(status);
     }
 
+    public CursorPage<Enrollment> getEnrollmentsByStatusPage(EnrollmentStatusEnum status, long afterId, int size) {
+        log.info("Get enrollments page by status: {} after id: {} size: {}", status, afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<Enrollment> rows = enrollmentRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                status, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Enrollment::getId);
+    }
+
     public List<Enrollment> getEnrollmentsByDateRange(LocalDate startDate, LocalDate endDate) {
         log.info("Get enrollments by date range: {} to {}", startDate, endDate);
         return enrollmentRepository.findByEnrollmentDateBetween(startDate, endDate);
     }
 
+    /**
+     * Pages through the range in enrollment date order; {@code after} is null for the first page.
+     */
+    public CursorPage<Enrollment> getEnrollmentsByDateRangePage(LocalDate startDate, LocalDate endDate,
+                                                                Cursors.DatedId after, int size) {
+        log.info("Get enrollments page by date range: {} to {} after: {} size: {}", startDate, endDate, after, size);
+        int pageSize = CursorPage.clampSize(size);
+        Cursors.DatedId from = after != null ? after : new Cursors.DatedId(startDate, 0L);
+        List<Enrollment> rows = enrollmentRepository.findPageByEnrollmentDateBetween(
+                startDate, endDate, from.date(), from.id(), Limit.of(pageSize + 1));
+        return CursorPage.keyedBy(rows, pageSize,
+                enrollment -> Cursors.encode(new Cursors.DatedId(enrollment.getEnrollmentDate(), enrollment.getId())));
+    }
+
     public List<Enrollment> getEnrollmentsByStudentAndStatus(Long studentId, EnrollmentStatusEnum status) {
         log.info("Get enrollments by student id: {} and status: {}", studentId, status);
         return enrollmentRepository.findByStudentIdAndStatus(studentId, status);
     }
 
+    public List<EnrollmentSummary> getEnrollmentSummariesByStudentAndStatus(Long studentId, EnrollmentStatusEnum status) {
+        log.info("Get enrollment summaries by student id: {} and status: {}", studentId, status);
+        return studentEnrollmentCache.get(studentId).stream()
+                .filter(summary -> summary.status() == status)
+                .toList();
+    }
+
     public List<Enrollment> getEnrollmentsByCourseAndStatus(Long courseId, EnrollmentStatusEnum status) {
         log.info("Get enrollments by course id: {} and status: {}", courseId, status);
         return enrollmentRepository.findByCourseIdAndStatus(courseId, status);
     }
 
-    @Transactional
+    /**
+     * Enrolls the student, or puts them at the back of the course's waitlist when it is full.
+     * Waitlisting throws {@link CourseFullException} but still commits.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED, noRollbackFor = CourseFullException.class)
     public Enrollment enrollStudentInCourse(Long studentId, Long courseId, LocalDate enrollmentDate) {
         log.info("Enrolling student id: {} in course id: {} with date: {}", studentId, courseId, enrollmentDate);
         // Check if student exists
-        Student student = studentRepository.findById(studentId)
+        Student student = lockStudent(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
 
         // Check if course exists
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found with id: " + courseId));
 
-        // Check if student is already enrolled in this course
+        studentEnrollmentCache.invalidate(studentId);
+
+        // Check if student is already enrolled in this course; only a dropped enrollment can be reactivated
         Optional<Enrollment> existingEnrollment = enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
-        if (existingEnrollment.isPresent()) {
-            Enrollment enrollment = existingEnrollment.get();
-            if (enrollment.getStatus() == EnrollmentStatusEnum.ACTIVE) {
-                throw new IllegalStateException("Student is already enrolled in this course");
-            } else if (enrollment.getStatus() == EnrollmentStatusEnum.DROPPED) {
-                // Reactivate the enrollment
-                enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
-                enrollment.setEnrollmentDate(enrollmentDate);
-                return enrollmentRepository.save(enrollment);
-            }
+        if (existingEnrollment.isPresent() && existingEnrollment.get().getStatus() == EnrollmentStatusEnum.ACTIVE) {
+            throw new IllegalStateException("Student is already enrolled in this course");
         }
-
-        // Check if course has available seats
-        if (!courseService.isCourseAvailable(courseId)) {
-            throw new IllegalStateException("Course is full and cannot accept more students");
+        if (existingEnrollment.isPresent() && existingEnrollment.get().getStatus() == EnrollmentStatusEnum.COMPLETED) {
+            throw new IllegalStateException("Student has already completed this course");
         }
+        rejectScheduleConflicts(studentId, course);
 
-        // Create new enrollment
-        Enrollment enrollment = new Enrollment();
-        enrollment.setStudent(student);
-        enrollment.setCourse(course);
-        enrollment.setEnrollmentDate(enrollmentDate);
-        enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+        // Reserve a seat; the ledger hands it back if this transaction rolls back
+        if (!seatLedger.tryReserve(course)) {
+            throw new CourseFullException(courseWaitlist.join(student, course, WAITLIST_PRIORITY));
+        }
+        // Off the waitlist, if a seat was free while they waited
+        courseWaitlist.leave(studentId, courseId);
+        return takeSeat(student, course, existingEnrollment, enrollmentDate);
+    }
 
-        // Add enrollment to student
-        student.addEnrollment(enrollment);
+    /**
+     * Checks courses against the student's schedule, by default the courses the student is
+     * actively enrolled in, and returns those that overlap another of their courses.
+     */
+    public List<ScheduleConflict> getScheduleConflicts(Long studentId, Collection<Long> courseIds) {
+        log.info("Get schedule conflicts of student id: {} for course ids: {}", studentId, courseIds);
+        Collection<Long> candidates = courseIds;
+        if (candidates == null || candidates.isEmpty()) {
+            candidates = studentScheduleIndex.get(studentId).intervals().stream()
+                    .map(IntervalTree.Interval::value)
+                    .collect(Collectors.toSet());
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+        Map<Long, List<CourseMeeting>> meetingsByCourse = courseRepository.findMeetingSlotsByCourseIdIn(candidates)
+                .stream()
+                .collect(Collectors.groupingBy(MeetingSlot::courseId, TreeMap::new,
+                        Collectors.mapping(MeetingSlot::meeting, Collectors.toList())));
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        meetingsByCourse.forEach((courseId, meetings) -> {
+            List<Long> conflicting = studentScheduleIndex.conflictingCourses(studentId, courseId, meetings);
+            if (!conflicting.isEmpty()) {
+                conflicts.add(new ScheduleConflict(courseId, conflicting));
+            }
+        });
+        return conflicts;
+    }
 
-        return enrollmentRepository.save(enrollment);
+    public List<WaitlistEntryResponse> getCourseWaitlist(Long courseId) {
+        log.info("Get waitlist of course id: {}", courseId);
+        return courseWaitlist.entries(courseId);
     }
 
     @Transactional
+    public boolean leaveWaitlist(Long studentId, Long courseId) {
+        log.info("Removing student id: {} from the waitlist of course id: {}", studentId, courseId);
+        return courseWaitlist.leave(studentId, courseId);
+    }
+
+    @OptimisticRetry
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Enrollment updateEnrollmentStatus(Long enrollmentId, EnrollmentStatusEnum status) {
         log.info("Updating enrollment id: {} to status: {}", enrollmentId, status);
         return enrollmentRepository.findById(enrollmentId)
                 .map(enrollment -> {
+                    boolean wasActive = enrollment.getStatus() == EnrollmentStatusEnum.ACTIVE;
+                    boolean isActive = status == EnrollmentStatusEnum.ACTIVE;
+                    if (!wasActive && isActive) {
+                        lockStudent(enrollment.getStudent().getId());
+                        rejectScheduleConflicts(enrollment.getStudent().getId(), enrollment.getCourse());
+                        if (!seatLedger.tryReserve(enrollment.getCourse())) {
+                            throw new IllegalStateException("Course is full and cannot accept more students");
+                        }
+                        courseWaitlist.leave(enrollment.getStudent().getId(), enrollment.getCourse().getId());
+                    }
                     enrollment.setStatus(status);
-                    return enrollmentRepository.save(enrollment);
+                    studentEnrollmentCache.invalidate(enrollment.getStudent().getId());
+                    studentScheduleIndex.invalidate(enrollment.getStudent().getId());
+                    recordChange(ChangeTypeEnum.UPDATED, enrollment);
+                    Enrollment saved = enrollmentRepository.save(enrollment);
+                    if (wasActive && !isActive) {
+                        freeSeat(enrollment.getCourse());
+                    }
+                    return saved;
                 })
                 .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with id: " + enrollmentId));
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteEnrollment(Long id) {
         log.info("Deleting enrollment with id: {}", id);
+        Optional<Enrollment> deleted = enrollmentRepository.findById(id);
+        deleted.ifPresent(enrollment -> {
+            // Its grades are removed by cascade, so take them out of the aggregates and publish
+            // their deletions too
+            gradeAggregateService.removeEnrollment(enrollment);
+            studentEnrollmentCache.invalidate(enrollment.getStudent().getId());
+            studentScheduleIndex.invalidate(enrollment.getStudent().getId());
+            changeOutbox.recordAll(deletionsOf(List.of(enrollment)));
+        });
         enrollmentRepository.deleteById(id);
+        deleted.filter(enrollment -> enrollment.getStatus() == EnrollmentStatusEnum.ACTIVE)
+                .ifPresent(enrollment -> freeSeat(enrollment.getCourse()));
+    }
+
+    /**
+     * The outbox changes for deleting the given enrollments along with their grades: each
+     * enrollment's grade deletions, then its own.
+     */
+    static List<ChangeOutbox.Change> deletionsOf(Collection<Enrollment> enrollments) {
+        List<ChangeOutbox.Change> changes = new ArrayList<>();
+        for (Enrollment enrollment : enrollments) {
+            enrollment.getGrades().stream()
+                    .map(Grade::getId)
+                    .sorted()
+                    .forEach(gradeId -> changes.add(
+                            new ChangeOutbox.Change(ChangeEntityEnum.GRADE, ChangeTypeEnum.DELETED, gradeId, null)));
+            changes.add(new ChangeOutbox.Change(ChangeEntityEnum.ENROLLMENT, ChangeTypeEnum.DELETED,
+                    enrollment.getId(), null));
+        }
+        return changes;
+    }
+
+    /**
+     * Frees the seats of the active ones among the given enrollments, which the caller is
+     * deleting by cascade, the way {@link #deleteEnrollment} frees one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void freeSeats(Collection<Enrollment> enrollments) {
+        enrollments.stream()
+                .filter(enrollment -> enrollment.getStatus() == EnrollmentStatusEnum.ACTIVE)
+                .forEach(enrollment -> freeSeat(enrollment.getCourse()));
+    }
+
+    /**
+     * Promotes students from the course's waitlist into the seats it has left, for when its
+     * capacity was raised.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fillFreeSeats(Course course) {
+        while (seatLedger.tryReserve(course)) {
+            if (!promoteInto(course)) {
+                // Nobody left waiting, so give the seat back
+                seatLedger.release(course.getId());
+                return;
+            }
+        }
+    }
+
+    // Locks the student's row until commit. Every path that gives a student a seat takes it before
+    // checking their schedule, so of two overlapping courses the second is always checked against a
+    // schedule that has the first. Those transactions read at READ COMMITTED: a repeatable-read
+    // snapshot taken before the lock was granted would still miss the previous holder's enrollment.
+    private Optional<Student> lockStudent(Long studentId) {
+        return studentRepository.findForUpdateById(studentId);
+    }
+
+    // The student must be locked
+    private void rejectScheduleConflicts(Long studentId, Course course) {
+        List<Long> conflicts = studentScheduleIndex.currentConflictingCourses(studentId, course.getId(),
+                course.getMeetings());
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("Course meetings overlap those of course ids: " + conflicts);
+        }
+    }
+
+    // Hands a freed seat straight to the head of the course's waitlist, so it never goes back to
+    // the ledger for a retrying student to grab; with nobody waiting it is released
+    private void freeSeat(Course course) {
+        if (!promoteInto(course)) {
+            seatLedger.release(course.getId());
+        }
+    }
+
+    // Gives a seat that is already accounted for to the next eligible student on the waitlist;
+    // false when there is none
+    private boolean promoteInto(Course course) {
+        Optional<WaitlistEntry> entry;
+        while ((entry = courseWaitlist.promote(course.getId())).isPresent()) {
+            Optional<Student> locked = lockStudent(entry.get().getStudent().getId());
+            if (locked.isEmpty()) {
+                // Deleted since; their waitlist entries go with them
+                continue;
+            }
+            Student student = locked.get();
+            Optional<Enrollment> existingEnrollment = enrollmentRepository.findByStudentIdAndCourseId(student.getId(),
+                    course.getId());
+            if (existingEnrollment.isPresent() && existingEnrollment.get().getStatus() != EnrollmentStatusEnum.DROPPED) {
+                // Joined before that was rejected, or enrolled some other way since; a new
+                // enrollment would break the caller's transaction on the unique key
+                log.info("Dropping student {} from the waitlist of course {}: enrollment is {}",
+                        student.getId(), course.getId(), existingEnrollment.get().getStatus());
+                continue;
+            }
+            List<Long> conflicts = studentScheduleIndex.currentConflictingCourses(student.getId(), course.getId(),
+                    course.getMeetings());
+            if (!conflicts.isEmpty()) {
+                // Enrolled in an overlapping course since joining the waitlist
+                log.info("Dropping student {} from the waitlist of course {}: meetings overlap course ids: {}",
+                        student.getId(), course.getId(), conflicts);
+                continue;
+            }
+            studentEnrollmentCache.invalidate(student.getId());
+            takeSeat(student, course, existingEnrollment, LocalDate.now());
+            return true;
+        }
+        return false;
+    }
+
+    // The seat has already been reserved or handed over
+    private Enrollment takeSeat(Student student, Course course, Optional<Enrollment> existingEnrollment,
+                                LocalDate enrollmentDate) {
+        studentScheduleIndex.invalidate(student.getId());
+        if (existingEnrollment.isPresent() && existingEnrollment.get().getStatus() == EnrollmentStatusEnum.DROPPED) {
+            // Reactivate the enrollment
+            Enrollment enrollment = existingEnrollment.get();
+            enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+            enrollment.setEnrollmentDate(enrollmentDate);
+            Enrollment reactivated = enrollmentRepository.save(enrollment);
+            recordChange(ChangeTypeEnum.UPDATED, reactivated);
+            return reactivated;
+        }
+
+        // Create new enrollment
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setEnrollmentDate(enrollmentDate);
+        enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+
+        // Add enrollment to student
+        student.addEnrollment(enrollment);
+
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        recordChange(ChangeTypeEnum.CREATED, saved);
+        return saved;
+    }
+
+    private void recordChange(ChangeTypeEnum type, Enrollment enrollment) {
+        changeOutbox.record(ChangeEntityEnum.ENROLLMENT, type, enrollment.getId(), EnrollmentResponse.from(enrollment));
     }
 }
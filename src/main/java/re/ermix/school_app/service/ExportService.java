@@ -0,0 +1,66 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.dto.EnrollmentResponse;
+import re.ermix.school_app.dto.GradeResponse;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.repository.GradeRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as newline-delimited JSON. Rows come from forward-only streaming
+ * queries and are written one at a time, so memory use does not depend on the row count.
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final GradeRepository gradeRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ObjectMapper objectMapper;
+
+    public long exportGrades(OutputStream out) throws IOException {
+        log.info("Export grades as NDJSON");
+        try (Stream<GradeResponse> rows = gradeRepository.streamAllForExport()) {
+            long count = writeNdjson(rows, objectMapper.writerFor(GradeResponse.class), out);
+            log.info("Exported {} grades", count);
+            return count;
+        }
+    }
+
+    public long exportEnrollments(OutputStream out) throws IOException {
+        log.info("Export enrollments as NDJSON");
+        try (Stream<EnrollmentResponse> rows = enrollmentRepository.streamAllForExport()) {
+            long count = writeNdjson(rows, objectMapper.writerFor(EnrollmentResponse.class), out);
+            log.info("Exported {} enrollments", count);
+            return count;
+        }
+    }
+
+    private <T> long writeNdjson(Stream<T> rows, ObjectWriter writer, OutputStream out) throws IOException {
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            out.write(writer.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,132 @@
+package re.ermix.school_app.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.enums.GradeAggregateScopeEnum;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.GradeAggregate;
+import re.ermix.school_app.model.GradeAggregateId;
+import re.ermix.school_app.repository.GradeAggregateRepository;
+import re.ermix.school_app.util.SingleFlight;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Maintains the running sum and count of grades per enrollment, student and course.
+ * Every grade write applies its delta in the caller's transaction, so averages can be
+ * served from a single row instead of an AVG over the grades table.
+ * <p>
+ * Concurrent reads of the same average share one lookup. They do not start a transaction of
+ * their own, so callers waiting for a lookup already in flight do not hold a connection; the
+ * {@code school.single.flight.calls} meter counts executed and coalesced reads.
+ */
+@Log4j2
+@Service
+@Transactional(readOnly = true)
+public class GradeAggregateService {
+
+    static final String FLIGHT_NAME = "gradeAverage";
+
+    private final GradeAggregateRepository gradeAggregateRepository;
+    private final SingleFlight<GradeAggregateId, BigDecimal> averages = new SingleFlight<>();
+
+    public GradeAggregateService(GradeAggregateRepository gradeAggregateRepository, MeterRegistry meterRegistry) {
+        this.gradeAggregateRepository = gradeAggregateRepository;
+        FunctionCounter.builder("school.single.flight.calls", averages, SingleFlight::executedCount)
+                .tags("name", FLIGHT_NAME, "result", "executed")
+                .description("Calls that ran their computation")
+                .register(meterRegistry);
+        FunctionCounter.builder("school.single.flight.calls", averages, SingleFlight::coalescedCount)
+                .tags("name", FLIGHT_NAME, "result", "coalesced")
+                .description("Calls that shared the result of an identical call in flight")
+                .register(meterRegistry);
+        Gauge.builder("school.single.flight.in.flight", averages, SingleFlight::inFlightCount)
+                .tag("name", FLIGHT_NAME)
+                .description("Computations currently running")
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BigDecimal getAverage(GradeAggregateScopeEnum scope, Long scopeId) {
+        log.info("Get average grade for {} id: {}", scope, scopeId);
+        GradeAggregateId id = new GradeAggregateId(scope, scopeId);
+        return averages.execute(id, () -> gradeAggregateRepository.findById(id)
+                .map(GradeAggregate::average)
+                .orElse(null));
+    }
+
+    @Transactional
+    public void recordGrade(Enrollment enrollment, BigDecimal gradeValue) {
+        applyDelta(enrollment, gradeValue, 1);
+    }
+
+    /**
+     * Adds grades that were just inserted, and flushed, to their aggregates with one statement
+     * per scope instead of three per grade.
+     */
+    @Transactional
+    public void recordGrades(Collection<Long> gradeIds) {
+        log.info("Record {} grades in aggregates", gradeIds.size());
+        gradeAggregateRepository.addEnrollmentDeltas(gradeIds);
+        gradeAggregateRepository.addStudentDeltas(gradeIds);
+        gradeAggregateRepository.addCourseDeltas(gradeIds);
+    }
+
+    @Transactional
+    public void changeGrade(Enrollment enrollment, BigDecimal oldValue, BigDecimal newValue) {
+        BigDecimal delta = newValue.subtract(oldValue);
+        if (delta.signum() != 0) {
+            applyDelta(enrollment, delta, 0);
+        }
+    }
+
+    @Transactional
+    public void removeGrade(Enrollment enrollment, BigDecimal gradeValue) {
+        applyDelta(enrollment, gradeValue.negate(), -1);
+    }
+
+    /**
+     * Takes all grades of an enrollment that is about to be deleted out of the student
+     * and course aggregates and drops the enrollment aggregate.
+     */
+    @Transactional
+    public void removeEnrollment(Enrollment enrollment) {
+        GradeAggregateId id = new GradeAggregateId(GradeAggregateScopeEnum.ENROLLMENT, enrollment.getId());
+        Optional<GradeAggregate> aggregate = gradeAggregateRepository.findById(id);
+        if (aggregate.isEmpty()) {
+            return;
+        }
+        BigDecimal sum = aggregate.get().getGradeSum().negate();
+        long count = -aggregate.get().getGradeCount();
+        gradeAggregateRepository.applyDelta(GradeAggregateScopeEnum.STUDENT.name(), enrollment.getStudent().getId(), sum, count);
+        gradeAggregateRepository.applyDelta(GradeAggregateScopeEnum.COURSE.name(), enrollment.getCourse().getId(), sum, count);
+        gradeAggregateRepository.deleteById(id);
+    }
+
+    /**
+     * Recomputes every aggregate from the grades table.
+     */
+    @Transactional
+    public void rebuild() {
+        log.info("Rebuilding grade aggregates");
+        gradeAggregateRepository.deleteAllAggregates();
+        int enrollments = gradeAggregateRepository.rebuildEnrollmentAggregates();
+        int students = gradeAggregateRepository.rebuildStudentAggregates();
+        int courses = gradeAggregateRepository.rebuildCourseAggregates();
+        log.info("Rebuilt grade aggregates for {} enrollments, {} students and {} courses",
+                enrollments, students, courses);
+    }
+
+    private void applyDelta(Enrollment enrollment, BigDecimal sumDelta, long countDelta) {
+        gradeAggregateRepository.applyDelta(GradeAggregateScopeEnum.ENROLLMENT.name(), enrollment.getId(), sumDelta, countDelta);
+        gradeAggregateRepository.applyDelta(GradeAggregateScopeEnum.STUDENT.name(), enrollment.getStudent().getId(), sumDelta, countDelta);
+        gradeAggregateRepository.applyDelta(GradeAggregateScopeEnum.COURSE.name(), enrollment.getCourse().getId(), sumDelta, countDelta);
+    }
+}
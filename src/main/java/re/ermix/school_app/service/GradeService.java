@@ -2,18 +2,34 @@ package re.ermix.school_app.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.aspect.OptimisticRetry;
+import re.ermix.school_app.dto.BulkGradeRequest;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.GradeResponse;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.enums.GradeAggregateScopeEnum;
 import re.ermix.school_app.enums.GradeTypeEnum;
 import re.ermix.school_app.model.Enrollment;
 import re.ermix.school_app.model.Grade;
 import re.ermix.school_app.repository.EnrollmentRepository;
 import re.ermix.school_app.repository.GradeRepository;
+import re.ermix.school_app.util.Cursors;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Log4j2
 @Service
@@ -23,12 +39,22 @@ public class GradeService {
 
     private final GradeRepository gradeRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final GradeAggregateService gradeAggregateService;
+    private final BatchInserter batchInserter;
+    private final ChangeOutbox changeOutbox;
 
     public List<Grade> getAllGrades() {
         log.info("Get all grades");
         return gradeRepository.findAll();
     }
 
+    public CursorPage<Grade> getGradesPage(long afterId, int size) {
+        log.info("Get grades page after id: {} size: {}", afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<Grade> rows = gradeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Grade::getId);
+    }
+
     public Optional<Grade> getGradeById(Long id) {
         log.info("Get grade by id: {}", id);
         return gradeRepository.findById(id);
@@ -44,11 +70,33 @@ public class GradeService {
         return gradeRepository.findByGradeType(gradeTypeEnum);
     }
 
+    public CursorPage<Grade> getGradesByTypePage(GradeTypeEnum gradeTypeEnum, long afterId, int size) {
+        log.info("Get grades page by type: {} after id: {} size: {}", gradeTypeEnum, afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<Grade> rows = gradeRepository.findByGradeTypeAndIdGreaterThanOrderByIdAsc(
+                gradeTypeEnum, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Grade::getId);
+    }
+
     public List<Grade> getGradesByDateRange(LocalDate startDate, LocalDate endDate) {
         log.info("Get grades by date range: {} to {}", startDate, endDate);
         return gradeRepository.findByDateRecordedBetween(startDate, endDate);
     }
 
+    /**
+     * Pages through the range in date recorded order; {@code after} is null for the first page.
+     */
+    public CursorPage<Grade> getGradesByDateRangePage(LocalDate startDate, LocalDate endDate,
+                                                      Cursors.DatedId after, int size) {
+        log.info("Get grades page by date range: {} to {} after: {} size: {}", startDate, endDate, after, size);
+        int pageSize = CursorPage.clampSize(size);
+        Cursors.DatedId from = after != null ? after : new Cursors.DatedId(startDate, 0L);
+        List<Grade> rows = gradeRepository.findPageByDateRecordedBetween(
+                startDate, endDate, from.date(), from.id(), Limit.of(pageSize + 1));
+        return CursorPage.keyedBy(rows, pageSize,
+                grade -> Cursors.encode(new Cursors.DatedId(grade.getDateRecorded(), grade.getId())));
+    }
+
     public List<Grade> getGradesByStudent(Long studentId) {
         log.info("Get grades by student id: {}", studentId);
         return gradeRepository.findByStudentId(studentId);
@@ -64,19 +112,28 @@ public class GradeService {
         return gradeRepository.findByStudentIdAndCourseId(studentId, courseId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal calculateAverageGradeForEnrollment(Long enrollmentId) {
         log.info("Calculate average grade for enrollment id: {}", enrollmentId);
-        return gradeRepository.calculateAverageGradeForEnrollment(enrollmentId);
+        return gradeAggregateService.getAverage(GradeAggregateScopeEnum.ENROLLMENT, enrollmentId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal calculateAverageGradeForStudent(Long studentId) {
         log.info("Calculate average grade for student id: {}", studentId);
-        return gradeRepository.calculateAverageGradeForStudent(studentId);
+        return gradeAggregateService.getAverage(GradeAggregateScopeEnum.STUDENT, studentId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal calculateAverageGradeForCourse(Long courseId) {
         log.info("Calculate average grade for course id: {}", courseId);
-        return gradeRepository.calculateAverageGradeForCourse(courseId);
+        return gradeAggregateService.getAverage(GradeAggregateScopeEnum.COURSE, courseId);
+    }
+
+    @Transactional
+    public void rebuildGradeAggregates() {
+        log.info("Rebuild grade aggregates");
+        gradeAggregateService.rebuild();
     }
 
     @Transactional
@@ -86,6 +143,9 @@ public class GradeService {
         // Check if enrollment exists
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with id: " + enrollmentId));
+        if (enrollment.getStatus() == EnrollmentStatusEnum.DROPPED) {
+            throw new IllegalStateException("Enrollment id: " + enrollmentId + " is dropped");
+        }
 
         // Create new grade
         Grade grade = new Grade();
@@ -98,19 +158,96 @@ public class GradeService {
         // Add grade to enrollment
         enrollment.addGrade(grade);
 
-        return gradeRepository.save(grade);
+        Grade savedGrade = gradeRepository.save(grade);
+        gradeAggregateService.recordGrade(enrollment, gradeValue);
+        recordChange(ChangeTypeEnum.CREATED, savedGrade);
+        return savedGrade;
     }
 
+    /**
+     * Records the grades of one assessment for many enrollments of a course. The enrollments
+     * are loaded with one IN query per kind of reference, the grades are inserted in JDBC
+     * batches and the aggregates are updated with one statement per scope. Nothing is saved
+     * unless every entry is valid.
+     */
+    @Transactional
+    public List<Grade> addGradesForCourse(BulkGradeRequest request) {
+        log.info("Adding {} {} grades to course id: {}", request.grades().size(), request.gradeType(), request.courseId());
+        Set<Long> enrollmentIds = new HashSet<>();
+        Set<Long> studentIds = new HashSet<>();
+        for (BulkGradeRequest.Entry entry : request.grades()) {
+            boolean added = entry.enrollmentId() != null
+                    ? enrollmentIds.add(entry.enrollmentId())
+                    : studentIds.add(entry.studentId());
+            if (!added) {
+                throw new IllegalStateException("Duplicate grade for " + (entry.enrollmentId() != null
+                        ? "enrollment id: " + entry.enrollmentId()
+                        : "student id: " + entry.studentId()));
+            }
+        }
+
+        Map<Long, Enrollment> byId = new HashMap<>();
+        Map<Long, Enrollment> byStudentId = new HashMap<>();
+        if (!enrollmentIds.isEmpty()) {
+            enrollmentRepository.findByCourseIdAndIdIn(request.courseId(), enrollmentIds)
+                    .forEach(enrollment -> byId.put(enrollment.getId(), enrollment));
+        }
+        if (!studentIds.isEmpty()) {
+            enrollmentRepository.findByCourseIdAndStudentIdIn(request.courseId(), studentIds)
+                    .forEach(enrollment -> byStudentId.put(enrollment.getStudent().getId(), enrollment));
+        }
+        List<Long> unknownEnrollments = enrollmentIds.stream().filter(id -> !byId.containsKey(id)).sorted().toList();
+        List<Long> unknownStudents = studentIds.stream().filter(id -> !byStudentId.containsKey(id)).sorted().toList();
+        if (!unknownEnrollments.isEmpty() || !unknownStudents.isEmpty()) {
+            throw new IllegalArgumentException("Enrollment not found in course id: " + request.courseId()
+                    + " for enrollment ids: " + unknownEnrollments + " and student ids: " + unknownStudents);
+        }
+
+        List<Grade> grades = new ArrayList<>(request.grades().size());
+        Set<Long> gradedEnrollments = new HashSet<>();
+        for (BulkGradeRequest.Entry entry : request.grades()) {
+            Enrollment enrollment = entry.enrollmentId() != null
+                    ? byId.get(entry.enrollmentId())
+                    : byStudentId.get(entry.studentId());
+            if (!gradedEnrollments.add(enrollment.getId())) {
+                throw new IllegalStateException("Duplicate grade for enrollment id: " + enrollment.getId());
+            }
+            if (enrollment.getStatus() == EnrollmentStatusEnum.DROPPED) {
+                throw new IllegalStateException("Enrollment id: " + enrollment.getId() + " is dropped");
+            }
+            Grade grade = new Grade();
+            grade.setEnrollment(enrollment);
+            grade.setGradeValue(entry.gradeValue());
+            grade.setGradeType(request.gradeType());
+            grade.setComment(entry.comment());
+            grade.setDateRecorded(request.dateRecorded());
+            grades.add(grade);
+        }
+
+        batchInserter.insertAll(grades);
+        gradeAggregateService.recordGrades(grades.stream().map(Grade::getId).toList());
+        changeOutbox.recordAll(grades.stream()
+                .map(grade -> new ChangeOutbox.Change(ChangeEntityEnum.GRADE, ChangeTypeEnum.CREATED, grade.getId(),
+                        GradeResponse.from(grade)))
+                .toList());
+        return grades;
+    }
+
+    @OptimisticRetry
     @Transactional
     public Grade updateGrade(Long id, Grade gradeDetails) {
         log.info("Updating grade with id: {}", id);
         return gradeRepository.findById(id)
                 .map(grade -> {
+                    gradeAggregateService.changeGrade(grade.getEnrollment(), grade.getGradeValue(),
+                            gradeDetails.getGradeValue());
                     grade.setGradeValue(gradeDetails.getGradeValue());
                     grade.setGradeType(gradeDetails.getGradeType());
                     grade.setComment(gradeDetails.getComment());
                     grade.setDateRecorded(gradeDetails.getDateRecorded());
-                    return gradeRepository.save(grade);
+                    Grade saved = gradeRepository.save(grade);
+                    recordChange(ChangeTypeEnum.UPDATED, saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new IllegalArgumentException("Grade not found with id: " + id));
     }
@@ -118,6 +255,14 @@ public class GradeService {
     @Transactional
     public void deleteGrade(Long id) {
         log.info("Deleting grade with id: {}", id);
+        gradeRepository.findById(id).ifPresent(grade -> {
+            gradeAggregateService.removeGrade(grade.getEnrollment(), grade.getGradeValue());
+            changeOutbox.record(ChangeEntityEnum.GRADE, ChangeTypeEnum.DELETED, id, null);
+        });
         gradeRepository.deleteById(id);
     }
+
+    private void recordChange(ChangeTypeEnum type, Grade grade) {
+        changeOutbox.record(ChangeEntityEnum.GRADE, type, grade.getId(), GradeResponse.from(grade));
+    }
 }
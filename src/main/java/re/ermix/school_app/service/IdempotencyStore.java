@@ -0,0 +1,212 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import re.ermix.school_app.enums.IdempotencyScopeEnum;
+import re.ermix.school_app.util.TransactionCallbacks;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs POST requests sent with an {@code Idempotency-Key} header at most once per key and
+ * replays the stored response for repeated keys, for {@code school.idempotency.ttl}.
+ * <p>
+ * The key is claimed by inserting its {@code idempotency_keys} row in the request's own
+ * transaction, before the operation runs, and the response is stored in the same row before
+ * commit, so the key and the change it answers for commit or roll back together. A concurrent
+ * retry with the same key waits on that row's primary key and then replays the committed
+ * response. Only successful responses are stored; a failed request releases its key.
+ * <p>
+ * Recently stored responses are also kept in a bounded in-memory cache, published as
+ * {@code cache.*} meters tagged {@code cache=idempotencyKeys}, so most retries are answered
+ * without a transaction; {@code school.idempotency.requests} counts requests by outcome.
+ */
+@Log4j2
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String CACHE_NAME = "idempotencyKeys";
+    static final int MAX_KEY_LENGTH = 255;
+
+    static final String INSERT_SQL = "INSERT INTO idempotency_keys " +
+            "(scope, idempotency_key, request_hash, created_at) VALUES (?, ?, ?, ?)";
+    static final String UPDATE_SQL = "UPDATE idempotency_keys SET status = ?, location = ?, body = ? " +
+            "WHERE scope = ? AND idempotency_key = ?";
+    static final String SELECT_SQL = "SELECT request_hash, status, location, body FROM idempotency_keys " +
+            "WHERE scope = ? AND idempotency_key = ?";
+    static final String DELETE_EXPIRED_SQL = "DELETE FROM idempotency_keys WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> cache;
+
+    record StoredResponse(String requestHash, Integer status, String location, String body) {
+    }
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${school.idempotency.ttl:P1D}") Duration ttl,
+                            @Value("${school.idempotency.cache-size:10000}") long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Runs the operation once for the key, or replays the response it stored. The request
+     * parameters are hashed, in order; reusing a key with other parameters answers 422.
+     */
+    @Transactional
+    public ResponseEntity<?> execute(IdempotencyScopeEnum scope, String key, List<?> request,
+                                     Supplier<ResponseEntity<?>> operation) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        String requestHash = hash(request);
+        StoredResponse cached = cache.getIfPresent(cacheKey(scope, key));
+        if (cached != null) {
+            return replay(scope, key, cached, requestHash);
+        }
+
+        try {
+            jdbcTemplate.update(INSERT_SQL, scope.name(), key, requestHash, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // Committed by an earlier request, or by a concurrent one we waited for
+            return find(scope, key)
+                    .map(stored -> replay(scope, key, stored, requestHash))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+
+        ResponseEntity<?> response = operation.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            // Release the key along with whatever the operation did
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            }
+            count(scope, "failed");
+            return response;
+        }
+        URI location = response.getHeaders().getLocation();
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                location != null ? location.toString() : null, toJson(response.getBody()));
+        jdbcTemplate.update(UPDATE_SQL, stored.status(), stored.location(), stored.body(), scope.name(), key);
+        TransactionCallbacks.afterCommit(() -> cache.put(cacheKey(scope, key), stored));
+        count(scope, "executed");
+        return response;
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${school.idempotency.cleanup-interval:PT1H}")
+    public void deleteExpiredKeys() {
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.valueOf(LocalDateTime.now().minus(ttl)));
+        if (deleted > 0) {
+            log.info("Deleted {} idempotency keys older than {}", deleted, ttl);
+        }
+    }
+
+    private Optional<StoredResponse> find(IdempotencyScopeEnum scope, String key) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"),
+                        rs.getObject("status", Integer.class), rs.getString("location"), rs.getString("body")),
+                scope.name(), key).stream().findFirst();
+    }
+
+    private ResponseEntity<?> replay(IdempotencyScopeEnum scope, String key, StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            log.warn("Idempotency key {} of {} reused with other parameters", key, scope);
+            count(scope, "mismatched");
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        if (stored.status() == null) {
+            // Claimed but never answered; execute stores a response before every commit
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        cache.put(cacheKey(scope, key), stored);
+        log.info("Replaying response {} for idempotency key {} of {}", stored.status(), key, scope);
+        count(scope, "replayed");
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            response.header(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.body() == null) {
+            return response.build();
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(stored.body());
+    }
+
+    private void count(IdempotencyScopeEnum scope, String outcome) {
+        Counter.builder("school.idempotency.requests")
+                .description("Requests sent with an Idempotency-Key")
+                .tag("scope", scope.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String hash(List<?> request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String cacheKey(IdempotencyScopeEnum scope, String key) {
+        return scope.name() + ':' + key;
+    }
+}
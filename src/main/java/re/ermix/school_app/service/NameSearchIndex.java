@@ -0,0 +1,217 @@
+package re.ermix.school_app.service;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.SearchableName;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.StudentSearchCriteria;
+import re.ermix.school_app.model.Teacher;
+import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.repository.TeacherRepository;
+import re.ermix.school_app.util.TransactionCallbacks;
+import re.ermix.school_app.util.TrigramIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Trigram indexes over the first name, last name and email of students and teachers, so that
+ * substring searches look up candidate ids in memory and only fetch those rows instead of
+ * scanning the table with a leading-wildcard LIKE.
+ * <p>
+ * Both indexes are loaded once the application is ready, unless disabled with
+ * {@code school.search.index.enabled}. Until then, and whenever a query is too short or too
+ * unselective, the lookups return null and callers query the database as before. Writers
+ * report changes, which are applied after their transaction commits. The candidates are a
+ * superset of the matches, so callers still apply the search predicate to the rows they fetch.
+ * <p>
+ * Changes made by other instances, or straight in the database, are never reported here, so
+ * the indexes are rebuilt from the primary every {@code school.search.index.rebuild-interval}.
+ * Changes reported while a rebuild reads the tables are applied to both the old and the new
+ * indexes, so none is lost when the new ones replace the old. In between, the candidates come
+ * with the time from which such changes may be missing: the start of the last rebuild, less
+ * {@code school.search.index.commit-margin} for writes that were stamped before it but committed
+ * after. Callers also fetch the rows updated since then, so a search never misses a committed row.
+ */
+@Log4j2
+@Component
+public class NameSearchIndex {
+
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final boolean enabled;
+    private final int maxCandidates;
+    private final Duration commitMargin;
+    private final PrimaryReads primaryReads;
+
+    private volatile Indexes indexes = new Indexes(LocalDateTime.MIN);
+    private volatile boolean ready;
+
+    // Reported changes, also kept while a rebuild runs to be applied to the new indexes
+    private final Object changes = new Object();
+    private List<Consumer<Indexes>> changesDuringRebuild;
+
+    public NameSearchIndex(StudentRepository studentRepository,
+                           TeacherRepository teacherRepository,
+                           @Value("${school.search.index.enabled:true}") boolean enabled,
+                           @Value("${school.search.index.max-candidates:10000}") int maxCandidates,
+                           @Value("${school.search.index.commit-margin:PT5M}") Duration commitMargin,
+                           PrimaryReads primaryReads) {
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+        this.commitMargin = commitMargin;
+        this.primaryReads = primaryReads;
+    }
+
+    /**
+     * Ids that may match, ascending, and the time from which changed rows may be missing from
+     * them.
+     */
+    public record Candidates(long[] ids, LocalDateTime changedSince) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            log.info("Name search index disabled, searching the database");
+            return;
+        }
+        log.info("Loading name search index");
+        rebuild();
+        ready = true;
+    }
+
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${school.search.index.rebuild-interval:PT1H}",
+            initialDelayString = "${school.search.index.rebuild-interval:PT1H}")
+    public void reload() {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    private synchronized void rebuild() {
+        synchronized (changes) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        Indexes rebuilt = new Indexes(LocalDateTime.now().minus(commitMargin));
+        try {
+            primaryReads.read(() -> {
+                try (Stream<SearchableName> rows = studentRepository.streamSearchableNames()) {
+                    rows.forEach(row -> rebuilt.students.put(row.id(), row.firstName(), row.lastName(), row.email()));
+                }
+                try (Stream<SearchableName> rows = teacherRepository.streamSearchableNames()) {
+                    rows.forEach(row -> rebuilt.teachers.put(row.id(), row.firstName(), row.lastName(), row.email()));
+                }
+                return rebuilt;
+            });
+            synchronized (changes) {
+                changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                indexes = rebuilt;
+            }
+        } finally {
+            synchronized (changes) {
+                changesDuringRebuild = null;
+            }
+        }
+        log.info("Name search index loaded with {} students and {} teachers",
+                rebuilt.students.size(), rebuilt.teachers.size());
+    }
+
+    /**
+     * The students that may match the name and email criteria.
+     *
+     * @return null when the database has to be searched instead
+     */
+    public Candidates studentCandidates(StudentSearchCriteria criteria) {
+        if (!ready) {
+            return null;
+        }
+        Indexes current = indexes;
+        return selective(current, current.students.matchAll(criteria.getFirstName(), criteria.getLastName(),
+                criteria.getEmail()));
+    }
+
+    /**
+     * The teachers whose first name, last name or email may contain the query.
+     *
+     * @return null when the database has to be searched instead
+     */
+    public Candidates teacherCandidates(String query) {
+        if (!ready) {
+            return null;
+        }
+        Indexes current = indexes;
+        return selective(current, current.teachers.matchAny(query));
+    }
+
+    public void indexStudent(Student student) {
+        Long id = student.getId();
+        String firstName = student.getFirstName();
+        String lastName = student.getLastName();
+        String email = student.getEmail();
+        afterCommit(current -> current.students.put(id, firstName, lastName, email));
+    }
+
+    public void removeStudent(Long id) {
+        afterCommit(current -> current.students.remove(id));
+    }
+
+    public void indexTeacher(Teacher teacher) {
+        Long id = teacher.getId();
+        String firstName = teacher.getFirstName();
+        String lastName = teacher.getLastName();
+        String email = teacher.getEmail();
+        afterCommit(current -> current.teachers.put(id, firstName, lastName, email));
+    }
+
+    public void removeTeacher(Long id) {
+        afterCommit(current -> current.teachers.remove(id));
+    }
+
+    private void afterCommit(Consumer<Indexes> change) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (changes) {
+                change.accept(indexes);
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.add(change);
+                }
+            }
+        });
+    }
+
+    private Candidates selective(Indexes current, long[] candidates) {
+        if (candidates == null) {
+            return null;
+        }
+        if (candidates.length > maxCandidates) {
+            log.debug("{} name search candidates exceed the limit of {}", candidates.length, maxCandidates);
+            return null;
+        }
+        return new Candidates(candidates, current.changedSince);
+    }
+
+    private static final class Indexes {
+        private final TrigramIndex students = new TrigramIndex(3);
+        private final TrigramIndex teachers = new TrigramIndex(3);
+        // Rows updated from then on may have been missed by the rebuild
+        private final LocalDateTime changedSince;
+
+        private Indexes(LocalDateTime changedSince) {
+            this.changedSince = changedSince;
+        }
+    }
+}
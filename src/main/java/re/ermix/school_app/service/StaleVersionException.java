@@ -0,0 +1,12 @@
+package re.ermix.school_app.service;
+
+/**
+ * Thrown instead of updating a row when the caller names, through {@code If-Match}, a version
+ * of it that is no longer current; someone else has updated it since the caller read it.
+ */
+public class StaleVersionException extends RuntimeException {
+
+    public StaleVersionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,72 @@
+package re.ermix.school_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.util.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded in-process cache of each student's enrollments, keyed by student id. Entries are
+ * weighed by the number of enrollments they hold, so the bound is on enrollments rather
+ * than on students. Hit, miss and eviction counts are published as {@code cache.*} meters
+ * tagged {@code cache=studentEnrollments}. Entries are loaded from the primary, so a lagging
+ * replica is never cached.
+ * <p>
+ * Writers call {@link #invalidate} for the affected student. The entry is dropped right away
+ * and again once the transaction commits, so a reader that reloads it in between cannot
+ * leave the pre-commit state cached.
+ */
+@Log4j2
+@Component
+public class StudentEnrollmentCache {
+
+    static final String CACHE_NAME = "studentEnrollments";
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, List<EnrollmentSummary>> cache;
+
+    public StudentEnrollmentCache(EnrollmentRepository enrollmentRepository,
+                                  PrimaryReads primaryReads,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${school.cache.student-enrollments.max-weight:200000}") long maxWeight,
+                                  @Value("${school.cache.student-enrollments.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long studentId, List<EnrollmentSummary> enrollments) -> 1 + enrollments.size())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the student's enrollments ordered by id, loading them on a miss.
+     */
+    public List<EnrollmentSummary> get(Long studentId) {
+        return cache.get(studentId, id -> {
+            log.debug("Loading enrollments of student {} into cache", id);
+            return List.copyOf(primaryReads.read(() -> enrollmentRepository.findSummariesByStudentId(id)));
+        });
+    }
+
+    /**
+     * Drops the student's entry now and again after the current transaction commits.
+     */
+    public void invalidate(Long studentId) {
+        cache.invalidate(studentId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(studentId));
+    }
+}
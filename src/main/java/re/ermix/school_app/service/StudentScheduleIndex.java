@@ -0,0 +1,132 @@
+package re.ermix.school_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.MeetingSlot;
+import re.ermix.school_app.model.CourseMeeting;
+import re.ermix.school_app.repository.CourseRepository;
+import re.ermix.school_app.util.IntervalTree;
+import re.ermix.school_app.util.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bounded in-process cache of each student's weekly schedule: an interval tree of the meetings
+ * of the courses they are actively enrolled in, on a scale of minutes since Monday 00:00, with
+ * the course id as the value. A course's meetings are checked against it in O(log n) each,
+ * without loading the student's courses. Entries are weighed by their number of meetings and
+ * published as {@code cache.*} meters tagged {@code cache=studentSchedules}.
+ * <p>
+ * Invalidation follows {@link StudentEnrollmentCache}: writers call {@link #invalidate} for the
+ * affected student, which drops the entry now and again after commit. Entries are likewise
+ * loaded from the primary.
+ */
+@Log4j2
+@Component
+public class StudentScheduleIndex {
+
+    static final String CACHE_NAME = "studentSchedules";
+
+    private final CourseRepository courseRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, IntervalTree<Long>> cache;
+
+    public StudentScheduleIndex(CourseRepository courseRepository,
+                                PrimaryReads primaryReads,
+                                MeterRegistry meterRegistry,
+                                @Value("${school.cache.student-schedules.max-weight:500000}") long maxWeight,
+                                @Value("${school.cache.student-schedules.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.courseRepository = courseRepository;
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long studentId, IntervalTree<Long> schedule) -> 1 + schedule.size())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the student's schedule, loading it with one query on a miss.
+     */
+    public IntervalTree<Long> get(Long studentId) {
+        return cache.get(studentId, id -> {
+            log.debug("Loading schedule of student {} into cache", id);
+            return scheduleOf(primaryReads.read(() -> courseRepository.findActiveMeetingSlotsByStudentId(id)));
+        });
+    }
+
+    /**
+     * Returns the ids, in ascending order, of the student's courses other than {@code courseId}
+     * whose meetings overlap any of the given meetings.
+     */
+    public List<Long> conflictingCourses(Long studentId, Long courseId, Collection<CourseMeeting> meetings) {
+        if (meetings.isEmpty()) {
+            return List.of();
+        }
+        return conflicts(get(studentId), courseId, meetings);
+    }
+
+    /**
+     * Like {@link #conflictingCourses}, but against the schedule as the caller's transaction reads
+     * it rather than the cached one, for a write that must not act on a stale schedule. The caller
+     * holds the student's row lock, so none of their other enrollments can commit in between.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> currentConflictingCourses(Long studentId, Long courseId, Collection<CourseMeeting> meetings) {
+        if (meetings.isEmpty()) {
+            return List.of();
+        }
+        return conflicts(scheduleOf(courseRepository.findActiveMeetingSlotsByStudentId(studentId)), courseId, meetings);
+    }
+
+    private static List<Long> conflicts(IntervalTree<Long> schedule, Long courseId, Collection<CourseMeeting> meetings) {
+        return meetings.stream()
+                .flatMap(meeting -> schedule.overlapping(meeting.startMinuteOfWeek(), meeting.endMinuteOfWeek()).stream())
+                .map(IntervalTree.Interval::value)
+                .filter(enrolledCourseId -> !Objects.equals(enrolledCourseId, courseId))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Drops the student's schedule now and again after the current transaction commits.
+     */
+    public void invalidate(Long studentId) {
+        cache.invalidate(studentId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(studentId));
+    }
+
+    /**
+     * Drops every schedule, for when a course's meetings change; that is rare enough not to track
+     * which students are enrolled.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        TransactionCallbacks.afterCommit(cache::invalidateAll);
+    }
+
+    private static IntervalTree<Long> scheduleOf(List<MeetingSlot> slots) {
+        return IntervalTree.of(slots.stream()
+                .map(StudentScheduleIndex::toInterval)
+                .toList());
+    }
+
+    private static IntervalTree.Interval<Long> toInterval(MeetingSlot slot) {
+        return new IntervalTree.Interval<>(slot.meeting().startMinuteOfWeek(), slot.meeting().endMinuteOfWeek(),
+                slot.courseId());
+    }
+}
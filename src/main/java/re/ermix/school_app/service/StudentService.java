@@ -1,39 +1,102 @@
 package re.ermix.school_app.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
 import re.ermix.school_app.model.Student;
 import re.ermix.school_app.model.StudentSearchCriteria;
 import re.ermix.school_app.repository.StudentRepository;
 import re.ermix.school_app.specification.StudentSpecification;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class StudentService {
 
     private final StudentRepository studentRepository;
+    private final GradeAggregateService gradeAggregateService;
+    private final StudentEnrollmentCache studentEnrollmentCache;
+    private final BatchInserter batchInserter;
+    private final NameSearchIndex nameSearchIndex;
+    private final ChangeOutbox changeOutbox;
+    private final CourseWaitlist courseWaitlist;
+    private final StudentScheduleIndex studentScheduleIndex;
+    private final EnrollmentService enrollmentService;
 
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
 
+    public CursorPage<Student> getStudentsPage(long afterId, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<Student> rows = studentRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Student::getId);
+    }
+
     public Optional<Student> getStudentById(Long id) {
         return studentRepository.findById(id);
     }
 
+    public Optional<EntityVersion> getStudentVersion(Long id) {
+        return studentRepository.findVersionById(id);
+    }
+
+    public CursorPage<EntityVersion> getStudentVersionsPage(long afterId, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<EntityVersion> rows = studentRepository.findVersionsAfter(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, EntityVersion::id);
+    }
+
     public List<Student> searchStudents(StudentSearchCriteria criteria) {
         Specification<Student> spec = StudentSpecification.buildSpecification(criteria);
-        return studentRepository.findAll(spec);
+        NameSearchIndex.Candidates candidates = nameSearchIndex.studentCandidates(criteria);
+        if (candidates == null) {
+            return studentRepository.findAll(spec);
+        }
+        // The criteria are applied again, since the index may return ids that do not match. Rows
+        // changed since it was rebuilt are checked as well, as other instances' writes are not in it.
+        Specification<Student> among = StudentSpecification.updatedSince(candidates.changedSince());
+        if (candidates.ids().length > 0) {
+            among = StudentSpecification.idIn(candidates.ids()).or(among);
+        }
+        return studentRepository.findAll(spec.and(among));
     }
 
+    @Transactional
     public Student saveStudent(Student student) {
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        nameSearchIndex.indexStudent(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<Student> saveStudents(List<Student> students) {
+        Set<String> emails = new HashSet<>();
+        for (Student student : students) {
+            if (!emails.add(student.getEmail())) {
+                throw new IllegalStateException("Duplicate email in batch: " + student.getEmail());
+            }
+        }
+        List<String> existing = studentRepository.findExistingEmails(emails);
+        if (!existing.isEmpty()) {
+            throw new IllegalStateException("Students already exist with emails: " + existing);
+        }
+        List<Student> saved = batchInserter.insertAll(students);
+        saved.forEach(nameSearchIndex::indexStudent);
+        return saved;
     }
 
+    @Transactional
     public Student updateStudent(Long id, Student updatedStudent) {
         Student existingStudent = studentRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + id));
@@ -46,10 +109,27 @@ public class StudentService {
         existingStudent.setPhoneNumber(updatedStudent.getPhoneNumber());
         existingStudent.setEnrollmentDate(updatedStudent.getEnrollmentDate());
 
-        return studentRepository.save(existingStudent);
+        Student saved = studentRepository.save(existingStudent);
+        nameSearchIndex.indexStudent(saved);
+        return saved;
     }
 
+    // Read committed, as freed seats can promote waitlisted students
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteStudent(Long id) {
+        // Enrollments and grades are removed by cascade, so take them out of the aggregates and
+        // publish their deletions
+        Optional<Student> deleted = studentRepository.findById(id);
+        deleted.ifPresent(student -> {
+            student.getEnrollments().forEach(gradeAggregateService::removeEnrollment);
+            changeOutbox.recordAll(EnrollmentService.deletionsOf(student.getEnrollments()));
+        });
         studentRepository.deleteById(id);
+        // Their active enrollments free seats, which go to the waitlists first
+        deleted.ifPresent(student -> enrollmentService.freeSeats(student.getEnrollments()));
+        studentEnrollmentCache.invalidate(id);
+        nameSearchIndex.removeStudent(id);
+        courseWaitlist.removeStudent(id);
+        studentScheduleIndex.invalidate(id);
     }
 }
\ No newline at end of file
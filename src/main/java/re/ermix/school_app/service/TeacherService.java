@@ -2,14 +2,21 @@ package re.ermix.school_app.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
 import re.ermix.school_app.model.Teacher;
 import re.ermix.school_app.repository.TeacherRepository;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 @Log4j2
 @Service
@@ -18,17 +25,38 @@ import java.util.Optional;
 public class TeacherService {
 
     private final TeacherRepository teacherRepository;
+    private final BatchInserter batchInserter;
+    private final NameSearchIndex nameSearchIndex;
 
     public List<Teacher> getAllTeachers() {
         log.info("Get all teachers");
         return teacherRepository.findAll();
     }
 
+    public CursorPage<Teacher> getTeachersPage(long afterId, int size) {
+        log.info("Get teachers page after id: {} size: {}", afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<Teacher> rows = teacherRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Teacher::getId);
+    }
+
     public Optional<Teacher> getTeacherById(Long id) {
         log.info("Get teacher by id: {}", id);
         return teacherRepository.findById(id);
     }
 
+    public Optional<EntityVersion> getTeacherVersion(Long id) {
+        log.info("Get teacher version by id: {}", id);
+        return teacherRepository.findVersionById(id);
+    }
+
+    public CursorPage<EntityVersion> getTeacherVersionsPage(long afterId, int size) {
+        log.info("Get teacher versions page after id: {} size: {}", afterId, size);
+        int pageSize = CursorPage.clampSize(size);
+        List<EntityVersion> rows = teacherRepository.findVersionsAfter(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, EntityVersion::id);
+    }
+
     public Optional<Teacher> getTeacherByEmail(String email) {
         log.info("Get teacher by email: {}", email);
         return teacherRepository.findByEmail(email);
@@ -39,6 +67,21 @@ public class TeacherService {
         return teacherRepository.findByLastName(lastName);
     }
 
+    /**
+     * Teachers whose first name, last name or email contains the query, ignoring case.
+     */
+    public List<Teacher> searchTeachers(String query) {
+        log.info("Search teachers by: {}", query);
+        String pattern = "%" + query.toLowerCase(Locale.ROOT) + "%";
+        NameSearchIndex.Candidates candidates = nameSearchIndex.teacherCandidates(query);
+        if (candidates == null) {
+            return teacherRepository.searchByNameOrEmail(pattern);
+        }
+        // Other instances' writes since the index was rebuilt are not in it
+        return teacherRepository.searchByNameOrEmailAmongOrUpdatedSince(pattern,
+                Arrays.stream(candidates.ids()).boxed().toList(), candidates.changedSince());
+    }
+
     public List<Teacher> getTeachersByName(String firstName, String lastName) {
         log.info("Get teachers by name: {} {}", firstName, lastName);
         return teacherRepository.findByFirstNameAndLastName(firstName, lastName);
@@ -62,19 +105,40 @@ public class TeacherService {
     @Transactional
     public Teacher saveTeacher(Teacher teacher) {
         log.info("Save teacher: {} {}", teacher.getFirstName(), teacher.getLastName());
-        return teacherRepository.save(teacher);
+        Teacher saved = teacherRepository.save(teacher);
+        nameSearchIndex.indexTeacher(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<Teacher> saveTeachers(List<Teacher> teachers) {
+        log.info("Save {} teachers", teachers.size());
+        Set<String> emails = new HashSet<>();
+        for (Teacher teacher : teachers) {
+            if (!emails.add(teacher.getEmail())) {
+                throw new IllegalStateException("Duplicate email in batch: " + teacher.getEmail());
+            }
+        }
+        List<String> existing = teacherRepository.findExistingEmails(emails);
+        if (!existing.isEmpty()) {
+            throw new IllegalStateException("Teachers already exist with emails: " + existing);
+        }
+        List<Teacher> saved = batchInserter.insertAll(teachers);
+        saved.forEach(nameSearchIndex::indexTeacher);
+        return saved;
     }
 
     @Transactional
     public void deleteTeacher(Long id) {
         log.info("Delete teacher with id: {}", id);
         teacherRepository.deleteById(id);
+        nameSearchIndex.removeTeacher(id);
     }
 
     @Transactional
     public Teacher updateTeacher(Long id, Teacher teacherDetails) {
         log.info("Update teacher with id: {}", id);
-        return teacherRepository.findById(id)
+        Teacher saved = teacherRepository.findById(id)
                 .map(teacher -> {
                     teacher.setFirstName(teacherDetails.getFirstName());
                     teacher.setLastName(teacherDetails.getLastName());
@@ -90,5 +154,7 @@ public class TeacherService {
                     log.info("Creating new teacher with id: {}", id);
                     return teacherRepository.save(teacherDetails);
                 });
+        nameSearchIndex.indexTeacher(saved);
+        return saved;
     }
 }
@@ -0,0 +1,141 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import re.ermix.school_app.dto.Transcript;
+import re.ermix.school_app.dto.TranscriptCourse;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.repository.StudentRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds student transcripts from one query over the student's enrollments, their courses and
+ * the enrollment grade aggregates.
+ * <p>
+ * A cohort of students, selected by enrollment date, is written as newline-delimited JSON. The
+ * cohort's ids are read once from the enrollment date index and split into chunks of
+ * {@code school.transcripts.chunk-size}; up to {@code school.transcripts.parallelism} chunks are
+ * loaded and serialized at once on the application task executor, each in its own read-only
+ * transactions, and written out in id order as they complete.
+ */
+@Log4j2
+@Service
+public class TranscriptService {
+
+    private final StudentRepository studentRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ObjectWriter transcriptWriter;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public TranscriptService(StudentRepository studentRepository,
+                             EnrollmentRepository enrollmentRepository,
+                             ObjectMapper objectMapper,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                             TaskExecutor taskExecutor,
+                             @Value("${school.transcripts.chunk-size:500}") int chunkSize,
+                             @Value("${school.transcripts.parallelism:4}") int parallelism) {
+        this.studentRepository = studentRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.transcriptWriter = objectMapper.writerFor(Transcript.class);
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Transcript> getTranscript(Long studentId) {
+        log.info("Get transcript for student id: {}", studentId);
+        return studentRepository.findById(studentId)
+                .map(student -> Transcript.of(student, enrollmentRepository.findTranscriptCourses(List.of(studentId))));
+    }
+
+    public long exportCohortTranscripts(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        log.info("Export transcripts of students enrolled from {} to {}", startDate, endDate);
+        List<Long> studentIds = studentRepository.findIdsByEnrollmentDateBetween(startDate, endDate);
+        Deque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        long count = 0;
+        try {
+            for (int from = 0; from < studentIds.size(); from += chunkSize) {
+                List<Long> ids = studentIds.subList(from, Math.min(from + chunkSize, studentIds.size()));
+                inFlight.add(CompletableFuture.supplyAsync(() -> renderChunk(ids), taskExecutor));
+                if (inFlight.size() >= parallelism) {
+                    count += write(inFlight.poll(), out);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                count += write(inFlight.poll(), out);
+            }
+        } finally {
+            inFlight.forEach(chunk -> chunk.cancel(false));
+        }
+        out.flush();
+        log.info("Exported {} transcripts", count);
+        return count;
+    }
+
+    private Chunk renderChunk(List<Long> studentIds) {
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Map<Long, List<TranscriptCourse>> courses = enrollmentRepository.findTranscriptCourses(studentIds).stream()
+                .collect(Collectors.groupingBy(TranscriptCourse::studentId));
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        int count = 0;
+        try {
+            for (Long studentId : studentIds) {
+                Student student = students.get(studentId);
+                // Deleted since the cohort's ids were read
+                if (student == null) {
+                    continue;
+                }
+                transcriptWriter.writeValue(ndjson, Transcript.of(student, courses.getOrDefault(studentId, List.of())));
+                ndjson.write('\n');
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Chunk(count, ndjson);
+    }
+
+    private static int write(CompletableFuture<Chunk> pending, OutputStream out) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        chunk.ndjson().writeTo(out);
+        out.flush();
+        return chunk.transcripts();
+    }
+
+    private record Chunk(int transcripts, ByteArrayOutputStream ndjson) {
+    }
+}
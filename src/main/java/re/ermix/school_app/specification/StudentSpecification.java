@@ -6,7 +6,9 @@ import org.springframework.data.jpa.domain.Specification;
 import re.ermix.school_app.model.Student;
 import re.ermix.school_app.model.StudentSearchCriteria;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class StudentSpecification {
@@ -51,4 +53,12 @@ public class StudentSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    public static Specification<Student> idIn(long[] ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(Arrays.stream(ids).boxed().toList());
+    }
+
+    public static Specification<Student> updatedSince(LocalDateTime since) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("updatedAt"), since);
+    }
 }
@@ -0,0 +1,87 @@
+package re.ermix.school_app.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursors handed out by the list endpoints.
+ * A cursor carries the sort key of the last row of the previous page: its id, or its date and
+ * id for lists ordered by date. The filter columns are part of the request itself.
+ */
+public final class Cursors {
+
+    private static final String PREFIX = "id:";
+    private static final String DATED_PREFIX = "date:";
+
+    private Cursors() {
+    }
+
+    /**
+     * The position of a row in a list ordered by a date and then id.
+     */
+    public record DatedId(LocalDate date, long id) {
+    }
+
+    public static String encode(Long lastId) {
+        return toCursor(PREFIX + lastId);
+    }
+
+    public static String encode(DatedId last) {
+        return toCursor(DATED_PREFIX + last.date() + "/" + last.id());
+    }
+
+    /**
+     * Returns the id after which the next page starts, or 0 for the first page.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(fromCursor(cursor, PREFIX));
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor, e);
+        }
+    }
+
+    /**
+     * Returns the date and id after which the next page starts, or null for the first page.
+     */
+    public static DatedId decodeDated(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = fromCursor(cursor, DATED_PREFIX);
+            int separator = value.indexOf('/');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor has no id");
+            }
+            return new DatedId(LocalDate.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid(cursor, e);
+        }
+    }
+
+    private static String toCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fromCursor(String cursor, String prefix) {
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!value.startsWith(prefix)) {
+            throw new IllegalArgumentException("Unknown cursor format");
+        }
+        return value.substring(prefix.length());
+    }
+
+    private static ResponseStatusException invalid(String cursor, Exception cause) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, cause);
+    }
+}
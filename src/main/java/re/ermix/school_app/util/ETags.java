@@ -0,0 +1,92 @@
+package re.ermix.school_app.util;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Strong entity tags derived from row versions instead of response bodies. The responses are
+ * flat, so a row's id and {@code updated_at} identify its representation, and the versions of
+ * a page's rows identify the page. That lets a conditional request be answered from a
+ * timestamp-only query, without loading or serializing anything.
+ */
+public final class ETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+    }
+
+    public static String of(EntityVersion version) {
+        return "\"" + Long.toString(version.id(), 36) + "-" + Long.toString(micros(version.updatedAt()), 36) + "\"";
+    }
+
+    public static String of(Long id, LocalDateTime updatedAt) {
+        return of(new EntityVersion(id, updatedAt));
+    }
+
+    /**
+     * Tag of a page of rows: a hash over every row's id and version and whether a next page
+     * exists, so an update, insert or delete of any row on the page changes it.
+     */
+    public static String of(CursorPage<EntityVersion> page) {
+        long hash = FNV_OFFSET;
+        for (EntityVersion version : page.items()) {
+            hash = mix(hash, version.id());
+            hash = mix(hash, micros(version.updatedAt()));
+        }
+        hash = mix(hash, page.next() == null ? 0 : 1);
+        return "\"p" + page.items().size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header value lists the tag, or is {@code *}. As the header
+     * requires, tags compare weakly.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, false));
+    }
+
+    /**
+     * Whether an If-Match header value lists the tag, or is {@code *}. As the header requires,
+     * tags compare strongly, so a weak tag never matches.
+     */
+    public static boolean matchesStrongly(String ifMatch, String etag) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, true));
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static long micros(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return 0L;
+        }
+        return updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,94 @@
+package re.ermix.school_app.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable interval tree over half-open integer intervals {@code [start, end)}. The intervals
+ * are sorted by start and laid out as an implicit balanced tree, with the middle interval of
+ * every range as the root of that range; each node also keeps the largest end in its subtree.
+ * A query skips every subtree that ends before the query starts and every right subtree that
+ * starts after it ends, so finding the k intervals overlapping a query takes O(log n + k).
+ * <p>
+ * Intervals that only touch ({@code a.end == b.start}) do not overlap.
+ */
+public final class IntervalTree<T> {
+
+    public record Interval<T>(int start, int end, T value) {
+
+        public Interval {
+            if (end <= start) {
+                throw new IllegalArgumentException("Interval must end after it starts: [" + start + ", " + end + ")");
+            }
+        }
+    }
+
+    private static final IntervalTree<?> EMPTY = new IntervalTree<>(List.of());
+
+    private final List<Interval<T>> intervals;
+    private final int[] maxEnd;
+
+    private IntervalTree(List<Interval<T>> sortedIntervals) {
+        this.intervals = sortedIntervals;
+        this.maxEnd = new int[sortedIntervals.size()];
+        build(0, sortedIntervals.size());
+    }
+
+    public static <T> IntervalTree<T> of(List<Interval<T>> intervals) {
+        List<Interval<T>> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparingInt(Interval<T>::start).thenComparingInt(Interval::end));
+        return new IntervalTree<>(List.copyOf(sorted));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> IntervalTree<T> empty() {
+        return (IntervalTree<T>) EMPTY;
+    }
+
+    public int size() {
+        return intervals.size();
+    }
+
+    public List<Interval<T>> intervals() {
+        return intervals;
+    }
+
+    /**
+     * Returns the intervals overlapping {@code [start, end)}, ordered by start.
+     */
+    public List<Interval<T>> overlapping(int start, int end) {
+        List<Interval<T>> found = new ArrayList<>();
+        collect(0, intervals.size(), start, end, found);
+        return found;
+    }
+
+    private int build(int from, int to) {
+        if (from >= to) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (from + to) >>> 1;
+        int max = Math.max(intervals.get(mid).end(), Math.max(build(from, mid), build(mid + 1, to)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collect(int from, int to, int start, int end, List<Interval<T>> found) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxEnd[mid] <= start) {
+            return;
+        }
+        collect(from, mid, start, end, found);
+        Interval<T> interval = intervals.get(mid);
+        if (interval.start() >= end) {
+            return;
+        }
+        if (interval.end() > start) {
+            found.add(interval);
+        }
+        collect(mid + 1, to, start, end, found);
+    }
+}
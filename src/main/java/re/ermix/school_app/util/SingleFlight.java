@@ -0,0 +1,76 @@
+package re.ermix.school_app.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the computation and every
+ * caller that arrives while it is running waits for and shares its result, or its exception.
+ * Nothing is kept once the computation finishes, so a call that starts afterwards computes again.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs {@code computation} unless a call for the same key is in flight, in which case it
+     * waits for that call instead. The computation may return null.
+     */
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+        executed.increment();
+        try {
+            V value = computation.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Calls that ran their computation.
+     */
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * Calls that shared the result of a computation already in flight.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlightCount() {
+        return calls.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
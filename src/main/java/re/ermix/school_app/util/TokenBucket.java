@@ -0,0 +1,46 @@
+package re.ermix.school_app.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} tokens and refilled with {@code permits}
+ * tokens per {@code period}. Rather than a token count and a refill time it keeps one
+ * timestamp, the time at which the bucket will be full again (the generic cell rate
+ * algorithm), so taking a token is a single compare-and-set and needs no refill step.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int permits, Duration period, int burst, long nowNanos) {
+        if (permits <= 0 || burst <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Token bucket needs positive permits, period and burst");
+        }
+        this.intervalNanos = Math.max(1, period.toNanos() / permits);
+        this.capacityNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 when a token was taken, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            // The bucket never holds more than its capacity, however long it sat unused
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package re.ermix.school_app.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory substring index over a fixed number of text fields per id. Every three-character
+ * window of a folded field maps to a sorted list of internal document numbers, so a substring
+ * query is answered by intersecting the lists of its trigrams. Fields and queries are folded the
+ * way MySQL's default {@code utf8mb4_0900_ai_ci} collation compares them, ignoring case and
+ * accents, so that "jose" finds "José".
+ * <p>
+ * Results are candidates: every id whose field contains the query is returned, but an id may
+ * also be returned when its field holds all the trigrams without containing the query, so the
+ * caller has to re-check the rows it fetches. Queries shorter than three characters cannot be
+ * resolved and return {@code null}.
+ * <p>
+ * Replacing or removing an id leaves its old document behind as a tombstone; the postings are
+ * compacted once tombstones outnumber live documents.
+ */
+public final class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private static final int MIN_COMPACTION = 1024;
+    private static final long TOMBSTONE = Long.MIN_VALUE;
+
+    private final int fieldCount;
+    private final StampedLock lock = new StampedLock();
+    private final Map<Long, Postings> postingsByGram = new HashMap<>();
+    private final Map<Long, Integer> docsById = new HashMap<>();
+    private long[] idsByDoc = new long[1024];
+    private int docCount;
+    private int liveCount;
+
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * Indexes the field values of an id, replacing what was indexed for it before.
+     */
+    public void put(long id, String... values) {
+        long stamp = lock.writeLock();
+        try {
+            tombstone(id);
+            insert(id, values);
+            compactIfSparse();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Indexes the field values of an id unless it is already indexed.
+     *
+     * @return false when the id was already present
+     */
+    public boolean putIfAbsent(long id, String... values) {
+        long stamp = lock.writeLock();
+        try {
+            if (docsById.containsKey(id)) {
+                return false;
+            }
+            insert(id, values);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            tombstone(id);
+            compactIfSparse();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return liveCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Ids whose every given field may contain the query for that field. Fields with a null or
+     * too short query do not narrow the result.
+     *
+     * @param queries one query per field, in field order
+     * @return ascending candidate ids, or null when no query was long enough to use the index
+     */
+    public long[] matchAll(String... queries) {
+        long[] keys = new long[0];
+        for (int field = 0; field < fieldCount && field < queries.length; field++) {
+            long[] fieldKeys = keys(field, queries[field]);
+            int offset = keys.length;
+            keys = Arrays.copyOf(keys, offset + fieldKeys.length);
+            System.arraycopy(fieldKeys, 0, keys, offset, fieldKeys.length);
+        }
+        return keys.length == 0 ? null : lookup(keys);
+    }
+
+    /**
+     * Ids with at least one field that may contain the query.
+     *
+     * @return ascending candidate ids, or null when the query is too short to use the index
+     */
+    public long[] matchAny(String query) {
+        if (query == null || fold(query).length() < GRAM) {
+            return null;
+        }
+        long[] union = new long[0];
+        for (int field = 0; field < fieldCount; field++) {
+            union = union(union, lookup(keys(field, query)));
+        }
+        return union;
+    }
+
+    private static long[] keys(int field, String query) {
+        if (query == null) {
+            return new long[0];
+        }
+        String normalized = fold(query);
+        if (normalized.length() < GRAM) {
+            return new long[0];
+        }
+        long[] keys = new long[normalized.length() - GRAM + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(field, normalized, i);
+        }
+        return keys;
+    }
+
+    private long[] lookup(long[] keys) {
+        long stamp = lock.readLock();
+        try {
+            List<Postings> lists = new ArrayList<>(keys.length);
+            for (long key : keys) {
+                Postings postings = postingsByGram.get(key);
+                if (postings == null) {
+                    return new long[0];
+                }
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+            int[] docs = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+            int size = docs.length;
+            for (int i = 1; i < lists.size() && size > 0; i++) {
+                size = intersect(docs, size, lists.get(i));
+            }
+            long[] ids = new long[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                long id = idsByDoc[docs[i]];
+                if (id != TOMBSTONE) {
+                    ids[count++] = id;
+                }
+            }
+            long[] result = Arrays.copyOf(ids, count);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void insert(long id, String... values) {
+        if (values.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields but got " + values.length);
+        }
+        int doc = docCount++;
+        if (doc == idsByDoc.length) {
+            idsByDoc = Arrays.copyOf(idsByDoc, doc * 2);
+        }
+        idsByDoc[doc] = id;
+        docsById.put(id, doc);
+        liveCount++;
+        for (int field = 0; field < fieldCount; field++) {
+            String value = values[field];
+            if (value == null) {
+                continue;
+            }
+            String normalized = fold(value);
+            for (int i = 0; i + GRAM <= normalized.length(); i++) {
+                postingsByGram.computeIfAbsent(key(field, normalized, i), k -> new Postings()).add(doc);
+            }
+        }
+    }
+
+    private void tombstone(long id) {
+        Integer doc = docsById.remove(id);
+        if (doc != null) {
+            idsByDoc[doc] = TOMBSTONE;
+            liveCount--;
+        }
+    }
+
+    private void compactIfSparse() {
+        int dead = docCount - liveCount;
+        if (dead < MIN_COMPACTION || dead <= liveCount) {
+            return;
+        }
+        int[] renumbered = new int[docCount];
+        long[] ids = new long[Math.max(1024, liveCount * 2)];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (idsByDoc[doc] == TOMBSTONE) {
+                renumbered[doc] = -1;
+            } else {
+                renumbered[doc] = next;
+                ids[next] = idsByDoc[doc];
+                docsById.put(ids[next], next);
+                next++;
+            }
+        }
+        postingsByGram.values().removeIf(postings -> postings.renumber(renumbered) == 0);
+        idsByDoc = ids;
+        docCount = next;
+    }
+
+    /**
+     * Lower-cases the text and strips its accents: decomposed combining marks, and the letters
+     * the collation also treats as their base letters although they do not decompose.
+     */
+    private static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            switch (Character.toLowerCase(c)) {
+                case 'ß' -> folded.append("ss");
+                case 'æ' -> folded.append("ae");
+                case 'œ' -> folded.append("oe");
+                case 'ø' -> folded.append('o');
+                case 'đ' -> folded.append('d');
+                case 'ł' -> folded.append('l');
+                case 'ı' -> folded.append('i');
+                default -> folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    private static long key(int field, String text, int offset) {
+        return (long) field << 48
+                | (long) text.charAt(offset) << 32
+                | (long) text.charAt(offset + 1) << 16
+                | text.charAt(offset + 2);
+    }
+
+    /**
+     * Keeps the docs present in both, in place; both are ascending.
+     */
+    private static int intersect(int[] docs, int size, Postings other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            int doc = docs[i];
+            while (j < other.size && other.docs[j] < doc) {
+                j++;
+            }
+            if (j < other.size && other.docs[j] == doc) {
+                docs[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    private static long[] union(long[] left, long[] right) {
+        long[] merged = new long[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < left.length || j < right.length) {
+            long next;
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                next = left[i++];
+            } else if (i == left.length || right[j] < left[i]) {
+                next = right[j++];
+            } else {
+                next = left[i++];
+                j++;
+            }
+            merged[count++] = next;
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * Ascending, duplicate-free document numbers. Documents are only ever appended with a
+     * higher number than any before, so adding keeps the order.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        private void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        private int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept++] = doc;
+                }
+            }
+            size = kept;
+            if (docs.length > 4 * Math.max(4, size)) {
+                docs = Arrays.copyOf(docs, Math.max(4, size));
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Optimistic locking: every update checks and increments the row's version, so concurrent
+-- updates of the same row are detected instead of the last one silently winning.
+ALTER TABLE courses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE enrollments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE grades ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,18 @@
+-- Responses of POST requests sent with an Idempotency-Key header, replayed when the same key is
+-- sent again. A key is claimed by inserting its row in the request's transaction, so a
+-- concurrent retry waits on the primary key and then reads the committed response.
+CREATE TABLE idempotency_keys (
+    scope ENUM('ENROLLMENT', 'GRADE') NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    -- SHA-256 of the request parameters; the same key with other parameters is rejected
+    request_hash VARCHAR(64) NOT NULL,
+    -- NULL until the request's response is stored, just before it commits
+    status INT,
+    location VARCHAR(2048),
+    body TEXT,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+-- Expiry cleanup
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,13 @@
+-- Change feed offsets are now assigned just before commit from this single row instead of by
+-- AUTO_INCREMENT at insert. Updating the row locks it until the transaction commits, so offsets
+-- follow commit order: a change never becomes visible after one with a higher offset, and the
+-- offsets of a transaction that rolls back are handed out again.
+CREATE TABLE change_sequence (
+    id INT PRIMARY KEY,
+    last_offset BIGINT NOT NULL
+);
+
+INSERT INTO change_sequence (id, last_offset)
+SELECT 1, COALESCE(MAX(id), 0) FROM change_events;
+
+ALTER TABLE change_events MODIFY id BIGINT NOT NULL;
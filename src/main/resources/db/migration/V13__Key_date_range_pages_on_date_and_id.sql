@@ -0,0 +1,10 @@
+-- The date range keyset pages are ordered by (date, id) so that they read the date index in order
+-- instead of sorting every row of the range by id. InnoDB would append the id anyway, but it is
+-- spelled out since that ordering is now the point of these indexes.
+ALTER TABLE enrollments
+    DROP INDEX idx_enrollments_enrollment_date,
+    ADD INDEX idx_enrollments_enrollment_date_id (enrollment_date, id);
+
+ALTER TABLE grades
+    DROP INDEX idx_grades_date_recorded,
+    ADD INDEX idx_grades_date_recorded_id (date_recorded, id);
@@ -0,0 +1,4 @@
+-- Name searches served by the in-memory index also fetch the rows updated since it was last
+-- rebuilt, which may be missing from it
+CREATE INDEX idx_students_updated_at ON students (updated_at);
+CREATE INDEX idx_teachers_updated_at ON teachers (updated_at);
@@ -0,0 +1,3 @@
+-- POST /grades/bulk takes an Idempotency-Key too, in a scope of its own
+ALTER TABLE idempotency_keys
+    MODIFY scope ENUM('ENROLLMENT', 'GRADE', 'GRADE_BULK') NOT NULL;
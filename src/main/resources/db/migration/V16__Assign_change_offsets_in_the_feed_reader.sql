@@ -0,0 +1,12 @@
+-- Writers now insert outbox rows without an offset, so concurrent commits no longer queue on the
+-- change_sequence row. The change feed reader numbers the committed rows afterwards, holding that
+-- row's lock, into feed_offset; id is AUTO_INCREMENT again and only orders the inserts.
+ALTER TABLE change_events
+    ADD COLUMN feed_offset BIGINT NULL;
+
+UPDATE change_events SET feed_offset = id;
+
+-- The unique index also finds the rows still to number (feed_offset IS NULL, by id)
+ALTER TABLE change_events
+    MODIFY id BIGINT NOT NULL AUTO_INCREMENT,
+    ADD CONSTRAINT uk_change_events_feed_offset UNIQUE (feed_offset);
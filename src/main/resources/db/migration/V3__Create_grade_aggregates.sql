@@ -0,0 +1,28 @@
+-- Running sum and count of grade values per enrollment, student and course,
+-- maintained by GradeService so averages are a primary-key lookup
+CREATE TABLE grade_aggregates (
+    scope ENUM('ENROLLMENT', 'STUDENT', 'COURSE') NOT NULL,
+    scope_id BIGINT NOT NULL,
+    grade_sum DECIMAL(15,2) NOT NULL DEFAULT 0,
+    grade_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (scope, scope_id)
+);
+
+-- Backfill aggregates for existing grades
+INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count)
+SELECT 'ENROLLMENT', g.enrollment_id, SUM(g.grade_value), COUNT(*)
+FROM grades g
+GROUP BY g.enrollment_id;
+
+INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count)
+SELECT 'STUDENT', e.student_id, SUM(g.grade_value), COUNT(*)
+FROM grades g
+JOIN enrollments e ON e.id = g.enrollment_id
+GROUP BY e.student_id;
+
+INSERT INTO grade_aggregates (scope, scope_id, grade_sum, grade_count)
+SELECT 'COURSE', e.course_id, SUM(g.grade_value), COUNT(*)
+FROM grades g
+JOIN enrollments e ON e.id = g.enrollment_id
+GROUP BY e.course_id;
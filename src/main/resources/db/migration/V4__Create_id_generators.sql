@@ -0,0 +1,20 @@
+-- Entity ids are handed out by Hibernate in blocks of 50 from this table (pooled optimizer),
+-- so an insert no longer has to return its generated key and can be JDBC-batched.
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+-- next_val is the upper bound of the next block to hand out; starting 50 past the current
+-- maximum keeps the first block clear of existing rows. AUTO_INCREMENT stays on the id
+-- columns, but manual inserts that rely on it can collide with blocks already reserved.
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'students', COALESCE(MAX(id), 0) + 51 FROM students
+UNION ALL
+SELECT 'teachers', COALESCE(MAX(id), 0) + 51 FROM teachers
+UNION ALL
+SELECT 'courses', COALESCE(MAX(id), 0) + 51 FROM courses
+UNION ALL
+SELECT 'enrollments', COALESCE(MAX(id), 0) + 51 FROM enrollments
+UNION ALL
+SELECT 'grades', COALESCE(MAX(id), 0) + 51 FROM grades;
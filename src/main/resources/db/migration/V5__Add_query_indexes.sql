@@ -0,0 +1,37 @@
+-- Secondary indexes for the repository queries. InnoDB appends the primary key to every
+-- secondary index, so an index on (col) already serves "WHERE col = ? AND id > ? ORDER BY id"
+-- keyset pages; the id column is spelled out where that ordering is the point of the index.
+
+-- Students: findByLastName, findByFirstNameAndLastName, findByEnrollmentDate, findByDateOfBirthBetween
+CREATE INDEX idx_students_last_name_first_name ON students (last_name, first_name);
+CREATE INDEX idx_students_enrollment_date ON students (enrollment_date);
+CREATE INDEX idx_students_date_of_birth ON students (date_of_birth);
+
+-- Teachers: findByLastName, findByFirstNameAndLastName, findBySubjectSpecialty (also the course
+-- join in findByTeacherSpecialty), findByHireDateAfter
+CREATE INDEX idx_teachers_last_name_first_name ON teachers (last_name, first_name);
+CREATE INDEX idx_teachers_subject_specialty ON teachers (subject_specialty);
+CREATE INDEX idx_teachers_hire_date ON teachers (hire_date);
+
+-- Courses: findByTitle, findByCredits (teacher_id already has its foreign key index)
+CREATE INDEX idx_courses_title ON courses (title);
+CREATE INDEX idx_courses_credits ON courses (credits);
+
+-- Enrollments by course and status: countActiveByCourseId, findByCourseIdAndStatus, the seat
+-- subquery of findCoursesWithAvailableSeats. Its course_id prefix also serves findByCourseId and
+-- the course_id foreign key, so MySQL drops the implicit foreign key index.
+-- Lookups by student go through the (student_id, course_id) unique key.
+CREATE INDEX idx_enrollments_course_status ON enrollments (course_id, status);
+-- findByStatus and its keyset page
+CREATE INDEX idx_enrollments_status_id ON enrollments (status, id);
+-- findByEnrollmentDateBetween and its keyset page
+CREATE INDEX idx_enrollments_enrollment_date ON enrollments (enrollment_date);
+
+-- Grades reached through an enrollment (findByEnrollmentId, the student and course joins) and
+-- their averages read grade_value from the index without touching the rows; this replaces the
+-- implicit enrollment_id foreign key index
+CREATE INDEX idx_grades_enrollment_value ON grades (enrollment_id, grade_value);
+-- findByGradeType and its keyset page
+CREATE INDEX idx_grades_grade_type_id ON grades (grade_type, id);
+-- findByDateRecordedBetween and its keyset page
+CREATE INDEX idx_grades_date_recorded ON grades (date_recorded);
@@ -0,0 +1,14 @@
+-- Transactional outbox: every enrollment and grade change writes a row here in the same
+-- transaction. The auto-increment id is the offset consumers of the change feed resume from.
+CREATE TABLE change_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity ENUM('ENROLLMENT', 'GRADE') NOT NULL,
+    entity_id BIGINT NOT NULL,
+    change_type ENUM('CREATED', 'UPDATED', 'DELETED') NOT NULL,
+    -- The entity as returned by the API after the change; NULL for deletions
+    payload TEXT,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+-- Retention cleanup
+CREATE INDEX idx_change_events_created_at ON change_events (created_at);
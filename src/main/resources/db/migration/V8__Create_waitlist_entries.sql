@@ -0,0 +1,15 @@
+-- Students waiting for a seat in a full course. When a seat is freed the entry with the highest
+-- priority, and then the earliest request, is turned into an enrollment.
+CREATE TABLE waitlist_entries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    course_id BIGINT NOT NULL,
+    priority INT NOT NULL DEFAULT 0,
+    requested_at TIMESTAMP(6) NOT NULL,
+    FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    UNIQUE KEY unique_waitlist_entry (student_id, course_id)
+);
+
+-- Seeding a course's in-memory queue; also serves the course_id foreign key
+CREATE INDEX idx_waitlist_entries_course ON waitlist_entries (course_id);
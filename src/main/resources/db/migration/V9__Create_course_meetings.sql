@@ -0,0 +1,12 @@
+-- Weekly meeting times of a course; enrollments into courses whose meetings overlap are rejected
+CREATE TABLE course_meetings (
+    course_id BIGINT NOT NULL,
+    day_of_week ENUM('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY') NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    CHECK (end_time > start_time)
+);
+
+-- Loading the meetings of a course, and of a student's enrolled courses
+CREATE INDEX idx_course_meetings_course ON course_meetings (course_id);
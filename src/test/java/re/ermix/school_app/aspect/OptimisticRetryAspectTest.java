@@ -0,0 +1,119 @@
+package re.ermix.school_app.aspect;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OptimisticRetryAspectTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ContendedService target;
+
+    private ContendedService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new ContendedService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new OptimisticRetryAspect(meterRegistry));
+        service = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void conflict_ShouldBeRetriedUntilTheCallSucceeds() {
+        // Given
+        target.conflicts = 2;
+
+        // When
+        String result = service.update();
+
+        // Then
+        assertThat(result).isEqualTo("updated");
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(conflicts("retried")).isEqualTo(2);
+        DistributionSummary attempts = meterRegistry.get(OptimisticRetryAspect.ATTEMPTS_METRIC)
+                .tag("method", "update").summary();
+        assertThat(attempts.count()).isEqualTo(1);
+        assertThat(attempts.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void conflict_WhenAttemptsAreExhausted_ShouldRethrow() {
+        // Given
+        target.conflicts = 5;
+
+        // When / Then
+        assertThatThrownBy(() -> service.update())
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(conflicts("retried")).isEqualTo(2);
+        assertThat(conflicts("exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void otherExceptions_ShouldNotBeRetried() {
+        // When / Then
+        assertThatThrownBy(() -> service.fail())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(target.calls).isEqualTo(1);
+    }
+
+    @Test
+    void conflict_InsideTheCallersTransaction_ShouldNotBeRetried() {
+        // Given
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When / Then
+        assertThatThrownBy(() -> service.update())
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(1);
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.get(OptimisticRetryAspect.CONFLICTS_METRIC)
+                .tag("service", "ContendedService")
+                .tag("method", "update")
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    static class ContendedService {
+
+        int conflicts;
+        int calls;
+
+        @OptimisticRetry(backoffMillis = 1, maxBackoffMillis = 2)
+        public String update() {
+            calls++;
+            if (conflicts-- > 0) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "updated";
+        }
+
+        @OptimisticRetry
+        public String fail() {
+            calls++;
+            throw new IllegalStateException("Not a conflict");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package re.ermix.school_app.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import re.ermix.school_app.model.Teacher;
+import re.ermix.school_app.repository.TeacherRepository;
+import re.ermix.school_app.service.BatchInserter;
+import re.ermix.school_app.service.NameSearchIndex;
+import re.ermix.school_app.service.TeacherService;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ServiceMetricsAspectTest {
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private BatchInserter batchInserter;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    private MeterRegistry meterRegistry;
+
+    private TeacherService teacherService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        TeacherService target = new TeacherService(teacherRepository, batchInserter, nameSearchIndex);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        teacherService = factory.getProxy();
+    }
+
+    @Test
+    void serviceCall_ShouldRecordSuccessfulInvocation() {
+        // Given
+        when(teacherRepository.findById(1L)).thenReturn(Optional.of(new Teacher()));
+
+        // When
+        teacherService.getTeacherById(1L);
+        teacherService.getTeacherById(1L);
+
+        // Then
+        Timer timer = meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("service", "TeacherService")
+                .tag("method", "getTeacherById")
+                .tag("outcome", "SUCCESS")
+                .tag("exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void serviceCall_WhenItThrows_ShouldRecordErrorAndRethrow() {
+        // Given
+        when(teacherRepository.findById(1L)).thenThrow(new IllegalStateException("Connection lost"));
+
+        // When / Then
+        assertThatThrownBy(() -> teacherService.getTeacherById(1L))
+                .isInstanceOf(IllegalStateException.class);
+        Timer timer = meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("method", "getTeacherById")
+                .tag("outcome", "ERROR")
+                .tag("exception", "IllegalStateException")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
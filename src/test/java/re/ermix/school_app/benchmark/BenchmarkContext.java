@@ -0,0 +1,24 @@
+package re.ermix.school_app.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import re.ermix.school_app.SchoolAppApplication;
+
+/**
+ * Starts the application without the web layer on the embedded H2 database configured in
+ * application-benchmark.yml, for benchmarks that need repositories or services.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(SchoolAppApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+    }
+}
@@ -0,0 +1,66 @@
+package re.ermix.school_app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import re.ermix.school_app.dto.ImportReport;
+import re.ermix.school_app.enums.ImportStateEnum;
+import re.ermix.school_app.service.CsvImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock time of importing a student CSV file end to end, from upload to the finished
+ * report, on the embedded database. Every run imports fresh emails so no row is a duplicate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvImportBenchmark {
+
+    @Param({"100000"})
+    public int rowCount;
+
+    private ConfigurableApplicationContext context;
+    private CsvImportService csvImportService;
+    private int run;
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        csvImportService = context.getBean(CsvImportService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void generateFile() {
+        run++;
+        StringBuilder builder = new StringBuilder(rowCount * 96)
+                .append("firstName,lastName,email,dateOfBirth,address,phoneNumber,enrollmentDate\n");
+        for (int i = 0; i < rowCount; i++) {
+            builder.append("First").append(i).append(",Last").append(i)
+                    .append(",student").append(run).append('.').append(i).append("@example.com")
+                    .append(",2005-03-15,\"1 Main St, Springfield\",555-0100,2023-09-01\n");
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportReport importStudents() throws Exception {
+        ImportReport report = csvImportService.importStudents(new ByteArrayInputStream(csv));
+        while (report.state() == ImportStateEnum.RUNNING) {
+            Thread.sleep(10);
+            report = csvImportService.getReport(report.id()).orElseThrow();
+        }
+        if (report.rowsImported() != rowCount) {
+            throw new IllegalStateException("Imported " + report.rowsImported() + " of " + rowCount + ": " + report);
+        }
+        return report;
+    }
+}
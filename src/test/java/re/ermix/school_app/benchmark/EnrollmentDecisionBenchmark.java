@@ -0,0 +1,131 @@
+package re.ermix.school_app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.CourseRepository;
+import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.service.CourseFullException;
+import re.ermix.school_app.service.EnrollmentService;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of the enrollment decisions in {@link EnrollmentService}, including the
+ * transaction and the embedded database round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnrollmentDecisionBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentService enrollmentService;
+
+    private Long firstStudentId;
+    private Long secondStudentId;
+    private Long waitlistedStudentId;
+    private Long openCourseId;
+    private Long fullCourseId;
+    private Long enrollmentId;
+    private Long droppedEnrollmentId;
+    private boolean active;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        enrollmentService = context.getBean(EnrollmentService.class);
+        StudentRepository studentRepository = context.getBean(StudentRepository.class);
+        CourseRepository courseRepository = context.getBean(CourseRepository.class);
+
+        firstStudentId = studentRepository.save(student("first")).getId();
+        secondStudentId = studentRepository.save(student("second")).getId();
+        waitlistedStudentId = studentRepository.save(student("waitlisted")).getId();
+        openCourseId = courseRepository.save(course("BENCH101", 1000)).getId();
+        fullCourseId = courseRepository.save(course("BENCH102", 1)).getId();
+
+        Enrollment enrollment = enrollmentService.enrollStudentInCourse(firstStudentId, openCourseId, LocalDate.now());
+        enrollmentId = enrollment.getId();
+        active = true;
+        // The second student drops the seat of the full course, which the first student then takes
+        droppedEnrollmentId = enrollmentService.enrollStudentInCourse(secondStudentId, fullCourseId, LocalDate.now())
+                .getId();
+        enrollmentService.updateEnrollmentStatus(droppedEnrollmentId, EnrollmentStatusEnum.DROPPED);
+        enrollmentService.enrollStudentInCourse(firstStudentId, fullCourseId, LocalDate.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Enrollment toggleEnrollmentStatus() {
+        active = !active;
+        return enrollmentService.updateEnrollmentStatus(enrollmentId,
+                active ? EnrollmentStatusEnum.ACTIVE : EnrollmentStatusEnum.DROPPED);
+    }
+
+    /**
+     * Enrolling in a full course puts the student on its waitlist instead, and commits that; after
+     * the first call it finds the entry already there.
+     */
+    @Benchmark
+    public WaitlistEntryResponse joinWaitlistWhenCourseFull() {
+        try {
+            enrollmentService.enrollStudentInCourse(waitlistedStudentId, fullCourseId, LocalDate.now());
+        } catch (CourseFullException e) {
+            return e.getWaitlistEntry();
+        }
+        throw new IllegalStateException("Student " + waitlistedStudentId + " was enrolled in the full course");
+    }
+
+    @Benchmark
+    public String rejectReactivationWhenCourseFull() {
+        return rejection("Course is full and cannot accept more students",
+                () -> enrollmentService.updateEnrollmentStatus(droppedEnrollmentId, EnrollmentStatusEnum.ACTIVE));
+    }
+
+    @Benchmark
+    public String rejectWhenAlreadyEnrolled() {
+        return rejection("Student is already enrolled in this course",
+                () -> enrollmentService.enrollStudentInCourse(firstStudentId, fullCourseId, LocalDate.now()));
+    }
+
+    // Fails the benchmark unless the decision is rejected with the expected reason
+    private static String rejection(String expectedMessage, Runnable decision) {
+        try {
+            decision.run();
+        } catch (IllegalStateException e) {
+            if (!(e instanceof CourseFullException) && expectedMessage.equals(e.getMessage())) {
+                return e.getMessage();
+            }
+            throw new IllegalStateException("Expected rejection \"" + expectedMessage + "\"", e);
+        }
+        throw new IllegalStateException("Expected rejection \"" + expectedMessage + "\" but it was accepted");
+    }
+
+    private static Student student(String name) {
+        Student student = new Student();
+        student.setFirstName(name);
+        student.setLastName("Benchmark");
+        student.setEmail(name + ".benchmark@example.com");
+        student.setDateOfBirth(LocalDate.of(2000, 1, 1));
+        student.setEnrollmentDate(LocalDate.of(2022, 9, 1));
+        return student;
+    }
+
+    private static Course course(String code, int maxStudents) {
+        Course course = new Course();
+        course.setCourseCode(code);
+        course.setTitle("Benchmark " + code);
+        course.setCredits(3);
+        course.setMaxStudents(maxStudents);
+        return course;
+    }
+}
@@ -0,0 +1,72 @@
+package re.ermix.school_app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import re.ermix.school_app.model.GradeAggregate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal work behind a grade average: summing the grade values in memory versus
+ * dividing a maintained sum and count, as {@link GradeAggregate#average()} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GradeAverageBenchmark {
+
+    @Param({"10", "1000"})
+    public int gradeCount;
+
+    private List<BigDecimal> gradeValues;
+    private GradeAggregate aggregate;
+    private BigDecimal delta;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        gradeValues = new ArrayList<>(gradeCount);
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < gradeCount; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(0, 10001), 2);
+            gradeValues.add(value);
+            sum = sum.add(value);
+        }
+        aggregate = new GradeAggregate();
+        aggregate.setGradeSum(sum);
+        aggregate.setGradeCount((long) gradeCount);
+        delta = new BigDecimal("4.50");
+    }
+
+    @Benchmark
+    public BigDecimal averageFromValues() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal value : gradeValues) {
+            sum = sum.add(value);
+        }
+        return sum.divide(BigDecimal.valueOf(gradeValues.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal averageFromValuesStream() {
+        return gradeValues.stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .divide(BigDecimal.valueOf(gradeValues.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal averageFromAggregate() {
+        return aggregate.average();
+    }
+
+    @Benchmark
+    public BigDecimal applyDeltaThenAverage() {
+        // What a grade update costs in memory: adjust the sum, then read the new average
+        BigDecimal sum = aggregate.getGradeSum().add(delta);
+        return sum.divide(BigDecimal.valueOf(aggregate.getGradeCount()), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,149 @@
+package re.ermix.school_app.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import re.ermix.school_app.dto.EnrollmentResponse;
+import re.ermix.school_app.dto.GradeResponse;
+import re.ermix.school_app.dto.StudentResponse;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.enums.GradeTypeEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Grade;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.Teacher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a student's entity graph (student, enrollments, courses, teachers and
+ * grades) next to the flat response records the API returns for the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"5", "40"})
+    public int enrollmentCount;
+
+    private static final int GRADES_PER_ENROLLMENT = 5;
+
+    private ObjectMapper objectMapper;
+
+    private Student student;
+    private List<Enrollment> enrollments;
+    private List<Grade> grades;
+
+    private StudentResponse studentResponse;
+    private List<EnrollmentResponse> enrollmentResponses;
+    private List<GradeResponse> gradeResponses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Same settings as spring.jackson in application.yml
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .failOnEmptyBeans(false)
+                .simpleDateFormat("yyyy-MM-dd")
+                .timeZone("UTC")
+                .build();
+
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        teacher.setFirstName("Robert");
+        teacher.setLastName("Anderson");
+        teacher.setEmail("r.anderson@school.edu");
+        teacher.setHireDate(LocalDate.of(2018, 8, 15));
+        teacher.setSubjectSpecialty("Mathematics");
+        teacher.setCreatedAt(LocalDateTime.now());
+        teacher.setUpdatedAt(LocalDateTime.now());
+
+        student = new Student();
+        student.setId(1L);
+        student.setFirstName("John");
+        student.setLastName("Doe");
+        student.setEmail("john.doe@example.com");
+        student.setDateOfBirth(LocalDate.of(2000, 5, 15));
+        student.setAddress("123 Main St, Anytown");
+        student.setPhoneNumber("555-123-4567");
+        student.setEnrollmentDate(LocalDate.of(2022, 9, 1));
+        student.setEnrollments(new HashSet<>());
+        student.setCreatedAt(LocalDateTime.now());
+        student.setUpdatedAt(LocalDateTime.now());
+
+        enrollments = new ArrayList<>();
+        grades = new ArrayList<>();
+        for (int i = 0; i < enrollmentCount; i++) {
+            Course course = new Course();
+            course.setId((long) i);
+            course.setCourseCode("CS" + (100 + i));
+            course.setTitle("Course " + i);
+            course.setDescription("Introduction to programming concepts and problem-solving.");
+            course.setCredits(4);
+            course.setMaxStudents(30);
+            course.setTeacher(teacher);
+
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId((long) i);
+            enrollment.setCourse(course);
+            enrollment.setEnrollmentDate(LocalDate.of(2022, 9, 1));
+            enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+            student.addEnrollment(enrollment);
+            enrollments.add(enrollment);
+
+            for (int g = 0; g < GRADES_PER_ENROLLMENT; g++) {
+                Grade grade = new Grade();
+                grade.setId((long) i * GRADES_PER_ENROLLMENT + g);
+                grade.setEnrollment(enrollment);
+                grade.setGradeValue(new BigDecimal("85.50").add(BigDecimal.valueOf(g)));
+                grade.setGradeType(GradeTypeEnum.values()[g % GradeTypeEnum.values().length]);
+                grade.setComment("Good work");
+                grade.setDateRecorded(LocalDate.of(2022, 10, 1 + g));
+                enrollment.getGrades().add(grade);
+                grades.add(grade);
+            }
+        }
+
+        studentResponse = StudentResponse.from(student);
+        enrollmentResponses = enrollments.stream().map(EnrollmentResponse::from).toList();
+        gradeResponses = grades.stream().map(GradeResponse::from).toList();
+    }
+
+    @Benchmark
+    public byte[] studentEntityGraph() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public byte[] enrollmentEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(enrollments);
+    }
+
+    @Benchmark
+    public byte[] gradeEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(grades);
+    }
+
+    @Benchmark
+    public byte[] studentResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(studentResponse);
+    }
+
+    @Benchmark
+    public byte[] enrollmentResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(enrollmentResponses);
+    }
+
+    @Benchmark
+    public byte[] gradeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gradeResponses);
+    }
+}
@@ -0,0 +1,73 @@
+package re.ermix.school_app.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.StudentSearchCriteria;
+import re.ermix.school_app.specification.StudentSpecification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning search criteria into a JPA predicate, without executing the query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StudentSpecificationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private CriteriaBuilder criteriaBuilder;
+
+    private StudentSearchCriteria nameCriteria;
+    private StudentSearchCriteria allCriteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        nameCriteria = new StudentSearchCriteria();
+        nameCriteria.setLastName("Smith");
+
+        allCriteria = new StudentSearchCriteria();
+        allCriteria.setEmail("jane.smith@example.com");
+        allCriteria.setFirstName("Jane");
+        allCriteria.setLastName("Smith");
+        allCriteria.setEnrollmentDate(LocalDate.of(2022, 9, 1));
+        allCriteria.setDateOfBirthStart(LocalDate.of(2000, 1, 1));
+        allCriteria.setDateOfBirthEnd(LocalDate.of(2002, 12, 31));
+        allCriteria.setCourseId(1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Predicate lastNameOnly() {
+        return toPredicate(nameCriteria);
+    }
+
+    @Benchmark
+    public Predicate allCriteriaWithCourseJoin() {
+        return toPredicate(allCriteria);
+    }
+
+    private Predicate toPredicate(StudentSearchCriteria criteria) {
+        CriteriaQuery<Student> query = criteriaBuilder.createQuery(Student.class);
+        Root<Student> root = query.from(Student.class);
+        return StudentSpecification.buildSpecification(criteria).toPredicate(root, query, criteriaBuilder);
+    }
+}
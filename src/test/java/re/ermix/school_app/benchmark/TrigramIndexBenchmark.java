@@ -0,0 +1,60 @@
+package re.ermix.school_app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import re.ermix.school_app.util.TrigramIndex;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substring lookups in the name search index over a synthetic student population.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrigramIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "an", "ber", "cha", "dor", "el", "fin", "gar", "hol", "is", "jo", "kel", "lin", "mar",
+            "nor", "os", "pet", "quin", "ros", "sam", "tor", "ul", "val", "wen", "xan", "yor", "zel"
+    };
+
+    @Param({"1000000"})
+    public int students;
+
+    private TrigramIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new TrigramIndex(3);
+        for (long id = 1; id <= students; id++) {
+            String firstName = name(random, 2);
+            String lastName = name(random, 3);
+            index.put(id, firstName, lastName, firstName + "." + lastName + id + "@example.com");
+        }
+    }
+
+    @Benchmark
+    public long[] selectiveLastName() {
+        return index.matchAll(null, "quinrosval", null);
+    }
+
+    @Benchmark
+    public long[] firstAndLastName() {
+        return index.matchAll("marjo", "torul", null);
+    }
+
+    @Benchmark
+    public long[] anyFieldOfTeacherStyleQuery() {
+        return index.matchAny("zelwen");
+    }
+
+    private static String name(Random random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
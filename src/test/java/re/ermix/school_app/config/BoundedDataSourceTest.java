@@ -0,0 +1,117 @@
+package re.ermix.school_app.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BoundedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection targetConnection;
+
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new BoundedDataSource(targetDataSource, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_ShouldHoldPermitUntilClosed() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(targetConnection);
+        connection.close();
+        connection.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+        verify(targetConnection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_ShouldDelegateOtherCalls() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        when(targetConnection.getAutoCommit()).thenReturn(true);
+
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertThat(connection.getAutoCommit()).isTrue();
+    }
+
+    @Test
+    void getConnection_WhenAllPermitsHeld_ShouldTimeOut() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // When / Then
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("All 2 connections in use");
+        verify(targetDataSource, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_WhenTargetFails_ShouldReturnPermit() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When / Then
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void queueLength_ShouldCountCallersWaitingForAPermit() throws Exception {
+        // Given
+        BoundedDataSource waiting = new BoundedDataSource(targetDataSource, 1, Duration.ofSeconds(10));
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        Connection held = waiting.getConnection();
+        Thread caller = Thread.ofVirtual().start(() -> {
+            try {
+                waiting.getConnection().close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // When
+        while (waiting.queueLength() == 0) {
+            Thread.onSpinWait();
+        }
+        int queued = waiting.queueLength();
+        held.close();
+        caller.join();
+
+        // Then
+        assertThat(queued).isEqualTo(1);
+        assertThat(waiting.queueLength()).isZero();
+        assertThat(waiting.availablePermits()).isEqualTo(1);
+    }
+}
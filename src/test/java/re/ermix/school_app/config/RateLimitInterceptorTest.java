@@ -0,0 +1,133 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = interceptor("X-Client-Id");
+    }
+
+    @Test
+    void preHandle_WhenTheBucketIsEmpty_ShouldAnswerTooManyRequests() {
+        // Given
+        assertThat(handle(request("GET", "/students", "a")).getStatus()).isEqualTo(200);
+        assertThat(handle(request("GET", "/students", "a")).getStatus()).isEqualTo(200);
+
+        // When
+        MockHttpServletResponse response = handle(request("GET", "/students", "a"));
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+        assertThat(count("lists", "allowed")).isEqualTo(2);
+        assertThat(count("lists", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void preHandle_ShouldKeepABucketPerClient() {
+        // Given
+        handle(request("GET", "/students", "a"));
+        handle(request("GET", "/students", "a"));
+
+        // When
+        MockHttpServletResponse other = handle(request("GET", "/students", "b"));
+        MockHttpServletResponse anonymous = handle(request("GET", "/students", null));
+
+        // Then
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(anonymous.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void preHandle_WithoutAClientHeader_ShouldIgnoreTheHeaderAClientSends() {
+        // Given
+        interceptor = interceptor(null);
+        handle(request("GET", "/students", "a"));
+        handle(request("GET", "/students", "b"));
+
+        // When
+        MockHttpServletResponse rotated = handle(request("GET", "/students", "c"));
+        MockHttpServletRequest otherAddress = request("GET", "/students", "c");
+        otherAddress.setRemoteAddr("10.0.0.2");
+
+        // Then
+        assertThat(rotated.getStatus()).isEqualTo(429);
+        assertThat(handle(otherAddress).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void preHandle_ShouldKeepABucketPerEndpointOfARoute() {
+        // Given
+        MockHttpServletRequest student = request("GET", "/grades/student/1/average", "a");
+        student.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/grades/student/{studentId}/average");
+        MockHttpServletRequest course = request("GET", "/grades/course/1/average", "a");
+        course.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/grades/course/{courseId}/average");
+        MockHttpServletRequest anotherStudent = request("GET", "/grades/student/2/average", "a");
+        anotherStudent.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/grades/student/{studentId}/average");
+
+        // When / Then
+        assertThat(handle(student).getStatus()).isEqualTo(200);
+        assertThat(handle(course).getStatus()).isEqualTo(200);
+        assertThat(handle(anotherStudent).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void preHandle_ShouldNotLimitOtherPathsOrMethods() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThat(handle(request("POST", "/students", "a")).getStatus()).isEqualTo(200);
+            assertThat(handle(request("GET", "/students/1", "a")).getStatus()).isEqualTo(200);
+        }
+
+        // Then
+        assertThat(count("lists", "allowed")).isZero();
+    }
+
+    private RateLimitInterceptor interceptor(String clientHeader) {
+        RateLimitProperties properties = new RateLimitProperties(true, clientHeader, 1000, Duration.ofMinutes(10),
+                Map.of(
+                        "lists", new RateLimitProperties.Route(List.of("/students"), List.of("GET"), 1,
+                                Duration.ofMinutes(1), 2),
+                        "grade-averages", new RateLimitProperties.Route(List.of("/grades/*/*/average"),
+                                List.of("get"), 1, Duration.ofMinutes(1), 0)));
+        return new RateLimitInterceptor(properties, meterRegistry);
+    }
+
+    private MockHttpServletRequest request(String method, String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1" + path);
+        request.setContextPath("/api/v1");
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+
+    private double count(String route, String outcome) {
+        return meterRegistry.get(RateLimitInterceptor.METRIC_NAME).tag("route", route).tag("outcome", outcome)
+                .counter().count();
+    }
+}
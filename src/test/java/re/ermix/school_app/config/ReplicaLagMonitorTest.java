@@ -0,0 +1,134 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaLagMonitorTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet status;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @Test
+    void isReplicaUsable_BeforeFirstCheck_ShouldBeFalse() {
+        // When / Then
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(lagGauge()).isNaN();
+    }
+
+    @Test
+    void check_WhenLagWithinLimit_ShouldMarkUsable() throws SQLException {
+        // Given
+        givenStatus(2, false);
+
+        // When
+        monitor.check();
+
+        // Then
+        assertThat(monitor.isReplicaUsable()).isTrue();
+        assertThat(lagGauge()).isEqualTo(2);
+        assertThat(meterRegistry.get("school.datasource.replica.usable").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void check_WhenLagAboveLimit_ShouldMarkUnusable() throws SQLException {
+        // Given
+        givenStatus(3, false);
+
+        // When
+        monitor.check();
+
+        // Then
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(lagGauge()).isEqualTo(3);
+    }
+
+    @Test
+    void check_WhenReplicationStopped_ShouldMarkUnusable() throws SQLException {
+        // Given
+        givenStatus(0, true);
+
+        // When
+        monitor.check();
+
+        // Then
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(lagGauge()).isNaN();
+    }
+
+    @Test
+    void check_WhenServerIsNotAReplica_ShouldMarkUsable() throws SQLException {
+        // Given
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        when(status.next()).thenReturn(false);
+
+        // When
+        monitor.check();
+
+        // Then
+        assertThat(monitor.isReplicaUsable()).isTrue();
+        assertThat(lagGauge()).isZero();
+    }
+
+    @Test
+    void check_WhenReplicaUnreachable_ShouldMarkUnusable() throws SQLException {
+        // Given
+        givenStatus(0, false);
+        monitor.check();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When
+        monitor.check();
+
+        // Then
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(lagGauge()).isNaN();
+    }
+
+    private void givenStatus(long lag, boolean lagIsNull) throws SQLException {
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        when(status.next()).thenReturn(true);
+        when(status.getLong("Seconds_Behind_Source")).thenReturn(lag);
+        when(status.wasNull()).thenReturn(lagIsNull);
+    }
+
+    private double lagGauge() {
+        return meterRegistry.get("school.datasource.replica.lag").gauge().value();
+    }
+}
@@ -0,0 +1,178 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica; each knows its own name.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final AtomicBoolean replicaUsable = new AtomicBoolean(true);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private PrimaryReads primaryReads;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing_primary");
+        DataSource replica = database("routing_replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaUsable::get, meterRegistry));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        primaryReads = new PrimaryReads(transactionManager, "jdbc:h2:mem:routing_replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.endRequest();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        // When
+        String node = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(node).isEqualTo("routing_replica");
+        assertThat(routed("replica", "read")).isEqualTo(1);
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        // When
+        String node = readWrite.execute(status -> currentNode());
+
+        // Then
+        assertThat(node).isEqualTo("routing_primary");
+    }
+
+    @Test
+    void withoutTransaction_ShouldUsePrimary() {
+        // When
+        String node = currentNode();
+
+        // Then
+        assertThat(node).isEqualTo("routing_primary");
+    }
+
+    @Test
+    void readOnlyTransaction_AfterWriteInSameRequest_ShouldUsePrimary() {
+        // Given
+        ReadYourWrites.startRequest();
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET writes = writes + 1"));
+
+        // When
+        String node = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(node).isEqualTo("routing_primary");
+        assertThat(routed("primary", "read-your-writes")).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransaction_InNextRequest_ShouldUseReplicaAgain() {
+        // Given
+        ReadYourWrites.startRequest();
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET writes = writes + 1"));
+        ReadYourWrites.endRequest();
+        ReadYourWrites.startRequest();
+
+        // When
+        String node = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(node).isEqualTo("routing_replica");
+    }
+
+    @Test
+    void readOnlyTransaction_AfterWriteOutsideRequest_ShouldUseReplica() {
+        // Given
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET writes = writes + 1"));
+
+        // When
+        String node = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(node).isEqualTo("routing_replica");
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaUnusable_ShouldUsePrimary() {
+        // Given
+        replicaUsable.set(false);
+
+        // When
+        String node = readOnly.execute(status -> currentNode());
+
+        // Then
+        assertThat(node).isEqualTo("routing_primary");
+        assertThat(routed("primary", "replica-unavailable")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryRead_WithoutTransaction_ShouldUsePrimary() {
+        // When
+        String node = primaryReads.read(this::currentNode);
+
+        // Then
+        assertThat(node).isEqualTo("routing_primary");
+        assertThat(routed("primary", "primary-read")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryRead_InReadOnlyTransactionOnReplica_ShouldUsePrimary() {
+        // When
+        String[] nodes = readOnly.execute(status -> new String[]{
+                currentNode(), primaryReads.read(this::currentNode), currentNode()});
+
+        // Then
+        assertThat(nodes).containsExactly("routing_replica", "routing_primary", "routing_replica");
+    }
+
+    @Test
+    void primaryRead_InReadWriteTransaction_ShouldJoinIt() {
+        // When
+        String node = readWrite.execute(status -> primaryReads.read(this::currentNode));
+
+        // Then
+        assertThat(node).isEqualTo("routing_primary");
+        assertThat(routed("primary", "primary-read")).isZero();
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private double routed(String pool, String reason) {
+        return meterRegistry.get("school.datasource.route").tag("pool", pool).tag("reason", reason).counter().count();
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS node");
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(32), writes INT)");
+        jdbcTemplate.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,117 @@
+package re.ermix.school_app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Starts the replica routing configuration with virtual threads enabled, on two in-memory H2
+ * databases, to check that both pools are bounded and still routed to and measured.
+ */
+public class VirtualThreadConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withAllowBeanDefinitionOverriding(true)
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                    MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                    DataSourcePoolMetricsAutoConfiguration.class))
+            .withUserConfiguration(ReplicaRoutingConfiguration.class, VirtualThreadConfiguration.class,
+                    UsableReplicaConfiguration.class)
+            .withPropertyValues(
+                    "spring.threads.virtual.enabled=true",
+                    "spring.datasource.url=jdbc:h2:mem:virtual_primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.hikari.maximum-pool-size=3",
+                    "school.datasource.replica.jdbc-url=jdbc:h2:mem:virtual_replica;DB_CLOSE_DELAY=-1",
+                    "school.datasource.replica.username=sa",
+                    "school.datasource.replica.maximum-pool-size=2");
+
+    @Test
+    void replicaRouting_WithVirtualThreads_ShouldBoundBothPools() {
+        contextRunner.run(context -> {
+            // Then
+            assertThat(context).hasNotFailed();
+            assertThat(context.getBean("primaryDataSource")).isInstanceOf(BoundedDataSource.class);
+            assertThat(context.getBean("replicaDataSource")).isInstanceOf(BoundedDataSource.class);
+            assertThat(context.getBean("primaryDataSource", BoundedDataSource.class).availablePermits()).isEqualTo(3);
+            assertThat(context.getBean("replicaDataSource", BoundedDataSource.class).availablePermits()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void replicaRouting_WithVirtualThreads_ShouldRouteReadsToTheBoundedReplica() {
+        contextRunner.run(context -> {
+            // Given
+            DataSource dataSource = context.getBean(DataSource.class);
+            BoundedDataSource replica = context.getBean("replicaDataSource", BoundedDataSource.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            readOnly.setReadOnly(true);
+
+            // When
+            Integer permitsDuringRead = readOnly.execute(status -> {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                return replica.availablePermits();
+            });
+
+            // Then
+            assertThat(permitsDuringRead).isEqualTo(1);
+            assertThat(replica.availablePermits()).isEqualTo(2);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            assertThat(meterRegistry.get("school.datasource.route").tag("pool", "replica").tag("reason", "read")
+                    .counter().count()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void replicaRouting_WithVirtualThreads_ShouldStillPublishHikariMetricsPerPool() {
+        contextRunner.run(context -> {
+            // Given
+            DataSource dataSource = context.getBean(DataSource.class);
+            TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> new JdbcTemplate(dataSource).execute("SELECT 1"));
+
+            // Then
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", "primary").gauge().value())
+                    .isEqualTo(3);
+            assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", "replica").gauge().value())
+                    .isEqualTo(2);
+            assertThat(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "replica").timer().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("school.datasource.pending").tag("pool", "primary").gauge().value())
+                    .isZero();
+            assertThat(meterRegistry.get("school.datasource.pending").tag("pool", "replica").gauge().value())
+                    .isZero();
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class UsableReplicaConfiguration {
+
+        // The lag check runs SHOW REPLICA STATUS, which H2 does not know
+        @Bean
+        ReplicaLagMonitor replicaLagMonitor() {
+            ReplicaLagMonitor monitor = mock(ReplicaLagMonitor.class);
+            when(monitor.isReplicaUsable()).thenReturn(true);
+            return monitor;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package re.ermix.school_app.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import re.ermix.school_app.config.TestcontainersConfiguration;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.CourseRepository;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.repository.StudentRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that read endpoints run a fixed number of statements no matter how many rows they
+ * return, and that their payloads stay flat. Runs against the sample data from V2.
+ */
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestcontainersConfiguration.class)
+public class ReadModelQueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "/students, 1, 2048",
+            "/students/1, 1, 256",
+            "/teachers, 1, 2048",
+            "/courses, 1, 2048",
+            "/courses/1, 1, 256",
+            "/courses/student/1, 1, 1024",
+            "/enrollments, 1, 2048",
+            "/enrollments/student/1, 1, 1024",
+            "/enrollments/course/1, 1, 1024",
+            "/enrollments/course/1/roster, 1, 2048",
+            "/enrollments/student/1/schedule, 1, 2048",
+            "/grades, 1, 4096",
+            "/grades/student/1, 1, 2048",
+            "/grades/course/1, 1, 2048"
+    })
+    void readEndpoint_ShouldRunExpectedStatementsAndStayFlat(String path, long expectedStatements, int maxBytes)
+            throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        String body = result.getResponse().getContentAsString();
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount(),
+                "Unexpected number of SQL statements for " + path);
+        assertEquals(0, statistics.getCollectionFetchCount(), "Lazy collections were loaded for " + path);
+        assertTrue(body.length() < maxBytes, "Payload of " + path + " is " + body.length() + " bytes");
+        assertFalse(body.contains("hibernateLazyInitializer"), "Proxy internals leaked into " + path);
+    }
+
+    @Test
+    void courseRoster_ShouldRunOneStatementForThreeHundredStudents() throws Exception {
+        // Arrange
+        Course course = new Course();
+        course.setCourseCode("ROSTER300");
+        course.setTitle("Roster");
+        course.setCredits(3);
+        course = courseRepository.save(course);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Student student = new Student();
+            student.setFirstName("Roster" + i);
+            student.setLastName("Student" + i);
+            student.setEmail("roster.student" + i + "@example.com");
+            student.setDateOfBirth(LocalDate.of(2001, 1, 1));
+            student.setEnrollmentDate(LocalDate.of(2023, 9, 1));
+            students.add(student);
+        }
+        students = studentRepository.saveAll(students);
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (Student student : students) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(student);
+            enrollment.setCourse(course);
+            enrollment.setEnrollmentDate(LocalDate.of(2023, 9, 1));
+            enrollments.add(enrollment);
+        }
+        enrollmentRepository.saveAll(enrollments);
+        statistics.clear();
+
+        try {
+            // Act
+            MvcResult result = mockMvc.perform(get("/enrollments/course/" + course.getId() + "/roster"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            // Assert
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityFetchCount(), "Students were loaded one by one");
+            assertTrue(result.getResponse().getContentAsString().contains("roster.student299@example.com"));
+        } finally {
+            studentRepository.deleteAll(students);
+            courseRepository.delete(course);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package re.ermix.school_app.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import re.ermix.school_app.enums.GradeTypeEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkGradeRequestTest {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void entriesReferencingOneEnrollmentEachAreValid() {
+        BulkGradeRequest request = request(
+                new BulkGradeRequest.Entry(1L, null, new BigDecimal("90.00"), null),
+                new BulkGradeRequest.Entry(null, 2L, new BigDecimal("0"), "Absent"));
+
+        assertThat(validator.validate(request)).isEmpty();
+    }
+
+    @Test
+    void entryMustNameExactlyOneTarget() {
+        BulkGradeRequest request = request(
+                new BulkGradeRequest.Entry(1L, 2L, new BigDecimal("90.00"), null),
+                new BulkGradeRequest.Entry(null, null, new BigDecimal("90.00"), null));
+
+        Set<ConstraintViolation<BulkGradeRequest>> violations = validator.validate(request);
+
+        assertThat(violations).extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("grades[0].singleTarget", "grades[1].singleTarget");
+    }
+
+    @Test
+    void gradeValueMustFitTheColumn() {
+        BulkGradeRequest request = request(
+                new BulkGradeRequest.Entry(1L, null, new BigDecimal("-1"), null),
+                new BulkGradeRequest.Entry(2L, null, new BigDecimal("1000"), null),
+                new BulkGradeRequest.Entry(3L, null, new BigDecimal("80.125"), null),
+                new BulkGradeRequest.Entry(4L, null, null, null));
+
+        assertThat(validator.validate(request)).extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("grades[0].gradeValue", "grades[1].gradeValue",
+                        "grades[2].gradeValue", "grades[3].gradeValue");
+    }
+
+    @Test
+    void gradesMustNotBeEmptyOrTooMany() {
+        BulkGradeRequest empty = new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, LocalDate.now(), List.of());
+        BulkGradeRequest tooMany = new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, LocalDate.now(), Collections.nCopies(
+                BulkGradeRequest.MAX_ENTRIES + 1, new BulkGradeRequest.Entry(1L, null, BigDecimal.TEN, null)));
+
+        assertThat(validator.validate(empty)).hasSize(1);
+        assertThat(validator.validate(tooMany)).hasSize(1);
+    }
+
+    private static BulkGradeRequest request(BulkGradeRequest.Entry... entries) {
+        return new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, LocalDate.of(2024, 3, 1), List.of(entries));
+    }
+}
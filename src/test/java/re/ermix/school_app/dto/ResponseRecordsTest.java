@@ -0,0 +1,152 @@
+package re.ermix.school_app.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.enums.GradeTypeEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Grade;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.Teacher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseRecordsTest {
+
+    private ObjectMapper objectMapper;
+    private Student student;
+    private Teacher teacher;
+    private Course course;
+    private Enrollment enrollment;
+    private Grade grade;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        teacher = new Teacher();
+        teacher.setId(3L);
+        teacher.setFirstName("Jane");
+        teacher.setLastName("Smith");
+        teacher.setEmail("jane.smith@school.edu");
+        teacher.setHireDate(LocalDate.of(2018, 8, 15));
+        teacher.setSubjectSpecialty("Mathematics");
+        teacher.setCreatedAt(LocalDateTime.now());
+
+        course = new Course();
+        course.setId(2L);
+        course.setCourseCode("MATH101");
+        course.setTitle("Introduction to Calculus");
+        course.setDescription("Limits, derivatives and integrals");
+        course.setCredits(4);
+        course.setMaxStudents(30);
+        course.setTeacher(teacher);
+
+        student = new Student();
+        student.setId(1L);
+        student.setFirstName("John");
+        student.setLastName("Doe");
+        student.setEmail("john.doe@example.com");
+        student.setDateOfBirth(LocalDate.of(2000, 5, 15));
+        student.setEnrollmentDate(LocalDate.of(2022, 9, 1));
+        student.setEnrollments(new HashSet<>());
+
+        enrollment = new Enrollment();
+        enrollment.setId(4L);
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setEnrollmentDate(LocalDate.of(2022, 9, 1));
+        enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+        student.getEnrollments().add(enrollment);
+
+        grade = new Grade();
+        grade.setId(5L);
+        grade.setEnrollment(enrollment);
+        grade.setGradeValue(new BigDecimal("91.50"));
+        grade.setGradeType(GradeTypeEnum.FINAL);
+        grade.setDateRecorded(LocalDate.of(2022, 12, 15));
+        enrollment.getGrades().add(grade);
+    }
+
+    @Test
+    void studentResponse_ShouldNotIncludeEnrollments() throws Exception {
+        JsonNode json = objectMapper.valueToTree(StudentResponse.from(student));
+
+        assertThat(fieldNames(json)).containsExactly("id", "firstName", "lastName", "email", "dateOfBirth",
+                "address", "phoneNumber", "enrollmentDate");
+        assertThat(json.get("dateOfBirth").asText()).isEqualTo("2000-05-15");
+    }
+
+    @Test
+    void courseResponse_ShouldReferenceTeacherById() {
+        JsonNode json = objectMapper.valueToTree(CourseResponse.from(course));
+
+        assertThat(json.get("teacherId").asLong()).isEqualTo(3L);
+        assertThat(json.has("teacher")).isFalse();
+        assertThat(containsObject(json)).isFalse();
+    }
+
+    @Test
+    void courseResponse_WithoutTeacher_ShouldHaveNullTeacherId() {
+        course.setTeacher(null);
+
+        assertThat(CourseResponse.from(course).teacherId()).isNull();
+    }
+
+    @Test
+    void enrollmentResponse_ShouldReferenceStudentAndCourseById() {
+        JsonNode json = objectMapper.valueToTree(EnrollmentResponse.from(enrollment));
+
+        assertThat(fieldNames(json)).containsExactly("id", "studentId", "courseId", "enrollmentDate", "status");
+        assertThat(json.get("studentId").asLong()).isEqualTo(1L);
+        assertThat(json.get("courseId").asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    void gradeResponse_ShouldReferenceEnrollmentById() {
+        JsonNode json = objectMapper.valueToTree(GradeResponse.from(grade));
+
+        assertThat(json.get("enrollmentId").asLong()).isEqualTo(4L);
+        assertThat(containsObject(json)).isFalse();
+    }
+
+    @Test
+    void responses_ShouldStayFlatAndSmall() throws Exception {
+        // The entity graph is cyclic (student -> enrollment -> grade -> enrollment); responses must not follow it
+        List<Object> responses = List.of(StudentResponse.from(student), TeacherResponse.from(teacher),
+                CourseResponse.from(course), EnrollmentResponse.from(enrollment), GradeResponse.from(grade));
+
+        for (Object response : responses) {
+            byte[] payload = objectMapper.writeValueAsBytes(response);
+            assertThat(payload.length).as(response.getClass().getSimpleName()).isLessThan(256);
+            assertThat(containsObject(objectMapper.readTree(payload))).as(response.getClass().getSimpleName()).isFalse();
+        }
+    }
+
+    private static List<String> fieldNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static boolean containsObject(JsonNode json) {
+        for (JsonNode value : json) {
+            if (value.isContainerNode()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,7 +3,10 @@ package re.ermix.school_app.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -106,6 +109,8 @@ class CourseTest {
             4,
             teacher,
             40,
+            List.of(new CourseMeeting(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 30))),
+            0L,
             LocalDateTime.now(),
             LocalDateTime.now()
         );
@@ -118,6 +123,8 @@ class CourseTest {
         assertEquals(4, newCourse.getCredits());
         assertEquals(teacher, newCourse.getTeacher());
         assertEquals(40, newCourse.getMaxStudents());
+        assertEquals(1, newCourse.getMeetings().size());
+        assertEquals(0L, newCourse.getVersion());
     }
 
     @Test
@@ -179,6 +179,7 @@ class EnrollmentTest {
             LocalDate.of(2022, 8, 15),
             EnrollmentStatusEnum.COMPLETED,
             new HashSet<>(),
+            0L,
             LocalDateTime.now(),
             LocalDateTime.now()
         );
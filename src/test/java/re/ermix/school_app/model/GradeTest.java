@@ -145,6 +145,7 @@ class GradeTest {
             GradeTypeEnum.FINAL,
             "Excellent work",
             LocalDate.of(2022, 12, 20),
+            0L,
             LocalDateTime.now(),
             LocalDateTime.now()
         );
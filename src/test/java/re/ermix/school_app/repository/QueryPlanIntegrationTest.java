@@ -0,0 +1,174 @@
+package re.ermix.school_app.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import re.ermix.school_app.config.TestcontainersConfiguration;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN for the SQL behind each filtering repository method on a generated dataset and
+ * fails when MySQL plans a full table or full index scan. The statements mirror what Hibernate
+ * generates for the derived and JPQL queries; literal values are picked inside the data below.
+ * Rows are generated with ids from {@value #BASE_ID} and removed afterwards.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "school.search.index.enabled=false")
+@Import(TestcontainersConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanIntegrationTest {
+
+    private static final long BASE_ID = 1_000_000;
+    private static final int STUDENTS = 50_000;
+    private static final int TEACHERS = 2_000;
+    private static final int COURSES = 2_000;
+    private static final int ENROLLMENTS = 200_000;
+    private static final int GRADES = 400_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void generateDataset() {
+        removeDataset();
+        jdbcTemplate.execute("SET SESSION cte_max_recursion_depth = " + GRADES);
+        jdbcTemplate.update("INSERT INTO teachers (id, first_name, last_name, email, hire_date, subject_specialty) "
+                + "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (TEACHERS - 1) + ") "
+                + "SELECT " + BASE_ID + " + n, CONCAT('First', n % 300), CONCAT('Last', n % 1000), "
+                + "CONCAT('plan.teacher', n, '@example.com'), DATE_SUB('2024-01-01', INTERVAL n % 7300 DAY), "
+                + "CONCAT('Subject', n % 100) FROM seq");
+        jdbcTemplate.update("INSERT INTO students (id, first_name, last_name, email, date_of_birth, enrollment_date) "
+                + "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (STUDENTS - 1) + ") "
+                + "SELECT " + BASE_ID + " + n, CONCAT('First', n % 500), CONCAT('Last', n % 5000), "
+                + "CONCAT('plan.student', n, '@example.com'), DATE_SUB('2006-01-01', INTERVAL n % 3650 DAY), "
+                + "DATE_SUB('2024-09-01', INTERVAL n % 1825 DAY) FROM seq");
+        // Most courses carry one to four credits; six-credit courses are rare
+        jdbcTemplate.update("INSERT INTO courses (id, course_code, title, credits, teacher_id, max_students) "
+                + "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (COURSES - 1) + ") "
+                + "SELECT " + BASE_ID + " + n, CONCAT('PLAN', n), CONCAT('Course ', n), "
+                + "CASE WHEN n % 50 = 0 THEN 6 ELSE n % 4 + 1 END, "
+                + BASE_ID + " + n % " + TEACHERS + ", 200 FROM seq");
+        // Each student takes four distinct courses; one in ten enrollments is dropped, one in ten completed
+        jdbcTemplate.update("INSERT INTO enrollments (id, student_id, course_id, enrollment_date, status) "
+                + "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (ENROLLMENTS - 1) + ") "
+                + "SELECT " + BASE_ID + " + n, " + BASE_ID + " + n % " + STUDENTS + ", "
+                + BASE_ID + " + ((n % " + STUDENTS + ") * 7 + (n DIV " + STUDENTS + ") * 13) % " + COURSES + ", "
+                + "DATE_SUB('2024-09-01', INTERVAL n % 1825 DAY), "
+                + "CASE n % 10 WHEN 0 THEN 'DROPPED' WHEN 1 THEN 'COMPLETED' ELSE 'ACTIVE' END FROM seq");
+        // One grade in twenty is a final, as with a handful of assessments per final exam
+        jdbcTemplate.update("INSERT INTO grades (id, enrollment_id, grade_value, grade_type, date_recorded) "
+                + "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < " + (GRADES - 1) + ") "
+                + "SELECT " + BASE_ID + " + n, " + BASE_ID + " + n % " + ENROLLMENTS + ", (n % 10000) / 100, "
+                + "CASE WHEN n % 20 = 0 THEN 'FINAL' WHEN n % 20 = 1 THEN 'MIDTERM' WHEN n % 20 < 5 THEN 'PROJECT' "
+                + "WHEN n % 20 < 10 THEN 'QUIZ' ELSE 'ASSIGNMENT' END, "
+                + "DATE_SUB('2024-12-31', INTERVAL n % 1825 DAY) FROM seq");
+        jdbcTemplate.execute("ANALYZE TABLE students, teachers, courses, enrollments, grades");
+    }
+
+    @AfterAll
+    void removeDataset() {
+        jdbcTemplate.update("DELETE FROM grades WHERE id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM enrollments WHERE id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM courses WHERE id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM students WHERE id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM teachers WHERE id >= ?", BASE_ID);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            // StudentRepository
+            "Student.findByEmail | SELECT * FROM students WHERE email = 'plan.student123@example.com' |",
+            "Student.findByLastName | SELECT * FROM students WHERE last_name = 'Last123' |",
+            "Student.findByFirstNameAndLastName | SELECT * FROM students WHERE first_name = 'First123' AND last_name = 'Last123' |",
+            "Student.findByEnrollmentDate | SELECT * FROM students WHERE enrollment_date = '2023-03-15' |",
+            "Student.findByDateOfBirthBetween | SELECT * FROM students WHERE date_of_birth BETWEEN '2001-01-01' AND '2001-03-31' |",
+            "Student.findByCourseId | SELECT s.* FROM students s JOIN enrollments e ON e.student_id = s.id WHERE e.course_id = 1000123 |",
+            "Student.findIdsByEnrollmentDateBetween | SELECT id FROM students WHERE enrollment_date BETWEEN '2023-03-01' AND '2023-03-31' ORDER BY id |",
+            // TeacherRepository
+            "Teacher.findByEmail | SELECT * FROM teachers WHERE email = 'plan.teacher12@example.com' |",
+            "Teacher.findByLastName | SELECT * FROM teachers WHERE last_name = 'Last12' |",
+            "Teacher.findByFirstNameAndLastName | SELECT * FROM teachers WHERE first_name = 'First12' AND last_name = 'Last12' |",
+            "Teacher.findBySubjectSpecialty | SELECT * FROM teachers WHERE subject_specialty = 'Subject12' |",
+            "Teacher.findByHireDateAfter | SELECT * FROM teachers WHERE hire_date > '2023-06-01' |",
+            "Teacher.findByCourseId | SELECT t.* FROM teachers t JOIN courses c ON t.id = c.teacher_id WHERE c.id = 1000123 |",
+            // CourseRepository
+            "Course.findByCourseCode | SELECT * FROM courses WHERE course_code = 'PLAN123' |",
+            "Course.findByTitle | SELECT * FROM courses WHERE title = 'Course 123' |",
+            "Course.findByCredits | SELECT * FROM courses WHERE credits = 6 |",
+            "Course.findByTeacherId | SELECT * FROM courses WHERE teacher_id = 1000123 |",
+            "Course.findByTeacherSpecialty | SELECT c.* FROM courses c JOIN teachers t ON t.id = c.teacher_id WHERE t.subject_specialty = 'Subject12' |",
+            "Course.findByStudentId | SELECT c.* FROM courses c JOIN enrollments e ON c.id = e.course_id WHERE e.student_id = 1000123 |",
+            // Every course is checked, so only the enrollment count has to use an index
+            "Course.findCoursesWithAvailableSeats | SELECT c.* FROM courses c WHERE c.max_students > (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id AND e.status = 'ACTIVE') | c",
+            // EnrollmentRepository
+            "Enrollment.findByStudentId | SELECT * FROM enrollments WHERE student_id = 1000123 |",
+            "Enrollment.findByCourseId | SELECT * FROM enrollments WHERE course_id = 1000123 |",
+            "Enrollment.findByStudentIdAndCourseId | SELECT * FROM enrollments WHERE student_id = 1000123 AND course_id = 1000861 |",
+            "Enrollment.findByStatus | SELECT * FROM enrollments WHERE status = 'DROPPED' |",
+            "Enrollment.findByStatusAndIdGreaterThanOrderByIdAsc | SELECT * FROM enrollments WHERE status = 'ACTIVE' AND id > 1100000 ORDER BY id LIMIT 51 |",
+            "Enrollment.findByEnrollmentDateBetween | SELECT * FROM enrollments WHERE enrollment_date BETWEEN '2023-03-01' AND '2023-03-31' |",
+            "Enrollment.findPageByEnrollmentDateBetween | SELECT * FROM enrollments WHERE enrollment_date BETWEEN '2023-03-01' AND '2023-03-31' AND (enrollment_date > '2023-03-10' OR (enrollment_date = '2023-03-10' AND id > 1100000)) ORDER BY enrollment_date, id LIMIT 51 |",
+            "Enrollment.findByStudentIdAndStatus | SELECT * FROM enrollments WHERE student_id = 1000123 AND status = 'ACTIVE' |",
+            "Enrollment.findByCourseIdAndStatus | SELECT * FROM enrollments WHERE course_id = 1000123 AND status = 'ACTIVE' |",
+            "Enrollment.findSummariesByStudentId | SELECT id, course_id, status, enrollment_date FROM enrollments WHERE student_id = 1000123 ORDER BY id |",
+            "Enrollment.countActiveByCourseId | SELECT COUNT(*) FROM enrollments WHERE course_id = 1000123 AND status = 'ACTIVE' |",
+            "Enrollment.findByCourseIdAndIdIn | SELECT * FROM enrollments WHERE course_id = 1000123 AND id IN (1000001, 1000002, 1000003) |",
+            "Enrollment.findByCourseIdAndStudentIdIn | SELECT * FROM enrollments WHERE course_id = 1000123 AND student_id IN (1000001, 1000002, 1000003) |",
+            "Enrollment.findTranscriptCourses | SELECT e.id, c.credits, a.grade_sum FROM enrollments e JOIN courses c ON c.id = e.course_id LEFT JOIN grade_aggregates a ON a.scope = 'ENROLLMENT' AND a.scope_id = e.id WHERE e.student_id IN (1000001, 1000002, 1000003) AND e.status <> 'DROPPED' ORDER BY e.student_id, e.enrollment_date, c.course_code |",
+            // GradeRepository
+            "Grade.findByEnrollmentId | SELECT * FROM grades WHERE enrollment_id = 1000123 |",
+            "Grade.findByGradeType | SELECT * FROM grades WHERE grade_type = 'FINAL' |",
+            "Grade.findByGradeTypeAndIdGreaterThanOrderByIdAsc | SELECT * FROM grades WHERE grade_type = 'ASSIGNMENT' AND id > 1100000 ORDER BY id LIMIT 51 |",
+            "Grade.findByDateRecordedBetween | SELECT * FROM grades WHERE date_recorded BETWEEN '2023-03-01' AND '2023-03-31' |",
+            "Grade.findPageByDateRecordedBetween | SELECT * FROM grades WHERE date_recorded BETWEEN '2023-03-01' AND '2023-03-31' AND (date_recorded > '2023-03-10' OR (date_recorded = '2023-03-10' AND id > 1100000)) ORDER BY date_recorded, id LIMIT 51 |",
+            "Grade.findByStudentId | SELECT g.* FROM grades g JOIN enrollments e ON e.id = g.enrollment_id WHERE e.student_id = 1000123 |",
+            "Grade.findByCourseId | SELECT g.* FROM grades g JOIN enrollments e ON e.id = g.enrollment_id WHERE e.course_id = 1000123 |",
+            "Grade.findByStudentIdAndCourseId | SELECT g.* FROM grades g JOIN enrollments e ON e.id = g.enrollment_id WHERE e.student_id = 1000123 AND e.course_id = 1000861 |",
+            "Grade.calculateAverageGradeForEnrollment | SELECT AVG(grade_value) FROM grades WHERE enrollment_id = 1000123 |",
+            "Grade.calculateAverageGradeForStudent | SELECT AVG(g.grade_value) FROM grades g JOIN enrollments e ON e.id = g.enrollment_id WHERE e.student_id = 1000123 |",
+            "Grade.calculateAverageGradeForCourse | SELECT AVG(g.grade_value) FROM grades g JOIN enrollments e ON e.id = g.enrollment_id WHERE e.course_id = 1000123 |"
+    })
+    void repositoryQuery_ShouldNotScanWholeTable(String query, String sql, String scannedAlias) {
+        // Act
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+
+        // Assert
+        for (Map<String, Object> step : plan) {
+            String table = String.valueOf(step.get("table"));
+            String type = String.valueOf(step.get("type"));
+            if (table.equals(scannedAlias)) {
+                continue;
+            }
+            assertNotEquals("ALL", type, query + " scans " + table + ": " + plan);
+            assertNotEquals("index", type, query + " scans the whole index of " + table + ": " + plan);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            "Enrollment.findPageByEnrollmentDateBetween | SELECT * FROM enrollments WHERE enrollment_date BETWEEN '2023-03-01' AND '2023-03-31' AND (enrollment_date > '2023-03-10' OR (enrollment_date = '2023-03-10' AND id > 1100000)) ORDER BY enrollment_date, id LIMIT 51 | idx_enrollments_enrollment_date_id",
+            "Grade.findPageByDateRecordedBetween | SELECT * FROM grades WHERE date_recorded BETWEEN '2023-03-01' AND '2023-03-31' AND (date_recorded > '2023-03-10' OR (date_recorded = '2023-03-10' AND id > 1100000)) ORDER BY date_recorded, id LIMIT 51 | idx_grades_date_recorded_id"
+    })
+    void keysetPage_ShouldReadItsIndexInOrder(String query, String sql, String index) {
+        // Act
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+
+        // Assert
+        assertEquals(1, plan.size(), query + ": " + plan);
+        Map<String, Object> step = plan.getFirst();
+        assertEquals("range", String.valueOf(step.get("type")), query + ": " + plan);
+        assertEquals(index, String.valueOf(step.get("key")), query + ": " + plan);
+        assertFalse(String.valueOf(step.get("Extra")).contains("Using filesort"), query + " sorts the range: " + plan);
+    }
+}
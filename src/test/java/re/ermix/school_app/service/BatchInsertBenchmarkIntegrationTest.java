@@ -0,0 +1,92 @@
+package re.ermix.school_app.service;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import re.ermix.school_app.config.TestcontainersConfiguration;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.StudentRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares inserting students one request at a time with the batched bulk path against a
+ * real MySQL instance. Not transactional: both paths have to commit for the comparison to
+ * mean anything, so the rows are removed afterwards.
+ */
+@Log4j2
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+public class BatchInsertBenchmarkIntegrationTest {
+
+    private static final int ROWS = 2000;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllByIdInBatch(createdIds);
+    }
+
+    @Test
+    void saveStudents_ShouldOutperformOneByOneInserts() {
+        // Warm up both paths so class loading and connection setup are not measured
+        createdIds.add(studentService.saveStudent(student("warmup-single", 0)).getId());
+        studentService.saveStudents(students("warmup-batch", 100)).forEach(s -> createdIds.add(s.getId()));
+
+        // Act
+        List<Student> singles = students("single", ROWS);
+        long singleStart = System.nanoTime();
+        for (Student student : singles) {
+            createdIds.add(studentService.saveStudent(student).getId());
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        List<Student> batch = students("batch", ROWS);
+        long batchStart = System.nanoTime();
+        studentService.saveStudents(batch).forEach(s -> createdIds.add(s.getId()));
+        long batchNanos = System.nanoTime() - batchStart;
+
+        // Assert
+        double singleRate = ROWS / (singleNanos / 1e9);
+        double batchRate = ROWS / (batchNanos / 1e9);
+        log.info("Inserted {} students: one by one {} rows/s, batched {} rows/s ({}x)",
+                ROWS, Math.round(singleRate), Math.round(batchRate), Math.round(batchRate / singleRate));
+        assertTrue(batch.stream().allMatch(s -> s.getId() != null), "Batched students should have ids");
+        assertEquals(2 * ROWS + 101, studentRepository.findAllById(createdIds).size());
+        assertTrue(batchRate > singleRate, "Batched inserts should be faster than one-by-one inserts");
+    }
+
+    private List<Student> students(String prefix, int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(student(prefix, i));
+        }
+        return students;
+    }
+
+    private Student student(String prefix, int i) {
+        Student student = new Student();
+        student.setFirstName("Bench");
+        student.setLastName(prefix + i);
+        student.setEmail(prefix + "." + i + "@benchmark.example.com");
+        student.setDateOfBirth(LocalDate.of(2000, 1, 1));
+        student.setEnrollmentDate(LocalDate.of(2024, 9, 1));
+        return student;
+    }
+}
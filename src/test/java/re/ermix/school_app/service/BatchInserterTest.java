@@ -0,0 +1,66 @@
+package re.ermix.school_app.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import re.ermix.school_app.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchInserterTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    private BatchInserter batchInserter;
+
+    @BeforeEach
+    void setUp() {
+        batchInserter = new BatchInserter(entityManager, 2);
+    }
+
+    @Test
+    void insertAll_ShouldFlushAndClearAfterEveryBatch() {
+        // Given
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Student student = new Student();
+            student.setEmail("student" + i + "@example.com");
+            students.add(student);
+        }
+
+        // When
+        List<Student> result = batchInserter.insertAll(students);
+
+        // Then
+        assertThat(result).isSameAs(students);
+        verify(entityManager, times(5)).persist(any(Student.class));
+        // Two full batches plus the remainder
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(students.get(0));
+        inOrder.verify(entityManager).persist(students.get(1));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).persist(students.get(2));
+    }
+
+    @Test
+    void insertAll_WhenEmpty_ShouldNotPersistAnything() {
+        // When
+        batchInserter.insertAll(List.of());
+
+        // Then
+        verify(entityManager, never()).persist(any());
+    }
+}
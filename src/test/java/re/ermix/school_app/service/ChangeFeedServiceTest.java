@@ -0,0 +1,125 @@
+package re.ermix.school_app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import re.ermix.school_app.dto.ChangeEventResponse;
+import re.ermix.school_app.dto.ChangePage;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
+import re.ermix.school_app.model.ChangeEvent;
+import re.ermix.school_app.repository.ChangeEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeEventRepository changeEventRepository;
+
+    @Mock
+    private ChangeOutbox changeOutbox;
+
+    @Test
+    void getPublishedOffset_ShouldStartAtHighestOutboxOffset() {
+        // Given
+        ChangeFeedService feed = feed();
+        when(changeEventRepository.findMaxFeedOffset()).thenReturn(Optional.of(42L));
+
+        // When
+        long first = feed.getPublishedOffset();
+        long second = feed.getPublishedOffset();
+
+        // Then
+        assertThat(first).isEqualTo(42L);
+        assertThat(second).isEqualTo(42L);
+        verify(changeEventRepository, times(1)).findMaxFeedOffset();
+    }
+
+    @Test
+    void getChanges_ShouldOnlyReadUpToPublishedOffset() {
+        // Given
+        ChangeFeedService feed = feed();
+        when(changeEventRepository.findMaxFeedOffset()).thenReturn(Optional.of(3L));
+        when(changeEventRepository.findByFeedOffsetGreaterThanAndFeedOffsetLessThanEqualOrderByFeedOffsetAsc(
+                1L, 3L, Limit.of(1000)))
+                .thenReturn(List.of(change(2L), change(3L)));
+
+        // When
+        ChangePage page = feed.getChanges(1L, 5000);
+
+        // Then
+        assertThat(page.changes()).extracting(ChangeEventResponse::offset).containsExactly(2L, 3L);
+        assertThat(page.next()).isEqualTo(3L);
+    }
+
+    @Test
+    void getChanges_WhenCaughtUp_ShouldNotQueryTheOutbox() {
+        // Given
+        ChangeFeedService feed = feed();
+        when(changeEventRepository.findMaxFeedOffset()).thenReturn(Optional.of(3L));
+
+        // When
+        ChangePage page = feed.getChanges(3L, 100);
+
+        // Then
+        assertThat(page.changes()).isEmpty();
+        assertThat(page.next()).isEqualTo(3L);
+        verify(changeEventRepository, never())
+                .findByFeedOffsetGreaterThanAndFeedOffsetLessThanEqualOrderByFeedOffsetAsc(any(), any(), any());
+    }
+
+    @Test
+    void poll_ShouldPublishContiguousChanges() {
+        // Given
+        ChangeFeedService feed = feed();
+        when(changeEventRepository.findMaxFeedOffset()).thenReturn(Optional.of(0L));
+        when(changeEventRepository.findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(0L, Limit.of(10)))
+                .thenReturn(List.of(change(1L), change(2L)));
+
+        // When
+        feed.poll();
+
+        // Then
+        assertThat(feed.getPublishedOffset()).isEqualTo(2L);
+        InOrder inOrder = inOrder(changeOutbox, changeEventRepository);
+        inOrder.verify(changeOutbox).assignOffsets(10);
+        inOrder.verify(changeEventRepository).findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(0L, Limit.of(10));
+    }
+
+    @Test
+    void poll_WhenOffsetMissing_ShouldPublishPastIt() {
+        // Given
+        ChangeFeedService feed = feed();
+        when(changeEventRepository.findMaxFeedOffset()).thenReturn(Optional.of(0L));
+        when(changeEventRepository.findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(0L, Limit.of(10)))
+                .thenReturn(List.of(change(1L), change(3L)));
+
+        // When
+        feed.poll();
+
+        // Then
+        assertThat(feed.getPublishedOffset()).isEqualTo(3L);
+    }
+
+    private ChangeFeedService feed() {
+        return new ChangeFeedService(changeEventRepository, changeOutbox, Runnable::run, new SimpleMeterRegistry(),
+                10, 100, Duration.ofDays(7));
+    }
+
+    private static ChangeEvent change(Long offset) {
+        return new ChangeEvent(offset + 100, offset, ChangeEntityEnum.GRADE, offset * 10, ChangeTypeEnum.CREATED,
+                "{}", LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+}
@@ -0,0 +1,120 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeOutboxTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ChangeOutbox changeOutbox;
+
+    @BeforeEach
+    void setUp() {
+        changeOutbox = new ChangeOutbox(jdbcTemplate, new ObjectMapper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordAll_ShouldInsertAllChangesInOneBatchWithoutOffsets() {
+        // Given
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+
+        // When
+        changeOutbox.recordAll(List.of(
+                new ChangeOutbox.Change(ChangeEntityEnum.GRADE, ChangeTypeEnum.CREATED, 1L, Map.of("gradeValue", 90)),
+                new ChangeOutbox.Change(ChangeEntityEnum.ENROLLMENT, ChangeTypeEnum.DELETED, 2L, null)));
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(contains("INSERT INTO change_events"), rows.capture());
+        assertThat(rows.getValue()).hasSize(2);
+        Object[] created = rows.getValue().get(0);
+        assertThat(created).startsWith("GRADE", 1L, "CREATED", "{\"gradeValue\":90}");
+        assertThat(created[4]).isInstanceOf(LocalDateTime.class);
+        assertThat(rows.getValue().get(1)).startsWith("ENROLLMENT", 2L, "DELETED", null);
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void recordAll_WhenNoChanges_ShouldNotTouchTheDatabase() {
+        // When
+        changeOutbox.recordAll(List.of());
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void assignOffsets_ShouldNumberUnassignedRowsAfterTheLastOffset() {
+        // Given
+        ArgumentCaptor<List<Object[]>> assigned = ArgumentCaptor.forClass(List.class);
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Long.class))).thenReturn(List.of(10L));
+        when(jdbcTemplate.queryForList(contains("feed_offset IS NULL"), eq(Long.class), eq(500)))
+                .thenReturn(List.of(31L, 33L));
+
+        // When
+        int count = changeOutbox.assignOffsets(500);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(Long.class));
+        inOrder.verify(jdbcTemplate).batchUpdate(contains("SET feed_offset"), assigned.capture());
+        inOrder.verify(jdbcTemplate).update(contains("UPDATE change_sequence"), eq(12L));
+        assertThat(assigned.getValue()).containsExactly(new Object[]{11L, 31L}, new Object[]{12L, 33L});
+    }
+
+    @Test
+    void assignOffsets_WhenNothingIsUnassigned_ShouldLeaveTheSequence() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Long.class))).thenReturn(List.of(10L));
+        when(jdbcTemplate.queryForList(contains("feed_offset IS NULL"), eq(Long.class), eq(500)))
+                .thenReturn(List.of());
+
+        // When
+        int count = changeOutbox.assignOffsets(500);
+
+        // Then
+        assertThat(count).isZero();
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void assignOffsets_WhenSequenceRowMissing_ShouldSeedIt() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Long.class))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("FOR UPDATE"), eq(Long.class))).thenReturn(7L);
+        when(jdbcTemplate.queryForList(contains("feed_offset IS NULL"), eq(Long.class), eq(500)))
+                .thenReturn(List.of(8L));
+
+        // When
+        changeOutbox.assignOffsets(500);
+
+        // Then
+        verify(jdbcTemplate).update(contains("INSERT INTO change_sequence"));
+        verify(jdbcTemplate).update(contains("UPDATE change_sequence"), eq(8L));
+    }
+}
@@ -0,0 +1,192 @@
+package re.ermix.school_app.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.repository.EnrollmentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseSeatLedgerTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Spy
+    private PrimaryReads primaryReads = new PrimaryReads(mock(PlatformTransactionManager.class), "");
+
+    @InjectMocks
+    private CourseSeatLedger seatLedger;
+
+    private Course testCourse;
+
+    @BeforeEach
+    void setUp() {
+        testCourse = new Course();
+        testCourse.setId(1L);
+        testCourse.setCourseCode("CS101");
+        testCourse.setMaxStudents(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tryReserve_ShouldSeedFromDatabaseOnceAndStopAtMaxStudents() {
+        // Given
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(1L);
+
+        // When & Then
+        assertThat(seatLedger.tryReserve(testCourse)).isTrue();
+        assertThat(seatLedger.tryReserve(testCourse)).isTrue();
+        assertThat(seatLedger.tryReserve(testCourse)).isFalse();
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(3);
+        verify(enrollmentRepository, times(1)).countActiveByCourseId(1L);
+    }
+
+    @Test
+    void tryReserve_WhenNoStudentLimit_ShouldAlwaysSucceed() {
+        // Given
+        testCourse.setMaxStudents(null);
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(100L);
+
+        // When & Then
+        assertThat(seatLedger.tryReserve(testCourse)).isTrue();
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(101);
+    }
+
+    @Test
+    void tryReserve_UnderContention_ShouldNeverExceedMaxStudents() throws Exception {
+        // Given
+        testCourse.setMaxStudents(50);
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(0L);
+        seatLedger.takenSeats(1L);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return seatLedger.tryReserve(testCourse);
+            }));
+        }
+        start.countDown();
+        int granted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                granted++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(granted).isEqualTo(50);
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(50);
+    }
+
+    @Test
+    void tryReserve_WhenTransactionRollsBack_ShouldGiveSeatBack() {
+        // Given
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        assertThat(seatLedger.tryReserve(testCourse)).isTrue();
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(3);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void release_ShouldOnlyTakeEffectAfterCommit() {
+        // Given
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(3L);
+        seatLedger.takenSeats(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        seatLedger.release(1L);
+
+        // Then
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(3);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void release_WhenNotSeeded_ShouldSeedFromTheCountThatAlreadyLeavesTheSeatOut() {
+        // Given the dropped enrollment is flushed, so the count no longer includes it
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        seatLedger.release(1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(2);
+        verify(enrollmentRepository, times(1)).countActiveByCourseId(1L);
+    }
+
+    @Test
+    void reconcile_ShouldResetDriftedCounters() {
+        // Given
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(0L, 2L);
+        seatLedger.tryReserve(testCourse);
+
+        // When
+        seatLedger.reconcile();
+
+        // Then
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void reconcile_WhenReservationInFlight_ShouldSkipCourse() {
+        // Given
+        when(enrollmentRepository.countActiveByCourseId(1L)).thenReturn(0L);
+        TransactionSynchronizationManager.initSynchronization();
+        seatLedger.tryReserve(testCourse);
+
+        // When
+        seatLedger.reconcile();
+
+        // Then
+        assertThat(seatLedger.takenSeats(1L)).isEqualTo(1);
+        verify(enrollmentRepository, times(1)).countActiveByCourseId(1L);
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
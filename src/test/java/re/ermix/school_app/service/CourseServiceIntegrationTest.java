@@ -139,7 +139,7 @@ public class CourseServiceIntegrationTest {
         testCourse.setCredits(5);
 
         // Act
-        Course updatedCourse = courseService.updateCourse(testCourse.getId(), testCourse);
+        Course updatedCourse = courseService.updateCourse(testCourse.getId(), testCourse, null);
 
         // Assert
         assertEquals("Updated Test Course", updatedCourse.getTitle(), "Course title should be updated");
@@ -199,7 +199,7 @@ public class CourseServiceIntegrationTest {
 
         // Update the course
         savedCourse.setTitle("Updated Timestamp Testing");
-        Course updatedCourse = courseService.updateCourse(savedCourse.getId(), savedCourse);
+        Course updatedCourse = courseService.updateCourse(savedCourse.getId(), savedCourse, null);
 
         // Assert
         assertNotNull(createdAt, "Created timestamp should not be null");
@@ -6,16 +6,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
 import re.ermix.school_app.model.Course;
 import re.ermix.school_app.model.Teacher;
 import re.ermix.school_app.repository.CourseRepository;
 import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.util.ETags;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +34,24 @@ public class CourseServiceTest {
     @Mock
     private EnrollmentRepository enrollmentRepository;
 
+    @Mock
+    private CourseSeatLedger seatLedger;
+
+    @Mock
+    private StudentEnrollmentCache studentEnrollmentCache;
+
+    @Mock
+    private BatchInserter batchInserter;
+
+    @Mock
+    private CourseWaitlist courseWaitlist;
+
+    @Mock
+    private StudentScheduleIndex studentScheduleIndex;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
     @InjectMocks
     private CourseService courseService;
 
@@ -202,6 +227,24 @@ public class CourseServiceTest {
         verify(courseRepository, times(1)).findByStudentId(studentId);
     }
 
+    @Test
+    void getCourseIdsByStudent_ShouldReturnDistinctCourseIdsFromCache() {
+        // Given
+        Long studentId = 1L;
+        LocalDate date = LocalDate.now();
+        when(studentEnrollmentCache.get(studentId)).thenReturn(List.of(
+                new EnrollmentSummary(1L, 10L, EnrollmentStatusEnum.ACTIVE, date),
+                new EnrollmentSummary(2L, 20L, EnrollmentStatusEnum.DROPPED, date),
+                new EnrollmentSummary(3L, 10L, EnrollmentStatusEnum.COMPLETED, date)));
+
+        // When
+        List<Long> result = courseService.getCourseIdsByStudent(studentId);
+
+        // Then
+        assertThat(result).containsExactly(10L, 20L);
+        verifyNoInteractions(courseRepository);
+    }
+
     @Test
     void isCourseAvailable_WhenCourseNotFound_ShouldReturnFalse() {
         // Given
@@ -281,6 +324,34 @@ public class CourseServiceTest {
         verify(courseRepository, times(1)).save(testCourse);
     }
 
+    @Test
+    void saveCourses_ShouldInsertInBatches() {
+        // Given
+        when(courseRepository.findExistingCourseCodes(any())).thenReturn(List.of());
+        when(batchInserter.insertAll(courseList)).thenReturn(courseList);
+
+        // When
+        List<Course> result = courseService.saveCourses(courseList);
+
+        // Then
+        assertThat(result).hasSize(2);
+        verify(batchInserter, times(1)).insertAll(courseList);
+        verify(courseRepository, never()).save(any(Course.class));
+    }
+
+    @Test
+    void saveCourses_WhenCourseCodeRepeatedInBatch_ShouldThrowException() {
+        // Given
+        Course duplicate = new Course();
+        duplicate.setCourseCode(testCourse.getCourseCode());
+
+        // When & Then
+        assertThatThrownBy(() -> courseService.saveCourses(List.of(testCourse, duplicate)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CS101");
+        verifyNoInteractions(batchInserter);
+    }
+
     @Test
     void deleteCourse_ShouldCallRepository() {
         // Given
@@ -292,6 +363,8 @@ public class CourseServiceTest {
 
         // Then
         verify(courseRepository, times(1)).deleteById(courseId);
+        verify(seatLedger, times(1)).evict(courseId);
+        verify(courseWaitlist, times(1)).evict(courseId);
     }
 
     @Test
@@ -309,7 +382,7 @@ public class CourseServiceTest {
         when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Course result = courseService.updateCourse(courseId, updatedCourse);
+        Course result = courseService.updateCourse(courseId, updatedCourse, null);
 
         // Then
         assertThat(result).isNotNull();
@@ -324,29 +397,78 @@ public class CourseServiceTest {
     }
 
     @Test
-    void updateCourse_WhenCourseDoesNotExist_ShouldCreateAndReturnCourse() {
+    void updateCourse_WhenMaxStudentsGrows_ShouldFillSeatsFromWaitlist() {
+        // Given
+        testCourse.setMaxStudents(30);
+        Course updatedCourse = new Course();
+        updatedCourse.setMaxStudents(35);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+        when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        courseService.updateCourse(1L, updatedCourse, null);
+
+        // Then
+        verify(enrollmentService, times(1)).fillFreeSeats(testCourse);
+    }
+
+    @Test
+    void updateCourse_WhenMaxStudentsDoesNotGrow_ShouldNotFillSeats() {
+        // Given
+        testCourse.setMaxStudents(30);
+        Course updatedCourse = new Course();
+        updatedCourse.setMaxStudents(30);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+        when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        courseService.updateCourse(1L, updatedCourse, null);
+
+        // Then
+        verify(enrollmentService, never()).fillFreeSeats(any());
+    }
+
+    @Test
+    void updateCourse_WhenCourseDoesNotExist_ShouldThrowWithoutSaving() {
         // Given
         Long courseId = 999L;
         Course newCourse = new Course();
         newCourse.setCourseCode("CS999");
-        newCourse.setTitle("New Course");
-        newCourse.setCredits(5);
-
         when(courseRepository.findById(courseId)).thenReturn(Optional.empty());
-        when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> {
-            Course savedCourse = invocation.getArgument(0);
-            return savedCourse;
-        });
+
+        // When & Then
+        assertThatThrownBy(() -> courseService.updateCourse(courseId, newCourse, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Course not found");
+        verify(courseRepository, never()).save(any(Course.class));
+    }
+
+    @Test
+    void updateCourse_WhenIfMatchIsCurrent_ShouldUpdate() {
+        // Given
+        testCourse.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        Course updatedCourse = new Course();
+        updatedCourse.setTitle("Updated Course");
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+        when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Course result = courseService.updateCourse(courseId, newCourse);
+        Course result = courseService.updateCourse(1L, updatedCourse, ETags.of(1L, testCourse.getUpdatedAt()));
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(courseId);
-        assertThat(result.getCourseCode()).isEqualTo("CS999");
-        assertThat(result.getTitle()).isEqualTo("New Course");
-        verify(courseRepository, times(1)).findById(courseId);
-        verify(courseRepository, times(1)).save(any(Course.class));
+        assertThat(result.getTitle()).isEqualTo("Updated Course");
+    }
+
+    @Test
+    void updateCourse_WhenIfMatchIsStale_ShouldThrowWithoutSaving() {
+        // Given
+        testCourse.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        String readBefore = ETags.of(1L, testCourse.getUpdatedAt().minusSeconds(1));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+
+        // When & Then
+        assertThatThrownBy(() -> courseService.updateCourse(1L, new Course(), readBefore))
+                .isInstanceOf(StaleVersionException.class);
+        verify(courseRepository, never()).save(any(Course.class));
     }
 }
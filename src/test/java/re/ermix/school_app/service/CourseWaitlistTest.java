@@ -0,0 +1,176 @@
+package re.ermix.school_app.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.WaitlistEntry;
+import re.ermix.school_app.repository.WaitlistEntryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourseWaitlistTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2023, 9, 1, 9, 0);
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Spy
+    private PrimaryReads primaryReads = new PrimaryReads(mock(PlatformTransactionManager.class), "");
+
+    @InjectMocks
+    private CourseWaitlist courseWaitlist;
+
+    private Course testCourse;
+
+    @BeforeEach
+    void setUp() {
+        testCourse = new Course();
+        testCourse.setId(1L);
+        testCourse.setCourseCode("CS101");
+        testCourse.setMaxStudents(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void entries_ShouldOrderByPriorityThenRequestTime() {
+        // Given
+        when(waitlistEntryRepository.findByCourseId(1L)).thenReturn(List.of(
+                entry(10L, 1L, 0, NINE.plusMinutes(1)),
+                entry(11L, 2L, 5, NINE.plusMinutes(2)),
+                entry(12L, 3L, 0, NINE)));
+
+        // When
+        List<WaitlistEntryResponse> entries = courseWaitlist.entries(1L);
+
+        // Then
+        assertThat(entries).extracting(WaitlistEntryResponse::studentId).containsExactly(2L, 3L, 1L);
+        assertThat(entries).extracting(WaitlistEntryResponse::position).containsExactly(1, 2, 3);
+        verify(waitlistEntryRepository, times(1)).findByCourseId(1L);
+    }
+
+    @Test
+    void join_WhenAlreadyQueued_ShouldReturnExistingPlaceWithoutInserting() {
+        // Given
+        when(waitlistEntryRepository.findByCourseId(1L)).thenReturn(List.of(
+                entry(10L, 1L, 0, NINE),
+                entry(11L, 2L, 0, NINE.plusMinutes(1))));
+
+        // When
+        WaitlistEntryResponse result = courseWaitlist.join(student(2L), testCourse, 0);
+
+        // Then
+        assertThat(result.id()).isEqualTo(11L);
+        assertThat(result.position()).isEqualTo(2);
+        verify(waitlistEntryRepository, never()).findByStudentIdAndCourseId(any(), any());
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void join_ShouldOnlyQueueEntryAfterCommit() {
+        // Given
+        when(waitlistEntryRepository.findByCourseId(1L)).thenReturn(List.of(entry(10L, 1L, 0, NINE)));
+        when(waitlistEntryRepository.findByStudentIdAndCourseId(2L, 1L)).thenReturn(Optional.empty());
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setId(11L);
+            return saved;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        WaitlistEntryResponse result = courseWaitlist.join(student(2L), testCourse, 0);
+
+        // Then
+        assertThat(result.position()).isEqualTo(2);
+        assertThat(courseWaitlist.entries(1L)).hasSize(1);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(courseWaitlist.entries(1L)).extracting(WaitlistEntryResponse::id).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void promote_WhenTransactionRollsBack_ShouldRequeueTheHead() {
+        // Given
+        WaitlistEntry head = entry(10L, 1L, 0, NINE);
+        when(waitlistEntryRepository.findByCourseId(1L)).thenReturn(List.of(head, entry(11L, 2L, 0, NINE.plusMinutes(1))));
+        when(waitlistEntryRepository.findById(10L)).thenReturn(Optional.of(head));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        Optional<WaitlistEntry> promoted = courseWaitlist.promote(1L);
+
+        // Then
+        assertThat(promoted).contains(head);
+        verify(waitlistEntryRepository, times(1)).delete(head);
+        assertThat(courseWaitlist.entries(1L)).extracting(WaitlistEntryResponse::id).containsExactly(11L);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(courseWaitlist.entries(1L)).extracting(WaitlistEntryResponse::id).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void promote_WhenHeadNoLongerExists_ShouldSkipToNextEntry() {
+        // Given
+        WaitlistEntry next = entry(11L, 2L, 0, NINE.plusMinutes(1));
+        when(waitlistEntryRepository.findByCourseId(1L)).thenReturn(List.of(entry(10L, 1L, 0, NINE), next));
+        when(waitlistEntryRepository.findById(10L)).thenReturn(Optional.empty());
+        when(waitlistEntryRepository.findById(11L)).thenReturn(Optional.of(next));
+
+        // When
+        Optional<WaitlistEntry> promoted = courseWaitlist.promote(1L);
+
+        // Then
+        assertThat(promoted).contains(next);
+        assertThat(courseWaitlist.entries(1L)).isEmpty();
+    }
+
+    @Test
+    void promote_WhenNobodyWaits_ShouldReturnEmpty() {
+        // Given
+        when(waitlistEntryRepository.findByCourseId(1L)).thenReturn(List.of());
+
+        // When & Then
+        assertThat(courseWaitlist.promote(1L)).isEmpty();
+        verify(waitlistEntryRepository, never()).delete(any());
+    }
+
+    private WaitlistEntry entry(Long id, Long studentId, int priority, LocalDateTime requestedAt) {
+        return new WaitlistEntry(id, student(studentId), testCourse, priority, requestedAt);
+    }
+
+    private static Student student(Long id) {
+        Student student = new Student();
+        student.setId(id);
+        return student;
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
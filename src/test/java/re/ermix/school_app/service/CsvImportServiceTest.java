@@ -0,0 +1,206 @@
+package re.ermix.school_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+import re.ermix.school_app.dto.ImportReport;
+import re.ermix.school_app.enums.ImportStateEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.CourseRepository;
+import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.repository.TeacherRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CsvImportServiceTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private BatchInserter batchInserter;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    private CsvImportService csvImportService;
+
+    @BeforeEach
+    void setUp() {
+        // Jobs run on the calling thread, so the report is final when the import method returns
+        csvImportService = new CsvImportService(studentRepository, teacherRepository, courseRepository,
+                batchInserter, nameSearchIndex, TransactionOperations.withoutTransaction(), Runnable::run,
+                2, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    void importStudents_ShouldInsertValidRowsInChunksAndReportRejectedOnes() throws IOException {
+        // Given
+        when(studentRepository.findAllEmails()).thenReturn(List.of("Taken@Example.com"));
+        when(batchInserter.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        String csv = """
+                FirstName,lastName,email,dateOfBirth,enrollmentDate,phoneNumber
+                John,Doe,john.doe@example.com,2005-03-15,2023-09-01,555-1234
+                Jane,Smith,not-an-email,2005-04-20,2023-09-01,
+                Mary,Jones,taken@example.com,2005-05-01,2023-09-01,
+
+                Paul,"Brown, Jr.",paul@example.com,2006-01-02,2023-09-01,
+                Anna,Lee,JOHN.DOE@example.com,2005-06-01,2023-09-01,
+                Tom,Gray,tom@example.com,15/03/2005,2023-09-01,
+                """;
+
+        // When
+        ImportReport report = csvImportService.importStudents(csv(csv));
+
+        // Then
+        assertThat(report.state()).isEqualTo(ImportStateEnum.COMPLETED);
+        assertThat(report.progressPercent()).isEqualTo(100);
+        assertThat(report.rowsRead()).isEqualTo(6);
+        assertThat(report.rowsImported()).isEqualTo(2);
+        assertThat(report.rowsRejected()).isEqualTo(4);
+        assertThat(report.errors()).extracting(ImportReport.RowError::line).containsExactly(3L, 4L, 7L, 8L);
+        assertThat(report.errors().get(0).message()).contains("email");
+        assertThat(report.errors().get(1).message()).contains("already exists");
+        assertThat(report.errors().get(3).message()).contains("dateOfBirth");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Student>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(batchInserter, times(2)).insertAll(inserted.capture());
+        assertThat(inserted.getAllValues()).flatExtracting(students -> students)
+                .extracting(student -> ((Student) student).getLastName())
+                .containsExactly("Doe", "Brown, Jr.");
+        verify(nameSearchIndex, times(2)).indexStudent(any(Student.class));
+        verify(studentRepository, times(1)).findAllEmails();
+    }
+
+    @Test
+    void importStudents_WithMissingColumn_ShouldFailWithoutInserting() throws IOException {
+        // Given
+        when(studentRepository.findAllEmails()).thenReturn(List.of());
+
+        // When
+        ImportReport report = csvImportService.importStudents(csv("firstName,lastName,email\nJohn,Doe,j@example.com\n"));
+
+        // Then
+        assertThat(report.state()).isEqualTo(ImportStateEnum.FAILED);
+        assertThat(report.failure()).contains("dateOfBirth", "enrollmentDate");
+        verifyNoInteractions(batchInserter);
+    }
+
+    @Test
+    void importTeachers_WhenChunkInsertFails_ShouldRetryItsRowsInHalves() throws IOException {
+        // Given
+        when(teacherRepository.findAllEmails()).thenReturn(List.of());
+        when(batchInserter.insertAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Deadlock found"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        String csv = """
+                firstName,lastName,email,hireDate
+                Ada,One,a1@example.com,2020-01-01
+                Ada,Two,a2@example.com,2020-01-01
+                Ada,Three,a3@example.com,2020-01-01
+                """;
+
+        // When
+        ImportReport report = csvImportService.importTeachers(csv(csv));
+
+        // Then
+        assertThat(report.state()).isEqualTo(ImportStateEnum.COMPLETED);
+        assertThat(report.rowsImported()).isEqualTo(3);
+        assertThat(report.rowsRejected()).isZero();
+        verify(batchInserter, times(4)).insertAll(anyList());
+    }
+
+    @Test
+    void importStudents_WhenOneRowIsRefused_ShouldOnlyRejectThatRowWithItsReason() throws IOException {
+        // Given
+        csvImportService = new CsvImportService(studentRepository, teacherRepository, courseRepository,
+                batchInserter, nameSearchIndex, TransactionOperations.withoutTransaction(), Runnable::run,
+                1000, 100, Duration.ofHours(1));
+        when(studentRepository.findAllEmails()).thenReturn(List.of());
+        when(batchInserter.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Student> students = invocation.getArgument(0);
+            if (students.stream().anyMatch(student -> student.getEmail().equals("s3@example.com"))) {
+                throw new DataIntegrityViolationException("Could not execute statement",
+                        new SQLException("Data too long for column 'address' at row 3"));
+            }
+            return students;
+        });
+        StringBuilder csv = new StringBuilder("firstName,lastName,email,dateOfBirth,enrollmentDate\n");
+        for (int i = 1; i <= 8; i++) {
+            csv.append("Sam,Row").append(i).append(",s").append(i).append("@example.com,2005-01-01,2023-09-01\n");
+        }
+
+        // When
+        ImportReport report = csvImportService.importStudents(csv(csv.toString()));
+
+        // Then
+        assertThat(report.rowsImported()).isEqualTo(7);
+        assertThat(report.rowsRejected()).isEqualTo(1);
+        assertThat(report.errors()).containsExactly(
+                new ImportReport.RowError(4L, "Not inserted: Data too long for column 'address' at row 3"));
+        verify(nameSearchIndex, times(7)).indexStudent(any());
+    }
+
+    @Test
+    void importCourses_ShouldRejectUnknownTeachers() throws IOException {
+        // Given
+        when(teacherRepository.findAllIds()).thenReturn(List.of(7L));
+        when(courseRepository.findAllCourseCodes()).thenReturn(List.of());
+        when(batchInserter.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        String csv = """
+                courseCode,title,credits,maxStudents,teacherId
+                CS101,Intro,3,30,7
+                CS102,Data,3,,8
+                """;
+
+        // When
+        ImportReport report = csvImportService.importCourses(csv(csv));
+
+        // Then
+        assertThat(report.rowsImported()).isEqualTo(1);
+        assertThat(report.errors()).containsExactly(new ImportReport.RowError(3, "Teacher not found with id: 8"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Course>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(batchInserter).insertAll(inserted.capture());
+        Course course = inserted.getValue().get(0);
+        assertThat(course.getTeacher().getId()).isEqualTo(7L);
+        assertThat(course.getMaxStudents()).isEqualTo(30);
+    }
+
+    @Test
+    void getReport_WithUnknownId_ShouldReturnEmpty() {
+        // When / Then
+        assertThat(csvImportService.getReport("missing")).isEmpty();
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
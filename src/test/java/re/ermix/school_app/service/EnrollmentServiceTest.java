@@ -6,15 +6,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.dto.WaitlistEntryResponse;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
 import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.CourseMeeting;
 import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Grade;
 import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.WaitlistEntry;
 import re.ermix.school_app.repository.CourseRepository;
 import re.ermix.school_app.repository.EnrollmentRepository;
 import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.util.Cursors;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -37,7 +50,22 @@ public class EnrollmentServiceTest {
     private CourseRepository courseRepository;
 
     @Mock
-    private CourseService courseService;
+    private CourseSeatLedger seatLedger;
+
+    @Mock
+    private GradeAggregateService gradeAggregateService;
+
+    @Mock
+    private StudentEnrollmentCache studentEnrollmentCache;
+
+    @Mock
+    private ChangeOutbox changeOutbox;
+
+    @Mock
+    private CourseWaitlist courseWaitlist;
+
+    @Mock
+    private StudentScheduleIndex studentScheduleIndex;
 
     @InjectMocks
     private EnrollmentService enrollmentService;
@@ -146,6 +174,36 @@ public class EnrollmentServiceTest {
         verify(enrollmentRepository, times(1)).findByCourseId(courseId);
     }
 
+    @Test
+    void getCourseRoster_ShouldReturnEnrollmentsWithStudents() {
+        // Given
+        Long courseId = 1L;
+        List<Enrollment> enrollments = Arrays.asList(testEnrollment);
+        when(enrollmentRepository.findRosterByCourseId(courseId)).thenReturn(enrollments);
+
+        // When
+        List<Enrollment> result = enrollmentService.getCourseRoster(courseId);
+
+        // Then
+        assertThat(result).isEqualTo(enrollments);
+        verify(enrollmentRepository, times(1)).findRosterByCourseId(courseId);
+    }
+
+    @Test
+    void getStudentSchedule_ShouldReturnEnrollmentsWithCourses() {
+        // Given
+        Long studentId = 1L;
+        List<Enrollment> enrollments = Arrays.asList(testEnrollment);
+        when(enrollmentRepository.findScheduleByStudentId(studentId)).thenReturn(enrollments);
+
+        // When
+        List<Enrollment> result = enrollmentService.getStudentSchedule(studentId);
+
+        // Then
+        assertThat(result).isEqualTo(enrollments);
+        verify(enrollmentRepository, times(1)).findScheduleByStudentId(studentId);
+    }
+
     @Test
     void getEnrollmentByStudentAndCourse_WhenEnrollmentExists_ShouldReturnEnrollment() {
         // Given
@@ -180,6 +238,22 @@ public class EnrollmentServiceTest {
         verify(enrollmentRepository, times(1)).findByStatus(status);
     }
 
+    @Test
+    void getEnrollmentsByStatusPage_WhenLastPage_ShouldHaveNoNextCursor() {
+        // Given
+        EnrollmentStatusEnum status = EnrollmentStatusEnum.ACTIVE;
+        when(enrollmentRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, 0L, Limit.of(51)))
+                .thenReturn(List.of(testEnrollment));
+
+        // When
+        CursorPage<Enrollment> result = enrollmentService.getEnrollmentsByStatusPage(status, 0L, 50);
+
+        // Then
+        assertThat(result.items()).containsExactly(testEnrollment);
+        assertThat(result.next()).isNull();
+        verify(enrollmentRepository, times(1)).findByStatusAndIdGreaterThanOrderByIdAsc(status, 0L, Limit.of(51));
+    }
+
     @Test
     void getEnrollmentsByDateRange_ShouldReturnEnrollmentsInDateRange() {
         // Given
@@ -197,6 +271,23 @@ public class EnrollmentServiceTest {
         verify(enrollmentRepository, times(1)).findByEnrollmentDateBetween(startDate, endDate);
     }
 
+    @Test
+    void getEnrollmentsByDateRangePage_ShouldContinueAfterTheCursorsDateAndId() {
+        // Given
+        LocalDate startDate = LocalDate.of(2023, 8, 1);
+        LocalDate endDate = LocalDate.of(2023, 10, 1);
+        Cursors.DatedId after = new Cursors.DatedId(LocalDate.of(2023, 9, 1), 7L);
+        when(enrollmentRepository.findPageByEnrollmentDateBetween(startDate, endDate, after.date(), 7L, Limit.of(51)))
+                .thenReturn(List.of(testEnrollment));
+
+        // When
+        CursorPage<Enrollment> result = enrollmentService.getEnrollmentsByDateRangePage(startDate, endDate, after, 50);
+
+        // Then
+        assertThat(result.items()).containsExactly(testEnrollment);
+        assertThat(result.next()).isNull();
+    }
+
     @Test
     void getEnrollmentsByStudentAndStatus_ShouldReturnMatchingEnrollments() {
         // Given
@@ -214,6 +305,39 @@ public class EnrollmentServiceTest {
         verify(enrollmentRepository, times(1)).findByStudentIdAndStatus(studentId, status);
     }
 
+    @Test
+    void getEnrollmentSummariesByStudent_ShouldReadFromCache() {
+        // Given
+        Long studentId = 1L;
+        List<EnrollmentSummary> summaries = List.of(
+                new EnrollmentSummary(1L, 1L, EnrollmentStatusEnum.ACTIVE, LocalDate.now()));
+        when(studentEnrollmentCache.get(studentId)).thenReturn(summaries);
+
+        // When
+        List<EnrollmentSummary> result = enrollmentService.getEnrollmentSummariesByStudent(studentId);
+
+        // Then
+        assertThat(result).isEqualTo(summaries);
+        verifyNoInteractions(enrollmentRepository);
+    }
+
+    @Test
+    void getEnrollmentSummariesByStudentAndStatus_ShouldFilterCachedEnrollments() {
+        // Given
+        Long studentId = 1L;
+        EnrollmentSummary active = new EnrollmentSummary(1L, 1L, EnrollmentStatusEnum.ACTIVE, LocalDate.now());
+        EnrollmentSummary dropped = new EnrollmentSummary(2L, 2L, EnrollmentStatusEnum.DROPPED, LocalDate.now());
+        when(studentEnrollmentCache.get(studentId)).thenReturn(List.of(active, dropped));
+
+        // When
+        List<EnrollmentSummary> result = enrollmentService.getEnrollmentSummariesByStudentAndStatus(
+                studentId, EnrollmentStatusEnum.DROPPED);
+
+        // Then
+        assertThat(result).containsExactly(dropped);
+        verifyNoInteractions(enrollmentRepository);
+    }
+
     @Test
     void getEnrollmentsByCourseAndStatus_ShouldReturnMatchingEnrollments() {
         // Given
@@ -238,10 +362,10 @@ public class EnrollmentServiceTest {
         Long courseId = 1L;
         LocalDate enrollmentDate = LocalDate.now();
 
-        when(studentRepository.findById(studentId)).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(courseId)).thenReturn(Optional.of(testCourse));
         when(enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId)).thenReturn(Optional.empty());
-        when(courseService.isCourseAvailable(courseId)).thenReturn(true);
+        when(seatLedger.tryReserve(testCourse)).thenReturn(true);
         when(enrollmentRepository.save(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -253,11 +377,13 @@ public class EnrollmentServiceTest {
         assertThat(result.getCourse().getId()).isEqualTo(courseId);
         assertThat(result.getEnrollmentDate()).isEqualTo(enrollmentDate);
         assertThat(result.getStatus()).isEqualTo(EnrollmentStatusEnum.ACTIVE);
-        verify(studentRepository, times(1)).findById(studentId);
+        verify(studentRepository, times(1)).findForUpdateById(studentId);
         verify(courseRepository, times(1)).findById(courseId);
         verify(enrollmentRepository, times(1)).findByStudentIdAndCourseId(studentId, courseId);
-        verify(courseService, times(1)).isCourseAvailable(courseId);
+        verify(seatLedger, times(1)).tryReserve(testCourse);
         verify(enrollmentRepository, times(1)).save(any(Enrollment.class));
+        verify(studentEnrollmentCache, times(1)).invalidate(studentId);
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.ENROLLMENT), eq(ChangeTypeEnum.CREATED), any(), any());
     }
 
     @Test
@@ -267,14 +393,14 @@ public class EnrollmentServiceTest {
         Long courseId = 1L;
         LocalDate enrollmentDate = LocalDate.now();
 
-        when(studentRepository.findById(studentId)).thenReturn(Optional.empty());
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> enrollmentService.enrollStudentInCourse(studentId, courseId, enrollmentDate))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Student not found");
 
-        verify(studentRepository, times(1)).findById(studentId);
+        verify(studentRepository, times(1)).findForUpdateById(studentId);
         verify(courseRepository, never()).findById(any());
         verify(enrollmentRepository, never()).save(any());
     }
@@ -286,7 +412,7 @@ public class EnrollmentServiceTest {
         Long courseId = 999L;
         LocalDate enrollmentDate = LocalDate.now();
 
-        when(studentRepository.findById(studentId)).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(courseId)).thenReturn(Optional.empty());
 
         // When & Then
@@ -294,7 +420,7 @@ public class EnrollmentServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Course not found");
 
-        verify(studentRepository, times(1)).findById(studentId);
+        verify(studentRepository, times(1)).findForUpdateById(studentId);
         verify(courseRepository, times(1)).findById(courseId);
         verify(enrollmentRepository, never()).save(any());
     }
@@ -306,7 +432,7 @@ public class EnrollmentServiceTest {
         Long courseId = 1L;
         LocalDate enrollmentDate = LocalDate.now();
 
-        when(studentRepository.findById(studentId)).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(courseId)).thenReturn(Optional.of(testCourse));
         when(enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId))
                 .thenReturn(Optional.of(testEnrollment)); // Active enrollment
@@ -316,12 +442,55 @@ public class EnrollmentServiceTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("already enrolled");
 
-        verify(studentRepository, times(1)).findById(studentId);
+        verify(studentRepository, times(1)).findForUpdateById(studentId);
         verify(courseRepository, times(1)).findById(courseId);
         verify(enrollmentRepository, times(1)).findByStudentIdAndCourseId(studentId, courseId);
         verify(enrollmentRepository, never()).save(any());
     }
 
+    @Test
+    void enrollStudentInCourse_WhenAlreadyCompleted_ShouldThrowWithoutWaitlisting() {
+        // Given
+        testEnrollment.setStatus(EnrollmentStatusEnum.COMPLETED);
+        when(studentRepository.findForUpdateById(1L)).thenReturn(Optional.of(testStudent));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+        when(enrollmentRepository.findByStudentIdAndCourseId(1L, 1L)).thenReturn(Optional.of(testEnrollment));
+
+        // When & Then
+        assertThatThrownBy(() -> enrollmentService.enrollStudentInCourse(1L, 1L, LocalDate.now()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already completed");
+
+        verify(seatLedger, never()).tryReserve(any());
+        verify(courseWaitlist, never()).join(any(), any(), anyInt());
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    void enrollStudentInCourse_WhenMeetingsOverlap_ShouldThrowException() {
+        // Given
+        Long studentId = 1L;
+        Long courseId = 1L;
+        LocalDate enrollmentDate = LocalDate.now();
+        testCourse.getMeetings().add(new CourseMeeting(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 30)));
+
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.of(testStudent));
+        when(courseRepository.findById(courseId)).thenReturn(Optional.of(testCourse));
+        when(enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId)).thenReturn(Optional.empty());
+        when(studentScheduleIndex.currentConflictingCourses(studentId, courseId, testCourse.getMeetings()))
+                .thenReturn(List.of(7L));
+
+        // When & Then
+        assertThatThrownBy(() -> enrollmentService.enrollStudentInCourse(studentId, courseId, enrollmentDate))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("overlap")
+                .hasMessageContaining("7");
+
+        verify(seatLedger, never()).tryReserve(any());
+        verify(courseWaitlist, never()).join(any(), any(), anyInt());
+        verify(enrollmentRepository, never()).save(any());
+    }
+
     @Test
     void enrollStudentInCourse_WhenPreviouslyDropped_ShouldReactivateEnrollment() {
         // Given
@@ -335,10 +504,11 @@ public class EnrollmentServiceTest {
         droppedEnrollment.setCourse(testCourse);
         droppedEnrollment.setStatus(EnrollmentStatusEnum.DROPPED);
 
-        when(studentRepository.findById(studentId)).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(courseId)).thenReturn(Optional.of(testCourse));
         when(enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId))
                 .thenReturn(Optional.of(droppedEnrollment)); 
+        when(seatLedger.tryReserve(testCourse)).thenReturn(true);
         when(enrollmentRepository.save(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -349,6 +519,7 @@ public class EnrollmentServiceTest {
         assertThat(result.getStatus()).isEqualTo(EnrollmentStatusEnum.ACTIVE);
         assertThat(result.getEnrollmentDate()).isEqualTo(enrollmentDate);
         verify(enrollmentRepository, times(1)).save(any(Enrollment.class));
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.ENROLLMENT), eq(ChangeTypeEnum.UPDATED), eq(1L), any());
     }
 
     @Test
@@ -358,21 +529,104 @@ public class EnrollmentServiceTest {
         Long courseId = 1L;
         LocalDate enrollmentDate = LocalDate.now();
 
-        when(studentRepository.findById(studentId)).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findForUpdateById(studentId)).thenReturn(Optional.of(testStudent));
         when(courseRepository.findById(courseId)).thenReturn(Optional.of(testCourse));
         when(enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId)).thenReturn(Optional.empty());
-        when(courseService.isCourseAvailable(courseId)).thenReturn(false);
+        when(seatLedger.tryReserve(testCourse)).thenReturn(false);
+        WaitlistEntryResponse waitlistEntry = new WaitlistEntryResponse(5L, studentId, courseId, 3, 0,
+                LocalDateTime.of(2023, 9, 1, 9, 0));
+        when(courseWaitlist.join(testStudent, testCourse, 0)).thenReturn(waitlistEntry);
 
         // When & Then
         assertThatThrownBy(() -> enrollmentService.enrollStudentInCourse(studentId, courseId, enrollmentDate))
-                .isInstanceOf(IllegalStateException.class)
-                .hasMessageContaining("Course is full");
+                .isInstanceOf(CourseFullException.class)
+                .hasMessageContaining("Course is full")
+                .extracting("waitlistEntry").isEqualTo(waitlistEntry);
 
-        verify(studentRepository, times(1)).findById(studentId);
+        verify(studentRepository, times(1)).findForUpdateById(studentId);
         verify(courseRepository, times(1)).findById(courseId);
         verify(enrollmentRepository, times(1)).findByStudentIdAndCourseId(studentId, courseId);
-        verify(courseService, times(1)).isCourseAvailable(courseId);
+        verify(seatLedger, times(1)).tryReserve(testCourse);
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    void updateEnrollmentStatus_WhenDroppedWhileStudentsWait_ShouldHandSeatToWaitlistHead() {
+        // Given
+        Student waitingStudent = new Student();
+        waitingStudent.setId(2L);
+        WaitlistEntry head = new WaitlistEntry(7L, waitingStudent, testCourse, 0, LocalDateTime.of(2023, 9, 1, 9, 0));
+        when(studentRepository.findForUpdateById(2L)).thenReturn(Optional.of(waitingStudent));
+        when(enrollmentRepository.findById(1L)).thenReturn(Optional.of(testEnrollment));
+        when(enrollmentRepository.save(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(courseWaitlist.promote(testCourse.getId())).thenReturn(Optional.of(head));
+        when(enrollmentRepository.findByStudentIdAndCourseId(2L, testCourse.getId())).thenReturn(Optional.empty());
+
+        // When
+        Enrollment result = enrollmentService.updateEnrollmentStatus(1L, EnrollmentStatusEnum.DROPPED);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(EnrollmentStatusEnum.DROPPED);
+        assertThat(waitingStudent.getEnrollments()).singleElement().satisfies(promoted -> {
+            assertThat(promoted.getCourse()).isEqualTo(testCourse);
+            assertThat(promoted.getStatus()).isEqualTo(EnrollmentStatusEnum.ACTIVE);
+        });
+        verify(seatLedger, never()).release(any());
+        verify(seatLedger, never()).tryReserve(any());
+        verify(studentEnrollmentCache, times(1)).invalidate(2L);
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.ENROLLMENT), eq(ChangeTypeEnum.CREATED), any(), any());
+    }
+
+    @Test
+    void deleteEnrollment_WhenPromotedStudentCompletedTheCourse_ShouldSkipThemAndReleaseTheSeat() {
+        // Given
+        Student waitingStudent = new Student();
+        waitingStudent.setId(2L);
+        Enrollment completed = new Enrollment();
+        completed.setId(2L);
+        completed.setStudent(waitingStudent);
+        completed.setCourse(testCourse);
+        completed.setStatus(EnrollmentStatusEnum.COMPLETED);
+        WaitlistEntry head = new WaitlistEntry(7L, waitingStudent, testCourse, 0, LocalDateTime.of(2023, 9, 1, 9, 0));
+        when(studentRepository.findForUpdateById(2L)).thenReturn(Optional.of(waitingStudent));
+        when(enrollmentRepository.findById(1L)).thenReturn(Optional.of(testEnrollment));
+        when(courseWaitlist.promote(testCourse.getId())).thenReturn(Optional.of(head), Optional.empty());
+        when(enrollmentRepository.findByStudentIdAndCourseId(2L, testCourse.getId())).thenReturn(Optional.of(completed));
+
+        // When
+        enrollmentService.deleteEnrollment(1L);
+
+        // Then
+        assertThat(completed.getStatus()).isEqualTo(EnrollmentStatusEnum.COMPLETED);
         verify(enrollmentRepository, never()).save(any());
+        verify(seatLedger, times(1)).release(testCourse.getId());
+    }
+
+    @Test
+    void deleteEnrollment_WhenPromotedStudentDroppedBefore_ShouldReactivateTheirEnrollment() {
+        // Given
+        Student waitingStudent = new Student();
+        waitingStudent.setId(2L);
+        Enrollment dropped = new Enrollment();
+        dropped.setId(2L);
+        dropped.setStudent(waitingStudent);
+        dropped.setCourse(testCourse);
+        dropped.setStatus(EnrollmentStatusEnum.DROPPED);
+        WaitlistEntry head = new WaitlistEntry(7L, waitingStudent, testCourse, 0, LocalDateTime.of(2023, 9, 1, 9, 0));
+        when(studentRepository.findForUpdateById(2L)).thenReturn(Optional.of(waitingStudent));
+        when(enrollmentRepository.findById(1L)).thenReturn(Optional.of(testEnrollment));
+        when(courseWaitlist.promote(testCourse.getId())).thenReturn(Optional.of(head));
+        when(enrollmentRepository.findByStudentIdAndCourseId(2L, testCourse.getId())).thenReturn(Optional.of(dropped));
+        when(enrollmentRepository.save(dropped)).thenReturn(dropped);
+
+        // When
+        enrollmentService.deleteEnrollment(1L);
+
+        // Then
+        assertThat(dropped.getStatus()).isEqualTo(EnrollmentStatusEnum.ACTIVE);
+        verify(enrollmentRepository, times(1)).deleteById(1L);
+        verify(seatLedger, never()).release(any());
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.ENROLLMENT), eq(ChangeTypeEnum.UPDATED), eq(2L), any());
     }
 
     @Test
@@ -397,6 +651,47 @@ public class EnrollmentServiceTest {
         assertThat(result.getStatus()).isEqualTo(newStatus);
         verify(enrollmentRepository, times(1)).findById(enrollmentId);
         verify(enrollmentRepository, times(1)).save(any(Enrollment.class));
+        verify(seatLedger, times(1)).release(testCourse.getId());
+        verify(studentEnrollmentCache, times(1)).invalidate(testStudent.getId());
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.ENROLLMENT), eq(ChangeTypeEnum.UPDATED), eq(enrollmentId), any());
+    }
+
+    @Test
+    void updateEnrollmentStatus_WhenReactivatingIntoFullCourse_ShouldThrowException() {
+        // Given
+        Long enrollmentId = 1L;
+        testEnrollment.setStatus(EnrollmentStatusEnum.DROPPED);
+        when(enrollmentRepository.findById(enrollmentId)).thenReturn(Optional.of(testEnrollment));
+        when(studentRepository.findForUpdateById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+        when(seatLedger.tryReserve(testCourse)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> enrollmentService.updateEnrollmentStatus(enrollmentId, EnrollmentStatusEnum.ACTIVE))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Course is full");
+
+        assertThat(testEnrollment.getStatus()).isEqualTo(EnrollmentStatusEnum.DROPPED);
+        verify(studentRepository, times(1)).findForUpdateById(testStudent.getId());
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteEnrollment_WhenPromotedStudentWasDeleted_ShouldSkipThem() {
+        // Given
+        Student deletedStudent = new Student();
+        deletedStudent.setId(2L);
+        WaitlistEntry head = new WaitlistEntry(7L, deletedStudent, testCourse, 0, LocalDateTime.of(2023, 9, 1, 9, 0));
+        when(enrollmentRepository.findById(1L)).thenReturn(Optional.of(testEnrollment));
+        when(courseWaitlist.promote(testCourse.getId())).thenReturn(Optional.of(head), Optional.empty());
+        when(studentRepository.findForUpdateById(2L)).thenReturn(Optional.empty());
+
+        // When
+        enrollmentService.deleteEnrollment(1L);
+
+        // Then
+        verify(enrollmentRepository, never()).findByStudentIdAndCourseId(any(), any());
+        verify(enrollmentRepository, never()).save(any());
+        verify(seatLedger, times(1)).release(testCourse.getId());
     }
 
     @Test
@@ -416,10 +711,68 @@ public class EnrollmentServiceTest {
         verify(enrollmentRepository, never()).save(any());
     }
 
+    @Test
+    void freeSeats_ShouldOnlyFreeSeatsOfActiveEnrollments() {
+        // Given
+        Course otherCourse = new Course();
+        otherCourse.setId(2L);
+        Enrollment completed = new Enrollment();
+        completed.setCourse(otherCourse);
+        completed.setStatus(EnrollmentStatusEnum.COMPLETED);
+
+        // When
+        enrollmentService.freeSeats(List.of(testEnrollment, completed));
+
+        // Then
+        verify(courseWaitlist, times(1)).promote(testCourse.getId());
+        verify(seatLedger, times(1)).release(testCourse.getId());
+        verify(courseWaitlist, never()).promote(2L);
+        verify(seatLedger, never()).release(2L);
+    }
+
+    @Test
+    void fillFreeSeats_ShouldPromoteUntilFullThenStop() {
+        // Given
+        Student first = new Student();
+        first.setId(2L);
+        Student second = new Student();
+        second.setId(3L);
+        when(seatLedger.tryReserve(testCourse)).thenReturn(true, true, false);
+        when(studentRepository.findForUpdateById(2L)).thenReturn(Optional.of(first));
+        when(studentRepository.findForUpdateById(3L)).thenReturn(Optional.of(second));
+        when(courseWaitlist.promote(testCourse.getId())).thenReturn(
+                Optional.of(new WaitlistEntry(7L, first, testCourse, 0, LocalDateTime.of(2023, 9, 1, 9, 0))),
+                Optional.of(new WaitlistEntry(8L, second, testCourse, 0, LocalDateTime.of(2023, 9, 1, 9, 5))));
+        when(enrollmentRepository.save(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        enrollmentService.fillFreeSeats(testCourse);
+
+        // Then
+        assertThat(first.getEnrollments()).hasSize(1);
+        assertThat(second.getEnrollments()).hasSize(1);
+        verify(seatLedger, times(3)).tryReserve(testCourse);
+        verify(seatLedger, never()).release(any());
+    }
+
+    @Test
+    void fillFreeSeats_WhenNobodyWaits_ShouldGiveTheSeatBack() {
+        // Given
+        when(seatLedger.tryReserve(testCourse)).thenReturn(true);
+
+        // When
+        enrollmentService.fillFreeSeats(testCourse);
+
+        // Then
+        verify(seatLedger, times(1)).tryReserve(testCourse);
+        verify(seatLedger, times(1)).release(testCourse.getId());
+    }
+
     @Test
     void deleteEnrollment_ShouldCallRepositoryDeleteMethod() {
         // Given
         Long enrollmentId = 1L;
+        when(enrollmentRepository.findById(enrollmentId)).thenReturn(Optional.of(testEnrollment));
         doNothing().when(enrollmentRepository).deleteById(enrollmentId);
 
         // When
@@ -427,5 +780,31 @@ public class EnrollmentServiceTest {
 
         // Then
         verify(enrollmentRepository, times(1)).deleteById(enrollmentId);
+        verify(seatLedger, times(1)).release(testCourse.getId());
+        verify(gradeAggregateService, times(1)).removeEnrollment(testEnrollment);
+        verify(studentEnrollmentCache, times(1)).invalidate(testStudent.getId());
+        verify(changeOutbox, times(1)).recordAll(List.of(
+                new ChangeOutbox.Change(ChangeEntityEnum.ENROLLMENT, ChangeTypeEnum.DELETED, enrollmentId, null)));
+    }
+
+    @Test
+    void deleteEnrollment_WhenItHasGrades_ShouldPublishTheirDeletionsWithIt() {
+        // Given
+        Grade midterm = new Grade();
+        midterm.setId(7L);
+        Grade finalExam = new Grade();
+        finalExam.setId(5L);
+        testEnrollment.addGrade(midterm);
+        testEnrollment.addGrade(finalExam);
+        when(enrollmentRepository.findById(1L)).thenReturn(Optional.of(testEnrollment));
+
+        // When
+        enrollmentService.deleteEnrollment(1L);
+
+        // Then
+        verify(changeOutbox, times(1)).recordAll(List.of(
+                new ChangeOutbox.Change(ChangeEntityEnum.GRADE, ChangeTypeEnum.DELETED, 5L, null),
+                new ChangeOutbox.Change(ChangeEntityEnum.GRADE, ChangeTypeEnum.DELETED, 7L, null),
+                new ChangeOutbox.Change(ChangeEntityEnum.ENROLLMENT, ChangeTypeEnum.DELETED, 1L, null)));
     }
 }
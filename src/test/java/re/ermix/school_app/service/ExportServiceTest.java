@@ -0,0 +1,102 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import re.ermix.school_app.dto.EnrollmentResponse;
+import re.ermix.school_app.dto.GradeResponse;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.enums.GradeTypeEnum;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.repository.GradeRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportServiceTest {
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(gradeRepository, enrollmentRepository, objectMapper);
+    }
+
+    @Test
+    void exportGrades_ShouldWriteOneJsonObjectPerLineAndCloseStream() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<GradeResponse> rows = Stream.of(
+                new GradeResponse(1L, 10L, new BigDecimal("85.00"), GradeTypeEnum.MIDTERM, "Good work",
+                        LocalDate.of(2023, 10, 15)),
+                new GradeResponse(2L, 10L, new BigDecimal("90.50"), GradeTypeEnum.FINAL, null,
+                        LocalDate.of(2023, 12, 15))
+        ).onClose(() -> closed.set(true));
+        when(gradeRepository.streamAllForExport()).thenReturn(rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportGrades(out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":1", "\"enrollmentId\":10", "\"gradeType\":\"MIDTERM\"",
+                "\"dateRecorded\":\"2023-10-15\"");
+        assertThat(lines[1]).contains("\"id\":2", "\"gradeValue\":90.50");
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        assertThat(closed).isTrue();
+        verify(gradeRepository, times(1)).streamAllForExport();
+        verify(gradeRepository, never()).findAll();
+    }
+
+    @Test
+    void exportEnrollments_WhenNoRows_ShouldWriteNothing() throws Exception {
+        // Given
+        when(enrollmentRepository.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportEnrollments(out);
+
+        // Then
+        assertThat(count).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void exportEnrollments_ShouldWriteFlatRows() throws Exception {
+        // Given
+        when(enrollmentRepository.streamAllForExport()).thenReturn(Stream.of(
+                new EnrollmentResponse(5L, 1L, 2L, LocalDate.of(2023, 9, 1), EnrollmentStatusEnum.ACTIVE)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportEnrollments(out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":5,\"studentId\":1,\"courseId\":2,\"enrollmentDate\":\"2023-09-01\",\"status\":\"ACTIVE\"}\n");
+    }
+}
@@ -0,0 +1,222 @@
+package re.ermix.school_app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import re.ermix.school_app.enums.GradeAggregateScopeEnum;
+import re.ermix.school_app.model.Course;
+import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.GradeAggregate;
+import re.ermix.school_app.model.GradeAggregateId;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.GradeAggregateRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GradeAggregateServiceTest {
+
+    @Mock
+    private GradeAggregateRepository gradeAggregateRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private GradeAggregateService gradeAggregateService;
+
+    private Enrollment testEnrollment;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gradeAggregateService = new GradeAggregateService(gradeAggregateRepository, meterRegistry);
+
+        Student student = new Student();
+        student.setId(2L);
+
+        Course course = new Course();
+        course.setId(3L);
+
+        testEnrollment = new Enrollment();
+        testEnrollment.setId(1L);
+        testEnrollment.setStudent(student);
+        testEnrollment.setCourse(course);
+    }
+
+    @Test
+    void getAverage_ShouldDivideSumByCount() {
+        // Given
+        GradeAggregateId id = new GradeAggregateId(GradeAggregateScopeEnum.STUDENT, 2L);
+        GradeAggregate aggregate = new GradeAggregate();
+        aggregate.setId(id);
+        aggregate.setGradeSum(new BigDecimal("250.00"));
+        aggregate.setGradeCount(3L);
+        when(gradeAggregateRepository.findById(id)).thenReturn(Optional.of(aggregate));
+
+        // When
+        BigDecimal result = gradeAggregateService.getAverage(GradeAggregateScopeEnum.STUDENT, 2L);
+
+        // Then
+        assertThat(result).isEqualByComparingTo("83.33");
+    }
+
+    @Test
+    void getAverage_WhenNoAggregate_ShouldReturnNull() {
+        // Given
+        when(gradeAggregateRepository.findById(any(GradeAggregateId.class))).thenReturn(Optional.empty());
+
+        // When
+        BigDecimal result = gradeAggregateService.getAverage(GradeAggregateScopeEnum.COURSE, 3L);
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void getAverage_WhenIdenticalReadInFlight_ShouldShareItsLookup() throws Exception {
+        // Given
+        GradeAggregateId id = new GradeAggregateId(GradeAggregateScopeEnum.COURSE, 3L);
+        GradeAggregate aggregate = new GradeAggregate();
+        aggregate.setId(id);
+        aggregate.setGradeSum(new BigDecimal("170.00"));
+        aggregate.setGradeCount(2L);
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+        when(gradeAggregateRepository.findById(id)).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            releaseLookup.await(5, TimeUnit.SECONDS);
+            return Optional.of(aggregate);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<BigDecimal> leader = executor.submit(() -> gradeAggregateService.getAverage(GradeAggregateScopeEnum.COURSE, 3L));
+            lookupStarted.await(5, TimeUnit.SECONDS);
+            Future<BigDecimal> follower = executor.submit(() -> gradeAggregateService.getAverage(GradeAggregateScopeEnum.COURSE, 3L));
+            while (meterRegistry.get("school.single.flight.calls").tag("result", "coalesced")
+                    .functionCounter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            releaseLookup.countDown();
+
+            // Then
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("85.00");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("85.00");
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(gradeAggregateRepository, times(1)).findById(id);
+        assertThat(meterRegistry.get("school.single.flight.calls").tag("name", GradeAggregateService.FLIGHT_NAME)
+                .tag("result", "executed").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("school.single.flight.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void recordGrades_ShouldUpsertEveryScopeOnceForAllGrades() {
+        // Given
+        List<Long> gradeIds = List.of(10L, 11L, 12L);
+
+        // When
+        gradeAggregateService.recordGrades(gradeIds);
+
+        // Then
+        verify(gradeAggregateRepository).addEnrollmentDeltas(gradeIds);
+        verify(gradeAggregateRepository).addStudentDeltas(gradeIds);
+        verify(gradeAggregateRepository).addCourseDeltas(gradeIds);
+        verifyNoMoreInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    void recordGrade_ShouldApplyDeltaToEveryScope() {
+        // Given
+        BigDecimal value = new BigDecimal("90.00");
+
+        // When
+        gradeAggregateService.recordGrade(testEnrollment, value);
+
+        // Then
+        verify(gradeAggregateRepository).applyDelta("ENROLLMENT", 1L, value, 1);
+        verify(gradeAggregateRepository).applyDelta("STUDENT", 2L, value, 1);
+        verify(gradeAggregateRepository).applyDelta("COURSE", 3L, value, 1);
+    }
+
+    @Test
+    void changeGrade_ShouldApplyDifferenceWithoutChangingCount() {
+        // When
+        gradeAggregateService.changeGrade(testEnrollment, new BigDecimal("80.00"), new BigDecimal("85.50"));
+
+        // Then
+        verify(gradeAggregateRepository).applyDelta("ENROLLMENT", 1L, new BigDecimal("5.50"), 0);
+        verify(gradeAggregateRepository).applyDelta("STUDENT", 2L, new BigDecimal("5.50"), 0);
+        verify(gradeAggregateRepository).applyDelta("COURSE", 3L, new BigDecimal("5.50"), 0);
+    }
+
+    @Test
+    void changeGrade_WhenValueUnchanged_ShouldNotTouchAggregates() {
+        // When
+        gradeAggregateService.changeGrade(testEnrollment, new BigDecimal("80.00"), new BigDecimal("80.0"));
+
+        // Then
+        verifyNoInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    void removeGrade_ShouldSubtractFromEveryScope() {
+        // When
+        gradeAggregateService.removeGrade(testEnrollment, new BigDecimal("70.00"));
+
+        // Then
+        verify(gradeAggregateRepository).applyDelta("ENROLLMENT", 1L, new BigDecimal("-70.00"), -1);
+        verify(gradeAggregateRepository).applyDelta("STUDENT", 2L, new BigDecimal("-70.00"), -1);
+        verify(gradeAggregateRepository).applyDelta("COURSE", 3L, new BigDecimal("-70.00"), -1);
+    }
+
+    @Test
+    void removeEnrollment_ShouldSubtractTotalsAndDropEnrollmentRow() {
+        // Given
+        GradeAggregateId id = new GradeAggregateId(GradeAggregateScopeEnum.ENROLLMENT, 1L);
+        GradeAggregate aggregate = new GradeAggregate();
+        aggregate.setId(id);
+        aggregate.setGradeSum(new BigDecimal("170.00"));
+        aggregate.setGradeCount(2L);
+        when(gradeAggregateRepository.findById(id)).thenReturn(Optional.of(aggregate));
+
+        // When
+        gradeAggregateService.removeEnrollment(testEnrollment);
+
+        // Then
+        verify(gradeAggregateRepository).applyDelta("STUDENT", 2L, new BigDecimal("-170.00"), -2);
+        verify(gradeAggregateRepository).applyDelta("COURSE", 3L, new BigDecimal("-170.00"), -2);
+        verify(gradeAggregateRepository).deleteById(id);
+    }
+
+    @Test
+    void removeEnrollment_WhenNoGrades_ShouldDoNothing() {
+        // Given
+        when(gradeAggregateRepository.findById(any(GradeAggregateId.class))).thenReturn(Optional.empty());
+
+        // When
+        gradeAggregateService.removeEnrollment(testEnrollment);
+
+        // Then
+        verify(gradeAggregateRepository, never()).applyDelta(anyString(), anyLong(), any(), anyLong());
+        verify(gradeAggregateRepository, never()).deleteById(any());
+    }
+}
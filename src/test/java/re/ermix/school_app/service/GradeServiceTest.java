@@ -6,7 +6,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import re.ermix.school_app.dto.BulkGradeRequest;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.enums.GradeAggregateScopeEnum;
 import re.ermix.school_app.enums.GradeTypeEnum;
 import re.ermix.school_app.model.Course;
 import re.ermix.school_app.model.Enrollment;
@@ -14,6 +20,7 @@ import re.ermix.school_app.model.Grade;
 import re.ermix.school_app.model.Student;
 import re.ermix.school_app.repository.EnrollmentRepository;
 import re.ermix.school_app.repository.GradeRepository;
+import re.ermix.school_app.util.Cursors;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -21,10 +28,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +45,15 @@ public class GradeServiceTest {
     @Mock
     private EnrollmentRepository enrollmentRepository;
 
+    @Mock
+    private GradeAggregateService gradeAggregateService;
+
+    @Mock
+    private BatchInserter batchInserter;
+
+    @Mock
+    private ChangeOutbox changeOutbox;
+
     @InjectMocks
     private GradeService gradeService;
 
@@ -159,6 +177,22 @@ public class GradeServiceTest {
         verify(gradeRepository, times(1)).findByGradeType(gradeType);
     }
 
+    @Test
+    void getGradesByTypePage_ShouldReturnPageWithNextCursor() {
+        // Given
+        GradeTypeEnum gradeType = GradeTypeEnum.MIDTERM;
+        when(gradeRepository.findByGradeTypeAndIdGreaterThanOrderByIdAsc(gradeType, 0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testGrade, testGrade2));
+
+        // When
+        CursorPage<Grade> result = gradeService.getGradesByTypePage(gradeType, 0L, 1);
+
+        // Then
+        assertThat(result.items()).containsExactly(testGrade);
+        assertThat(result.next()).isNotNull();
+        verify(gradeRepository, times(1)).findByGradeTypeAndIdGreaterThanOrderByIdAsc(gradeType, 0L, Limit.of(2));
+    }
+
     @Test
     void getGradesByDateRange_ShouldReturnGradesInDateRange() {
         // Given
@@ -176,6 +210,23 @@ public class GradeServiceTest {
         verify(gradeRepository, times(1)).findByDateRecordedBetween(startDate, endDate);
     }
 
+    @Test
+    void getGradesByDateRangePage_ShouldStartAtTheRangeAndKeyTheCursorOnDateAndId() {
+        // Given
+        LocalDate startDate = LocalDate.of(2023, 10, 1);
+        LocalDate endDate = LocalDate.of(2023, 12, 31);
+        when(gradeRepository.findPageByDateRecordedBetween(startDate, endDate, startDate, 0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testGrade, testGrade2));
+
+        // When
+        CursorPage<Grade> result = gradeService.getGradesByDateRangePage(startDate, endDate, null, 1);
+
+        // Then
+        assertThat(result.items()).containsExactly(testGrade);
+        assertThat(Cursors.decodeDated(result.next()))
+                .isEqualTo(new Cursors.DatedId(testGrade.getDateRecorded(), testGrade.getId()));
+    }
+
     @Test
     void getGradesByStudent_ShouldReturnGradesForStudent() {
         // Given
@@ -230,14 +281,15 @@ public class GradeServiceTest {
         // Given
         Long enrollmentId = 1L;
         BigDecimal averageGrade = new BigDecimal("87.50");
-        when(gradeRepository.calculateAverageGradeForEnrollment(enrollmentId)).thenReturn(averageGrade);
+        when(gradeAggregateService.getAverage(GradeAggregateScopeEnum.ENROLLMENT, enrollmentId)).thenReturn(averageGrade);
 
         // When
         BigDecimal result = gradeService.calculateAverageGradeForEnrollment(enrollmentId);
 
         // Then
         assertThat(result).isEqualTo(averageGrade);
-        verify(gradeRepository, times(1)).calculateAverageGradeForEnrollment(enrollmentId);
+        verify(gradeAggregateService, times(1)).getAverage(GradeAggregateScopeEnum.ENROLLMENT, enrollmentId);
+        verify(gradeRepository, never()).calculateAverageGradeForEnrollment(enrollmentId);
     }
 
     @Test
@@ -245,14 +297,15 @@ public class GradeServiceTest {
         // Given
         Long studentId = 1L;
         BigDecimal averageGrade = new BigDecimal("87.50");
-        when(gradeRepository.calculateAverageGradeForStudent(studentId)).thenReturn(averageGrade);
+        when(gradeAggregateService.getAverage(GradeAggregateScopeEnum.STUDENT, studentId)).thenReturn(averageGrade);
 
         // When
         BigDecimal result = gradeService.calculateAverageGradeForStudent(studentId);
 
         // Then
         assertThat(result).isEqualTo(averageGrade);
-        verify(gradeRepository, times(1)).calculateAverageGradeForStudent(studentId);
+        verify(gradeAggregateService, times(1)).getAverage(GradeAggregateScopeEnum.STUDENT, studentId);
+        verify(gradeRepository, never()).calculateAverageGradeForStudent(studentId);
     }
 
     @Test
@@ -260,14 +313,15 @@ public class GradeServiceTest {
         // Given
         Long courseId = 1L;
         BigDecimal averageGrade = new BigDecimal("87.50");
-        when(gradeRepository.calculateAverageGradeForCourse(courseId)).thenReturn(averageGrade);
+        when(gradeAggregateService.getAverage(GradeAggregateScopeEnum.COURSE, courseId)).thenReturn(averageGrade);
 
         // When
         BigDecimal result = gradeService.calculateAverageGradeForCourse(courseId);
 
         // Then
         assertThat(result).isEqualTo(averageGrade);
-        verify(gradeRepository, times(1)).calculateAverageGradeForCourse(courseId);
+        verify(gradeAggregateService, times(1)).getAverage(GradeAggregateScopeEnum.COURSE, courseId);
+        verify(gradeRepository, never()).calculateAverageGradeForCourse(courseId);
     }
 
     @Test
@@ -298,6 +352,8 @@ public class GradeServiceTest {
         assertThat(result.getDateRecorded()).isEqualTo(dateRecorded);
         verify(enrollmentRepository, times(1)).findById(enrollmentId);
         verify(gradeRepository, times(1)).save(any(Grade.class));
+        verify(gradeAggregateService, times(1)).recordGrade(testEnrollment, gradeValue);
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.GRADE), eq(ChangeTypeEnum.CREATED), eq(1L), any());
     }
 
     @Test
@@ -320,6 +376,22 @@ public class GradeServiceTest {
         verify(gradeRepository, never()).save(any(Grade.class));
     }
 
+    @Test
+    void addGradeToEnrollment_WhenEnrollmentDropped_ShouldThrowWithoutSaving() {
+        // Given
+        testEnrollment.setStatus(EnrollmentStatusEnum.DROPPED);
+        when(enrollmentRepository.findById(1L)).thenReturn(Optional.of(testEnrollment));
+
+        // When & Then
+        assertThatThrownBy(() -> gradeService.addGradeToEnrollment(1L, new BigDecimal("85.00"), GradeTypeEnum.MIDTERM,
+                null, LocalDate.now()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("dropped");
+
+        verify(gradeRepository, never()).save(any(Grade.class));
+        verifyNoInteractions(gradeAggregateService, changeOutbox);
+    }
+
     @Test
     void updateGrade_WhenGradeExists_ShouldUpdateGrade() {
         // Given
@@ -345,6 +417,8 @@ public class GradeServiceTest {
         assertThat(result.getDateRecorded()).isEqualTo(LocalDate.of(2023, 12, 15));
         verify(gradeRepository, times(1)).findById(gradeId);
         verify(gradeRepository, times(1)).save(any(Grade.class));
+        verify(gradeAggregateService, times(1)).changeGrade(testEnrollment, new BigDecimal("85.00"), new BigDecimal("90.00"));
+        verify(changeOutbox, times(1)).record(eq(ChangeEntityEnum.GRADE), eq(ChangeTypeEnum.UPDATED), eq(gradeId), any());
     }
 
     @Test
@@ -369,6 +443,7 @@ public class GradeServiceTest {
     void deleteGrade_ShouldCallRepositoryDeleteMethod() {
         // Given
         Long gradeId = 1L;
+        when(gradeRepository.findById(gradeId)).thenReturn(Optional.of(testGrade));
         doNothing().when(gradeRepository).deleteById(gradeId);
 
         // When
@@ -376,5 +451,102 @@ public class GradeServiceTest {
 
         // Then
         verify(gradeRepository, times(1)).deleteById(gradeId);
+        verify(gradeAggregateService, times(1)).removeGrade(testEnrollment, new BigDecimal("85.00"));
+        verify(changeOutbox, times(1)).record(ChangeEntityEnum.GRADE, ChangeTypeEnum.DELETED, gradeId, null);
+    }
+
+    @Test
+    void addGradesForCourse_ShouldLoadEnrollmentsInOneQueryPerReferenceAndInsertInBatch() {
+        // Given
+        Student otherStudent = new Student();
+        otherStudent.setId(2L);
+        Enrollment otherEnrollment = new Enrollment();
+        otherEnrollment.setId(2L);
+        otherEnrollment.setStudent(otherStudent);
+        otherEnrollment.setCourse(testCourse);
+        otherEnrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+        BulkGradeRequest request = new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, dateRecorded, List.of(
+                new BulkGradeRequest.Entry(1L, null, new BigDecimal("90.00"), null),
+                new BulkGradeRequest.Entry(null, 2L, new BigDecimal("75.50"), "Late")));
+
+        when(enrollmentRepository.findByCourseIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(testEnrollment));
+        when(enrollmentRepository.findByCourseIdAndStudentIdIn(1L, Set.of(2L))).thenReturn(List.of(otherEnrollment));
+        when(batchInserter.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Grade> grades = invocation.getArgument(0);
+            for (int i = 0; i < grades.size(); i++) {
+                grades.get(i).setId(100L + i);
+            }
+            return grades;
+        });
+
+        // When
+        List<Grade> result = gradeService.addGradesForCourse(request);
+
+        // Then
+        assertThat(result).extracting(Grade::getEnrollment).containsExactly(testEnrollment, otherEnrollment);
+        assertThat(result).extracting(Grade::getGradeValue)
+                .containsExactly(new BigDecimal("90.00"), new BigDecimal("75.50"));
+        assertThat(result).allSatisfy(grade -> {
+            assertThat(grade.getGradeType()).isEqualTo(GradeTypeEnum.QUIZ);
+            assertThat(grade.getDateRecorded()).isEqualTo(dateRecorded);
+        });
+        verify(gradeAggregateService, times(1)).recordGrades(List.of(100L, 101L));
+        verify(gradeAggregateService, never()).recordGrade(any(), any());
+        verify(enrollmentRepository, never()).findById(any());
+        verify(gradeRepository, never()).save(any(Grade.class));
+        verify(changeOutbox, times(1)).recordAll(argThat(changes -> changes.stream()
+                .map(ChangeOutbox.Change::entityId).toList().equals(List.of(100L, 101L))));
+    }
+
+    @Test
+    void addGradesForCourse_WhenStudentNotEnrolled_ShouldThrowWithoutSaving() {
+        // Given
+        BulkGradeRequest request = new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, dateRecorded, List.of(
+                new BulkGradeRequest.Entry(null, 1L, new BigDecimal("90.00"), null),
+                new BulkGradeRequest.Entry(null, 99L, new BigDecimal("80.00"), null)));
+
+        when(enrollmentRepository.findByCourseIdAndStudentIdIn(1L, Set.of(1L, 99L))).thenReturn(List.of(testEnrollment));
+
+        // When & Then
+        assertThatThrownBy(() -> gradeService.addGradesForCourse(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("student ids: [99]");
+
+        verifyNoInteractions(batchInserter, gradeAggregateService);
+    }
+
+    @Test
+    void addGradesForCourse_WhenEnrollmentReferencedTwice_ShouldThrowWithoutSaving() {
+        // Given
+        BulkGradeRequest request = new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, dateRecorded, List.of(
+                new BulkGradeRequest.Entry(1L, null, new BigDecimal("90.00"), null),
+                new BulkGradeRequest.Entry(null, 1L, new BigDecimal("80.00"), null)));
+
+        when(enrollmentRepository.findByCourseIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(testEnrollment));
+        when(enrollmentRepository.findByCourseIdAndStudentIdIn(1L, Set.of(1L))).thenReturn(List.of(testEnrollment));
+
+        // When & Then
+        assertThatThrownBy(() -> gradeService.addGradesForCourse(request))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Duplicate grade for enrollment id: 1");
+
+        verifyNoInteractions(batchInserter, gradeAggregateService);
+    }
+
+    @Test
+    void addGradesForCourse_WhenEnrollmentDropped_ShouldThrowWithoutSaving() {
+        // Given
+        testEnrollment.setStatus(EnrollmentStatusEnum.DROPPED);
+        BulkGradeRequest request = new BulkGradeRequest(1L, GradeTypeEnum.QUIZ, dateRecorded, List.of(
+                new BulkGradeRequest.Entry(1L, null, new BigDecimal("90.00"), null)));
+
+        when(enrollmentRepository.findByCourseIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(testEnrollment));
+
+        // When & Then
+        assertThatThrownBy(() -> gradeService.addGradesForCourse(request))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("dropped");
+
+        verifyNoInteractions(batchInserter, gradeAggregateService);
     }
 }
@@ -0,0 +1,131 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import re.ermix.school_app.enums.IdempotencyScopeEnum;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyStore idempotencyStore;
+
+    private AtomicInteger calls;
+
+    private Supplier<ResponseEntity<?>> operation;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+                Duration.ofHours(1), 100);
+        calls = new AtomicInteger();
+        operation = () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", calls.incrementAndGet()));
+    }
+
+    @Test
+    void execute_ShouldRunOnceAndReplayTheStoredResponse() {
+        // When
+        ResponseEntity<?> first = idempotencyStore.execute(IdempotencyScopeEnum.GRADE, "k1", List.of(1L, "90"), operation);
+        ResponseEntity<?> second = idempotencyStore.execute(IdempotencyScopeEnum.GRADE, "k1", List.of(1L, "90"), operation);
+
+        // Then
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getBody()).isEqualTo("{\"id\":1}");
+        assertThat(second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        verify(jdbcTemplate, times(1)).update(eq(IdempotencyStore.INSERT_SQL), eq("GRADE"), eq("k1"), anyString(), any());
+        verify(jdbcTemplate, times(1)).update(IdempotencyStore.UPDATE_SQL, 201, null, "{\"id\":1}", "GRADE", "k1");
+    }
+
+    @Test
+    void execute_WhenTheKeyIsAlreadyStored_ShouldReplayItWithoutRunning() {
+        // Given
+        ResponseEntity<?> original = idempotencyStore.execute(IdempotencyScopeEnum.ENROLLMENT, "k1", List.of(1L), operation);
+        IdempotencyStore restarted = new IdempotencyStore(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+                Duration.ofHours(1), 100);
+        String requestHash = captureRequestHash();
+        when(jdbcTemplate.update(eq(IdempotencyStore.INSERT_SQL), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("Duplicate entry"));
+        when(jdbcTemplate.query(eq(IdempotencyStore.SELECT_SQL),
+                ArgumentMatchers.<RowMapper<IdempotencyStore.StoredResponse>>any(), eq("ENROLLMENT"), eq("k1")))
+                .thenReturn(List.of(new IdempotencyStore.StoredResponse(requestHash, 201, "/enrollments/1", "{\"id\":1}")));
+
+        // When
+        ResponseEntity<?> replayed = restarted.execute(IdempotencyScopeEnum.ENROLLMENT, "k1", List.of(1L), operation);
+
+        // Then
+        assertThat(original.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getHeaders().getLocation()).hasToString("/enrollments/1");
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void execute_WhenTheKeyIsReusedWithOtherParameters_ShouldAnswerUnprocessableEntity() {
+        // Given
+        idempotencyStore.execute(IdempotencyScopeEnum.GRADE, "k1", List.of(1L, "90"), operation);
+
+        // When
+        ResponseEntity<?> response = idempotencyStore.execute(IdempotencyScopeEnum.GRADE, "k1", List.of(1L, "95"), operation);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_WhenTheOperationFails_ShouldNotStoreTheResponse() {
+        // When
+        ResponseEntity<?> response = idempotencyStore.execute(IdempotencyScopeEnum.GRADE, "k1", List.of(1L),
+                () -> ResponseEntity.notFound().build());
+        idempotencyStore.execute(IdempotencyScopeEnum.GRADE, "k1", List.of(1L), operation);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(calls.get()).isEqualTo(1);
+        verify(jdbcTemplate, times(1)).update(eq(IdempotencyStore.UPDATE_SQL), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenTheKeyIsTooLong_ShouldAnswerBadRequest() {
+        // When
+        ResponseEntity<?> response = idempotencyStore.execute(IdempotencyScopeEnum.GRADE,
+                "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), List.of(1L), operation);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(calls.get()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private String captureRequestHash() {
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(eq(IdempotencyStore.INSERT_SQL), any(), any(), hash.capture(), any());
+        return hash.getValue();
+    }
+}
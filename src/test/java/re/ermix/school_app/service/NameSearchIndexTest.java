@@ -0,0 +1,124 @@
+package re.ermix.school_app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.SearchableName;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.model.StudentSearchCriteria;
+import re.ermix.school_app.repository.StudentRepository;
+import re.ermix.school_app.repository.TeacherRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NameSearchIndexTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    private NameSearchIndex nameSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        nameSearchIndex = new NameSearchIndex(studentRepository, teacherRepository, true, 100, Duration.ofMinutes(5),
+                new PrimaryReads(mock(PlatformTransactionManager.class), ""));
+    }
+
+    @Test
+    void studentCandidates_ShouldMatchNamesIgnoringAccents() {
+        // Given
+        when(studentRepository.streamSearchableNames())
+                .thenReturn(Stream.of(new SearchableName(1L, "José", "García", "jose.garcia@example.com")));
+        when(teacherRepository.streamSearchableNames()).thenReturn(Stream.empty());
+        nameSearchIndex.load();
+
+        // When
+        NameSearchIndex.Candidates candidates = nameSearchIndex.studentCandidates(
+                StudentSearchCriteria.builder().firstName("jose").lastName("garcía").build());
+
+        // Then
+        assertThat(candidates.ids()).containsExactly(1L);
+    }
+
+    @Test
+    void reload_ShouldPickUpChangesMadeElsewhere() {
+        // Given
+        when(studentRepository.streamSearchableNames())
+                .thenReturn(Stream.of(new SearchableName(1L, "Anna", "Smith", "anna@example.com")))
+                .thenReturn(Stream.of(new SearchableName(2L, "Marta", "Jones", "marta@example.com")));
+        when(teacherRepository.streamSearchableNames()).thenReturn(Stream.empty(), Stream.empty());
+        nameSearchIndex.load();
+
+        // When
+        nameSearchIndex.reload();
+
+        // Then
+        assertThat(nameSearchIndex.studentCandidates(criteria("anna")).ids()).isEmpty();
+        assertThat(nameSearchIndex.studentCandidates(criteria("marta")).ids()).containsExactly(2L);
+    }
+
+    @Test
+    void reload_ShouldKeepChangesReportedWhileItReadsTheTables() {
+        // Given
+        Student renamed = new Student();
+        renamed.setId(1L);
+        renamed.setFirstName("Annabel");
+        renamed.setLastName("Smith");
+        when(studentRepository.streamSearchableNames())
+                .thenReturn(Stream.of(new SearchableName(1L, "Anna", "Smith", "anna@example.com")))
+                .thenReturn(Stream.of(new SearchableName(1L, "Anna", "Smith", "anna@example.com"))
+                        .peek(row -> nameSearchIndex.indexStudent(renamed)));
+        when(teacherRepository.streamSearchableNames()).thenReturn(Stream.empty(), Stream.empty());
+        nameSearchIndex.load();
+
+        // When
+        nameSearchIndex.reload();
+
+        // Then
+        assertThat(nameSearchIndex.studentCandidates(criteria("annabel")).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void studentCandidates_ShouldIncludeRowsChangedSinceTheRebuildLessTheMargin() {
+        // Given
+        when(studentRepository.streamSearchableNames()).thenReturn(Stream.empty());
+        when(teacherRepository.streamSearchableNames()).thenReturn(Stream.empty());
+        LocalDateTime before = LocalDateTime.now();
+        nameSearchIndex.load();
+        LocalDateTime after = LocalDateTime.now();
+
+        // When
+        NameSearchIndex.Candidates candidates = nameSearchIndex.studentCandidates(criteria("anna"));
+
+        // Then
+        assertThat(candidates.ids()).isEmpty();
+        assertThat(candidates.changedSince()).isBetween(before.minusMinutes(5), after.minusMinutes(5));
+    }
+
+    @Test
+    void reload_WhenNotLoaded_ShouldNotReadTheTables() {
+        // When
+        nameSearchIndex.reload();
+
+        // Then
+        assertThat(nameSearchIndex.studentCandidates(criteria("anna"))).isNull();
+    }
+
+    private static StudentSearchCriteria criteria(String firstName) {
+        return StudentSearchCriteria.builder().firstName(firstName).build();
+    }
+}
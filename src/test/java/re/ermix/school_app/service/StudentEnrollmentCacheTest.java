@@ -0,0 +1,116 @@
+package re.ermix.school_app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.EnrollmentSummary;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.repository.EnrollmentRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StudentEnrollmentCacheTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private StudentEnrollmentCache cache;
+
+    private List<EnrollmentSummary> summaries;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new StudentEnrollmentCache(enrollmentRepository,
+                new PrimaryReads(mock(PlatformTransactionManager.class), ""), meterRegistry, 1000, Duration.ofMinutes(10));
+        summaries = List.of(new EnrollmentSummary(1L, 10L, EnrollmentStatusEnum.ACTIVE, LocalDate.now()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromCache() {
+        // Given
+        when(enrollmentRepository.findSummariesByStudentId(1L)).thenReturn(summaries);
+
+        // When
+        List<EnrollmentSummary> first = cache.get(1L);
+        List<EnrollmentSummary> second = cache.get(1L);
+
+        // Then
+        assertThat(first).isEqualTo(summaries);
+        assertThat(second).isEqualTo(summaries);
+        verify(enrollmentRepository, times(1)).findSummariesByStudentId(1L);
+    }
+
+    @Test
+    void get_ShouldPublishHitAndMissCounts() {
+        // Given
+        when(enrollmentRepository.findSummariesByStudentId(1L)).thenReturn(summaries);
+
+        // When
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(1L);
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tag("cache", StudentEnrollmentCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", StudentEnrollmentCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_WithoutTransaction_ShouldReloadOnNextGet() {
+        // Given
+        when(enrollmentRepository.findSummariesByStudentId(1L)).thenReturn(summaries);
+        cache.get(1L);
+
+        // When
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        // Then
+        verify(enrollmentRepository, times(2)).findSummariesByStudentId(1L);
+    }
+
+    @Test
+    void invalidate_InTransaction_ShouldDropEntryLoadedBeforeCommit() {
+        // Given
+        when(enrollmentRepository.findSummariesByStudentId(1L)).thenReturn(summaries);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        cache.invalidate(1L);
+        cache.get(1L); // a concurrent reader still sees the pre-commit state
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        cache.get(1L);
+
+        // Then
+        verify(enrollmentRepository, times(2)).findSummariesByStudentId(1L);
+    }
+}
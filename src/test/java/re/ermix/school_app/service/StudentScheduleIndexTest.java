@@ -0,0 +1,111 @@
+package re.ermix.school_app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import re.ermix.school_app.config.PrimaryReads;
+import re.ermix.school_app.dto.MeetingSlot;
+import re.ermix.school_app.model.CourseMeeting;
+import re.ermix.school_app.repository.CourseRepository;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StudentScheduleIndexTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private StudentScheduleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StudentScheduleIndex(courseRepository,
+                new PrimaryReads(mock(PlatformTransactionManager.class), ""), new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void conflictingCourses_ShouldReturnOverlappingCoursesOnly() {
+        // Given
+        when(courseRepository.findActiveMeetingSlotsByStudentId(1L)).thenReturn(List.of(
+                new MeetingSlot(10L, meeting(DayOfWeek.MONDAY, 9, 0, 10, 30)),
+                new MeetingSlot(11L, meeting(DayOfWeek.MONDAY, 10, 30, 12, 0)),
+                new MeetingSlot(12L, meeting(DayOfWeek.TUESDAY, 9, 0, 10, 0))));
+
+        // When
+        List<Long> conflicts = index.conflictingCourses(1L, 20L, List.of(
+                meeting(DayOfWeek.MONDAY, 10, 0, 11, 0),
+                meeting(DayOfWeek.TUESDAY, 10, 0, 11, 0)));
+
+        // Then
+        assertThat(conflicts).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void conflictingCourses_ShouldIgnoreTheCourseItself() {
+        // Given
+        when(courseRepository.findActiveMeetingSlotsByStudentId(1L)).thenReturn(List.of(
+                new MeetingSlot(10L, meeting(DayOfWeek.MONDAY, 9, 0, 10, 30))));
+
+        // When
+        List<Long> conflicts = index.conflictingCourses(1L, 10L, List.of(meeting(DayOfWeek.MONDAY, 9, 0, 10, 30)));
+
+        // Then
+        assertThat(conflicts).isEmpty();
+    }
+
+    @Test
+    void conflictingCourses_WithoutMeetings_ShouldNotLoadTheSchedule() {
+        // When
+        List<Long> conflicts = index.conflictingCourses(1L, 10L, List.of());
+
+        // Then
+        assertThat(conflicts).isEmpty();
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    void currentConflictingCourses_ShouldReadPastTheCachedSchedule() {
+        // Given
+        when(courseRepository.findActiveMeetingSlotsByStudentId(1L)).thenReturn(
+                List.of(),
+                List.of(new MeetingSlot(10L, meeting(DayOfWeek.MONDAY, 9, 0, 10, 30))));
+        index.get(1L);
+
+        // When
+        List<Long> conflicts = index.currentConflictingCourses(1L, 20L, List.of(meeting(DayOfWeek.MONDAY, 10, 0, 11, 0)));
+
+        // Then
+        assertThat(conflicts).containsExactly(10L);
+        assertThat(index.get(1L).size()).isZero();
+    }
+
+    @Test
+    void invalidate_ShouldReloadTheSchedule() {
+        // Given
+        when(courseRepository.findActiveMeetingSlotsByStudentId(1L)).thenReturn(List.of());
+
+        // When
+        index.get(1L);
+        index.get(1L);
+        index.invalidate(1L);
+        index.get(1L);
+
+        // Then
+        verify(courseRepository, times(2)).findActiveMeetingSlotsByStudentId(1L);
+    }
+
+    private static CourseMeeting meeting(DayOfWeek day, int startHour, int startMinute, int endHour, int endMinute) {
+        return new CourseMeeting(day, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute));
+    }
+}
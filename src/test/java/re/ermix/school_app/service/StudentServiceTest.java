@@ -7,10 +7,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+import re.ermix.school_app.enums.ChangeEntityEnum;
+import re.ermix.school_app.enums.ChangeTypeEnum;
 import re.ermix.school_app.enums.EnrollmentStatusEnum;
 import re.ermix.school_app.model.Course;
 import re.ermix.school_app.model.Enrollment;
+import re.ermix.school_app.model.Grade;
 import re.ermix.school_app.model.Student;
 import re.ermix.school_app.model.StudentSearchCriteria;
 import re.ermix.school_app.repository.StudentRepository;
@@ -32,6 +38,30 @@ class StudentServiceTest {
     @Mock
     private StudentRepository studentRepository;
 
+    @Mock
+    private GradeAggregateService gradeAggregateService;
+
+    @Mock
+    private StudentEnrollmentCache studentEnrollmentCache;
+
+    @Mock
+    private BatchInserter batchInserter;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    @Mock
+    private ChangeOutbox changeOutbox;
+
+    @Mock
+    private CourseWaitlist courseWaitlist;
+
+    @Mock
+    private StudentScheduleIndex studentScheduleIndex;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
     @InjectMocks
     private StudentService studentService;
 
@@ -86,6 +116,64 @@ class StudentServiceTest {
         verify(studentRepository, times(1)).findAll();
     }
 
+    @Test
+    void getStudentsPage_whenMoreRowsExist() {
+        // Arrange
+        when(studentRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(studentList);
+
+        // Act
+        CursorPage<Student> result = studentService.getStudentsPage(0L, 1);
+
+        // Assert
+        assertEquals(1, result.items().size());
+        assertEquals(student1.getId(), result.items().get(0).getId());
+        assertNotNull(result.next());
+        verify(studentRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+    }
+
+    @Test
+    void getStudentsPage_whenLastPage() {
+        // Arrange
+        when(studentRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(11))).thenReturn(List.of(student2));
+
+        // Act
+        CursorPage<Student> result = studentService.getStudentsPage(1L, 10);
+
+        // Assert
+        assertEquals(1, result.items().size());
+        assertNull(result.next());
+    }
+
+    @Test
+    void getStudentVersionsPage_shouldReadVersionsWithTheSameLimitAsThePage() {
+        // Arrange
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_456_000);
+        when(studentRepository.findVersionsAfter(0L, Limit.of(2))).thenReturn(List.of(
+                new EntityVersion(1L, updatedAt), new EntityVersion(2L, updatedAt)));
+
+        // Act
+        CursorPage<EntityVersion> result = studentService.getStudentVersionsPage(0L, 1);
+
+        // Assert
+        assertEquals(List.of(new EntityVersion(1L, updatedAt)), result.items());
+        assertNotNull(result.next());
+        verify(studentRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void getStudentVersion_shouldNotLoadTheStudent() {
+        // Arrange
+        EntityVersion version = new EntityVersion(1L, LocalDateTime.of(2024, 5, 1, 10, 0));
+        when(studentRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+
+        // Act
+        Optional<EntityVersion> result = studentService.getStudentVersion(1L);
+
+        // Assert
+        assertEquals(Optional.of(version), result);
+        verify(studentRepository, never()).findById(anyLong());
+    }
+
     @Test
     void getStudentById_whenStudentExists() {
         // Arrange
@@ -252,6 +340,7 @@ class StudentServiceTest {
         assertEquals(newStudent.getFirstName(), result.getFirstName());
         assertEquals(newStudent.getLastName(), result.getLastName());
         verify(studentRepository, times(1)).save(newStudent);
+        verify(nameSearchIndex, times(1)).indexStudent(newStudent);
     }
 
     @Test
@@ -265,6 +354,83 @@ class StudentServiceTest {
 
         // Assert
         verify(studentRepository, times(1)).deleteById(studentId);
+        verify(studentEnrollmentCache, times(1)).invalidate(studentId);
+        verify(nameSearchIndex, times(1)).removeStudent(studentId);
+        verify(courseWaitlist, times(1)).removeStudent(studentId);
+    }
+
+    @Test
+    void deleteStudent_whenStudentHasEnrollments_shouldPublishEnrollmentAndGradeDeletions() {
+        // Arrange
+        Enrollment enrollment = new Enrollment();
+        enrollment.setId(10L);
+        enrollment.setStudent(student1);
+        Grade grade = new Grade();
+        grade.setId(20L);
+        enrollment.addGrade(grade);
+        student1.getEnrollments().add(enrollment);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student1));
+
+        // Act
+        studentService.deleteStudent(1L);
+
+        // Assert
+        verify(gradeAggregateService, times(1)).removeEnrollment(enrollment);
+        verify(changeOutbox, times(1)).recordAll(List.of(
+                new ChangeOutbox.Change(ChangeEntityEnum.GRADE, ChangeTypeEnum.DELETED, 20L, null),
+                new ChangeOutbox.Change(ChangeEntityEnum.ENROLLMENT, ChangeTypeEnum.DELETED, 10L, null)));
+        verify(studentRepository, times(1)).deleteById(1L);
+    }
+
+    @Test
+    void deleteStudent_whenStudentHasEnrollments_shouldFreeTheirSeatsAfterDeleting() {
+        // Arrange
+        Enrollment enrollment = new Enrollment();
+        enrollment.setId(10L);
+        enrollment.setStudent(student1);
+        enrollment.setStatus(EnrollmentStatusEnum.ACTIVE);
+        student1.getEnrollments().add(enrollment);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student1));
+
+        // Act
+        studentService.deleteStudent(1L);
+
+        // Assert
+        var inOrder = inOrder(studentRepository, enrollmentService);
+        inOrder.verify(studentRepository).deleteById(1L);
+        inOrder.verify(enrollmentService).freeSeats(student1.getEnrollments());
+    }
+
+    @Test
+    void searchStudents_whenIndexHasCandidates_shouldOnlyQueryCandidates() {
+        // Arrange
+        var criteria = StudentSearchCriteria.builder().lastName("oe").firstName("john").build();
+        when(nameSearchIndex.studentCandidates(criteria))
+                .thenReturn(new NameSearchIndex.Candidates(new long[]{1L}, LocalDateTime.of(2023, 9, 1, 9, 0)));
+        when(studentRepository.findAll(any(Specification.class))).thenReturn(List.of(student1));
+
+        // Act
+        List<Student> result = studentService.searchStudents(criteria);
+
+        // Assert
+        assertEquals(List.of(student1), result);
+        verify(studentRepository, times(1)).findAll(any(Specification.class));
+    }
+
+    @Test
+    void searchStudents_whenIndexHasNoCandidates_shouldOnlyQueryRecentChanges() {
+        // Arrange
+        var criteria = StudentSearchCriteria.builder().lastName("xyz").build();
+        when(nameSearchIndex.studentCandidates(criteria))
+                .thenReturn(new NameSearchIndex.Candidates(new long[0], LocalDateTime.of(2023, 9, 1, 9, 0)));
+        when(studentRepository.findAll(any(Specification.class))).thenReturn(List.of());
+
+        // Act
+        List<Student> result = studentService.searchStudents(criteria);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(studentRepository, times(1)).findAll(any(Specification.class));
     }
 
     @Test
@@ -319,6 +485,44 @@ class StudentServiceTest {
         verify(studentRepository, never()).save(any(Student.class));
     }
 
+    @Test
+    void saveStudents() {
+        // Arrange
+        when(studentRepository.findExistingEmails(any())).thenReturn(List.of());
+        when(batchInserter.insertAll(studentList)).thenReturn(studentList);
+
+        // Act
+        List<Student> result = studentService.saveStudents(studentList);
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(studentRepository, times(1)).findExistingEmails(any());
+        verify(batchInserter, times(1)).insertAll(studentList);
+        verify(studentRepository, never()).save(any(Student.class));
+    }
+
+    @Test
+    void saveStudents_withExistingEmail() {
+        // Arrange
+        when(studentRepository.findExistingEmails(any())).thenReturn(List.of("john.doe@example.com"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> studentService.saveStudents(studentList));
+        verify(batchInserter, never()).insertAll(any());
+    }
+
+    @Test
+    void saveStudents_withDuplicateEmailInBatch() {
+        // Arrange
+        Student duplicate = new Student();
+        duplicate.setEmail(student1.getEmail());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> studentService.saveStudents(List.of(student1, duplicate)));
+        verifyNoInteractions(batchInserter);
+        verify(studentRepository, never()).findExistingEmails(any());
+    }
+
     @Test
     void saveStudent_withDuplicateEmail() {
         // Arrange
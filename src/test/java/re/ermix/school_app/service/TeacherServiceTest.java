@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +27,12 @@ public class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
+    @Mock
+    private BatchInserter batchInserter;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -151,6 +158,53 @@ public class TeacherServiceTest {
         verify(teacherRepository, times(1)).findByLastName(lastName);
     }
 
+    @Test
+    void searchTeachers_WhenIndexNotUsable_ShouldSearchDatabase() {
+        // Given
+        when(nameSearchIndex.teacherCandidates("Sm")).thenReturn(null);
+        when(teacherRepository.searchByNameOrEmail("%sm%")).thenReturn(List.of(testTeacher));
+
+        // When
+        List<Teacher> result = teacherService.searchTeachers("Sm");
+
+        // Then
+        assertThat(result).containsExactly(testTeacher);
+        verify(teacherRepository, never()).searchByNameOrEmailAmongOrUpdatedSince(any(), any(), any());
+    }
+
+    @Test
+    void searchTeachers_WhenIndexHasCandidates_ShouldOnlyQueryCandidatesAndRecentChanges() {
+        // Given
+        LocalDateTime rebuilt = LocalDateTime.of(2023, 9, 1, 9, 0);
+        when(nameSearchIndex.teacherCandidates("mit"))
+                .thenReturn(new NameSearchIndex.Candidates(new long[]{1L, 2L}, rebuilt));
+        when(teacherRepository.searchByNameOrEmailAmongOrUpdatedSince("%mit%", List.of(1L, 2L), rebuilt))
+                .thenReturn(List.of(testTeacher));
+
+        // When
+        List<Teacher> result = teacherService.searchTeachers("mit");
+
+        // Then
+        assertThat(result).containsExactly(testTeacher);
+        verify(teacherRepository, never()).searchByNameOrEmail(any());
+    }
+
+    @Test
+    void searchTeachers_WhenIndexHasNoCandidates_ShouldOnlyQueryRecentChanges() {
+        // Given
+        LocalDateTime rebuilt = LocalDateTime.of(2023, 9, 1, 9, 0);
+        when(nameSearchIndex.teacherCandidates("xyz")).thenReturn(new NameSearchIndex.Candidates(new long[0], rebuilt));
+        when(teacherRepository.searchByNameOrEmailAmongOrUpdatedSince("%xyz%", List.of(), rebuilt))
+                .thenReturn(List.of());
+
+        // When
+        List<Teacher> result = teacherService.searchTeachers("xyz");
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(teacherRepository, never()).searchByNameOrEmail(any());
+    }
+
     @Test
     void getTeachersByName_ShouldReturnMatchingTeachers() {
         // Given
@@ -229,6 +283,35 @@ public class TeacherServiceTest {
         verify(teacherRepository, times(1)).findByCourseId(courseId);
     }
 
+    @Test
+    void saveTeachers_ShouldInsertInBatches() {
+        // Given
+        List<Teacher> teachers = Arrays.asList(testTeacher, testTeacher2);
+        when(teacherRepository.findExistingEmails(any())).thenReturn(Collections.emptyList());
+        when(batchInserter.insertAll(teachers)).thenReturn(teachers);
+
+        // When
+        List<Teacher> result = teacherService.saveTeachers(teachers);
+
+        // Then
+        assertThat(result).hasSize(2);
+        verify(batchInserter, times(1)).insertAll(teachers);
+        verify(teacherRepository, never()).save(any(Teacher.class));
+    }
+
+    @Test
+    void saveTeachers_WhenEmailExists_ShouldThrowException() {
+        // Given
+        List<Teacher> teachers = Arrays.asList(testTeacher, testTeacher2);
+        when(teacherRepository.findExistingEmails(any())).thenReturn(List.of(testTeacher.getEmail()));
+
+        // When & Then
+        assertThatThrownBy(() -> teacherService.saveTeachers(teachers))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(testTeacher.getEmail());
+        verifyNoInteractions(batchInserter);
+    }
+
     @Test
     void saveTeacher_ShouldReturnSavedTeacher() {
         // Given
@@ -254,6 +337,7 @@ public class TeacherServiceTest {
 
         // Then
         verify(teacherRepository, times(1)).deleteById(teacherId);
+        verify(nameSearchIndex, times(1)).removeTeacher(teacherId);
     }
 
     @Test
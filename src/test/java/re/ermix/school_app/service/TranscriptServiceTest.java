@@ -0,0 +1,194 @@
+package re.ermix.school_app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import re.ermix.school_app.dto.Transcript;
+import re.ermix.school_app.dto.TranscriptCourse;
+import re.ermix.school_app.enums.EnrollmentStatusEnum;
+import re.ermix.school_app.model.Student;
+import re.ermix.school_app.repository.EnrollmentRepository;
+import re.ermix.school_app.repository.StudentRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TranscriptServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 9, 1);
+    private static final LocalDate END = LocalDate.of(2023, 9, 30);
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ExecutorService executor;
+
+    private TranscriptService transcriptService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+        transcriptService = new TranscriptService(studentRepository, enrollmentRepository, objectMapper,
+                executor::execute, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getTranscript_ShouldWeightCourseAveragesByCredits() {
+        // Given
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student(1L)));
+        when(enrollmentRepository.findTranscriptCourses(List.of(1L))).thenReturn(List.of(
+                course(1L, 10L, 3, new BigDecimal("270.00"), 3L),
+                course(1L, 11L, 1, new BigDecimal("60.00"), 1L),
+                course(1L, 12L, 4, null, null)));
+
+        // When
+        Optional<Transcript> result = transcriptService.getTranscript(1L);
+
+        // Then
+        assertThat(result).isPresent();
+        Transcript transcript = result.get();
+        assertThat(transcript.courses()).extracting(TranscriptCourse::average)
+                .containsExactly(new BigDecimal("90.00"), new BigDecimal("60.00"), null);
+        assertThat(transcript.creditsAttempted()).isEqualTo(8);
+        assertThat(transcript.creditsGraded()).isEqualTo(4);
+        // (3 * 90 + 1 * 60) / 4
+        assertThat(transcript.gpa()).isEqualByComparingTo("82.50");
+    }
+
+    @Test
+    void getTranscript_WhenNoGrades_ShouldHaveNoGpa() {
+        // Given
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student(1L)));
+        when(enrollmentRepository.findTranscriptCourses(List.of(1L)))
+                .thenReturn(List.of(course(1L, 10L, 3, null, null)));
+
+        // When
+        Transcript transcript = transcriptService.getTranscript(1L).orElseThrow();
+
+        // Then
+        assertThat(transcript.creditsAttempted()).isEqualTo(3);
+        assertThat(transcript.creditsGraded()).isZero();
+        assertThat(transcript.gpa()).isNull();
+    }
+
+    @Test
+    void getTranscript_WhenStudentNotFound_ShouldReturnEmpty() {
+        // Given
+        when(studentRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Transcript> result = transcriptService.getTranscript(99L);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(enrollmentRepository);
+    }
+
+    @Test
+    void exportCohortTranscripts_ShouldWriteChunksInIdOrder() throws Exception {
+        // Given
+        when(studentRepository.findIdsByEnrollmentDateBetween(START, END)).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        when(studentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(student(2L), student(1L)));
+        when(studentRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(student(3L), student(4L)));
+        when(studentRepository.findAllById(List.of(5L))).thenReturn(List.of(student(5L)));
+        when(enrollmentRepository.findTranscriptCourses(List.of(1L, 2L)))
+                .thenReturn(List.of(course(2L, 10L, 3, new BigDecimal("80.00"), 1L)));
+        when(enrollmentRepository.findTranscriptCourses(List.of(3L, 4L))).thenReturn(List.of());
+        when(enrollmentRepository.findTranscriptCourses(List.of(5L)))
+                .thenReturn(List.of(course(5L, 10L, 3, new BigDecimal("150.00"), 2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = transcriptService.exportCohortTranscripts(START, END, out);
+
+        // Then
+        assertThat(count).isEqualTo(5);
+        List<JsonNode> lines = out.toString(StandardCharsets.UTF_8).lines().map(this::parse).toList();
+        assertThat(lines).extracting(line -> line.get("studentId").asLong()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(lines.get(1).get("gpa").decimalValue()).isEqualByComparingTo("80.00");
+        assertThat(lines.get(1).get("courses").get(0).has("studentId")).isFalse();
+        assertThat(lines.get(4).get("gpa").decimalValue()).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    void exportCohortTranscripts_WhenStudentDeletedMeanwhile_ShouldSkipIt() throws Exception {
+        // Given
+        when(studentRepository.findIdsByEnrollmentDateBetween(START, END)).thenReturn(List.of(1L, 2L));
+        when(studentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(student(2L)));
+        when(enrollmentRepository.findTranscriptCourses(List.of(1L, 2L))).thenReturn(List.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = transcriptService.exportCohortTranscripts(START, END, out);
+
+        // Then
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("{\"studentId\":2,");
+    }
+
+    @Test
+    void exportCohortTranscripts_WhenCohortEmpty_ShouldWriteNothing() throws Exception {
+        // Given
+        when(studentRepository.findIdsByEnrollmentDateBetween(START, END)).thenReturn(List.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = transcriptService.exportCohortTranscripts(START, END, out);
+
+        // Then
+        assertThat(count).isZero();
+        assertThat(out.size()).isZero();
+        verify(studentRepository, never()).findAllById(any());
+    }
+
+    private JsonNode parse(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Student student(Long id) {
+        Student student = new Student();
+        student.setId(id);
+        student.setFirstName("First" + id);
+        student.setLastName("Last" + id);
+        student.setEmail("student" + id + "@example.com");
+        student.setEnrollmentDate(START);
+        return student;
+    }
+
+    private static TranscriptCourse course(Long studentId, Long courseId, int credits, BigDecimal gradeSum,
+                                           Long gradeCount) {
+        return new TranscriptCourse(studentId, studentId * 100 + courseId, courseId, "CS" + courseId,
+                "Course " + courseId, credits, EnrollmentStatusEnum.ACTIVE, START, gradeSum, gradeCount);
+    }
+}
@@ -0,0 +1,60 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void testReadsPlainRecords() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b,c\n1,,3\n"));
+
+        assertEquals(List.of("a", "b", "c"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("1", "", "3"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testReadsLastRecordWithoutLineBreak() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\r\n1,2"));
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("1", "2"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testReadsQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"Doe, John\",\"say \"\"hi\"\"\",\"two\r\nlines\"\nnext,row,here\n"));
+
+        assertEquals(List.of("Doe, John", "say \"hi\"", "two\r\nlines"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("next", "row", "here"), reader.next());
+        assertEquals(3, reader.recordLine());
+    }
+
+    @Test
+    void testBlankLineIsSingleEmptyField() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a\n\nb\n"));
+
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertEquals(List.of("b"), reader.next());
+        assertEquals(3, reader.recordLine());
+    }
+
+    @Test
+    void testUnterminatedQuoteFails() {
+        CsvReader reader = new CsvReader(new StringReader("a,\"open\nstill open"));
+
+        IOException e = assertThrows(IOException.class, reader::next);
+        assertTrue(e.getMessage().contains("line 1"));
+    }
+}
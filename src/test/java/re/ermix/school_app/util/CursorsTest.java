@@ -0,0 +1,48 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorsTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        String cursor = Cursors.encode(42L);
+
+        assertNotEquals("42", cursor);
+        assertEquals(42L, Cursors.decode(cursor));
+    }
+
+    @Test
+    void testDecodeMissingCursorStartsAtFirstPage() {
+        assertEquals(0L, Cursors.decode(null));
+        assertEquals(0L, Cursors.decode(""));
+    }
+
+    @Test
+    void testEncodeDecodeDatedRoundTrip() {
+        Cursors.DatedId last = new Cursors.DatedId(LocalDate.of(2024, 3, 15), 42L);
+
+        assertEquals(last, Cursors.decodeDated(Cursors.encode(last)));
+        assertNull(Cursors.decodeDated(null));
+        assertNull(Cursors.decodeDated(""));
+    }
+
+    @Test
+    void testDecodeDatedRejectsOtherCursors() {
+        assertThrows(ResponseStatusException.class, () -> Cursors.decodeDated(Cursors.encode(42L)));
+        assertThrows(ResponseStatusException.class, () -> Cursors.decode(Cursors.encode(
+                new Cursors.DatedId(LocalDate.of(2024, 3, 15), 42L))));
+        assertThrows(ResponseStatusException.class, () -> Cursors.decodeDated("not-a-cursor"));
+    }
+
+    @Test
+    void testDecodeInvalidCursor() {
+        assertThrows(ResponseStatusException.class, () -> Cursors.decode("not-a-cursor"));
+        assertThrows(ResponseStatusException.class, () -> Cursors.decode(Cursors.encode(1L).substring(1)));
+    }
+}
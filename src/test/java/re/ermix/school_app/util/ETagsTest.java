@@ -0,0 +1,69 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.Test;
+import re.ermix.school_app.dto.CursorPage;
+import re.ermix.school_app.dto.EntityVersion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_456_000);
+
+    @Test
+    void testEntityTagIsQuotedAndChangesWithEveryMicrosecond() {
+        String tag = ETags.of(1L, UPDATED_AT);
+
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+        assertEquals(tag, ETags.of(new EntityVersion(1L, UPDATED_AT)));
+        assertNotEquals(tag, ETags.of(1L, UPDATED_AT.plusNanos(1_000)));
+        assertNotEquals(tag, ETags.of(2L, UPDATED_AT));
+    }
+
+    @Test
+    void testPageTagChangesWhenAnyRowChanges() {
+        EntityVersion first = new EntityVersion(1L, UPDATED_AT);
+        EntityVersion second = new EntityVersion(2L, UPDATED_AT);
+        String tag = ETags.of(new CursorPage<>(List.of(first, second), null));
+
+        assertEquals(tag, ETags.of(new CursorPage<>(List.of(first, second), null)));
+        assertNotEquals(tag, ETags.of(new CursorPage<>(List.of(first, new EntityVersion(2L, UPDATED_AT.plusSeconds(1))), null)));
+        assertNotEquals(tag, ETags.of(new CursorPage<>(List.of(first), null)));
+        assertNotEquals(tag, ETags.of(new CursorPage<>(List.of(first, new EntityVersion(3L, UPDATED_AT)), null)));
+        assertNotEquals(tag, ETags.of(new CursorPage<>(List.of(first, second), Cursors.encode(2L))));
+    }
+
+    @Test
+    void testMatchesIfNoneMatchLists() {
+        String tag = ETags.of(1L, UPDATED_AT);
+
+        assertTrue(ETags.matches(tag, tag));
+        assertTrue(ETags.matches("\"other\", " + tag, tag));
+        assertTrue(ETags.matches("W/" + tag, tag));
+        assertTrue(ETags.matches("*", tag));
+        assertFalse(ETags.matches("\"other\"", tag));
+        assertFalse(ETags.matches("", tag));
+        assertFalse(ETags.matches(null, tag));
+    }
+
+    @Test
+    void testMatchesIfMatchListsStrongly() {
+        String tag = ETags.of(1L, UPDATED_AT);
+
+        assertTrue(ETags.matchesStrongly(tag, tag));
+        assertTrue(ETags.matchesStrongly("\"other\", " + tag, tag));
+        assertTrue(ETags.matchesStrongly("*", tag));
+        assertFalse(ETags.matchesStrongly("W/" + tag, tag));
+        assertFalse(ETags.matchesStrongly(ETags.of(1L, UPDATED_AT.minusNanos(1_000)), tag));
+        assertFalse(ETags.matchesStrongly("", tag));
+        assertFalse(ETags.matchesStrongly(null, tag));
+    }
+
+    @Test
+    void testNullUpdatedAtStillGivesATag() {
+        assertEquals(ETags.of(1L, null), ETags.of(1L, null));
+    }
+}
@@ -0,0 +1,73 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void testOverlappingFindsIntervalsInStartOrder() {
+        IntervalTree<String> tree = IntervalTree.of(List.of(
+                new IntervalTree.Interval<>(60, 120, "b"),
+                new IntervalTree.Interval<>(0, 90, "a"),
+                new IntervalTree.Interval<>(200, 300, "c")));
+
+        assertEquals(List.of("a", "b"), values(tree.overlapping(80, 100)));
+        assertEquals(List.of("b", "c"), values(tree.overlapping(100, 250)));
+        assertEquals(List.of(), values(tree.overlapping(120, 200)));
+    }
+
+    @Test
+    void testTouchingIntervalsDoNotOverlap() {
+        IntervalTree<String> tree = IntervalTree.of(List.of(new IntervalTree.Interval<>(60, 120, "a")));
+
+        assertTrue(tree.overlapping(0, 60).isEmpty());
+        assertTrue(tree.overlapping(120, 180).isEmpty());
+        assertEquals(List.of("a"), values(tree.overlapping(119, 180)));
+    }
+
+    @Test
+    void testEmptyTree() {
+        IntervalTree<String> tree = IntervalTree.empty();
+
+        assertEquals(0, tree.size());
+        assertTrue(tree.overlapping(0, 10_000).isEmpty());
+    }
+
+    @Test
+    void testRejectsEmptyIntervals() {
+        assertThrows(IllegalArgumentException.class, () -> new IntervalTree.Interval<>(10, 10, "a"));
+        assertThrows(IllegalArgumentException.class, () -> new IntervalTree.Interval<>(10, 5, "a"));
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        Random random = new Random(42);
+        List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(10_000);
+            intervals.add(new IntervalTree.Interval<>(start, start + 1 + random.nextInt(300), i));
+        }
+        IntervalTree<Integer> tree = IntervalTree.of(intervals);
+
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(10_000);
+            int end = start + 1 + random.nextInt(500);
+            List<Integer> expected = intervals.stream()
+                    .filter(interval -> interval.start() < end && interval.end() > start)
+                    .map(IntervalTree.Interval::value)
+                    .sorted()
+                    .toList();
+            assertEquals(expected, values(tree.overlapping(start, end)).stream().sorted().toList());
+        }
+    }
+
+    private static <T> List<T> values(List<IntervalTree.Interval<T>> intervals) {
+        return intervals.stream().map(IntervalTree.Interval::value).toList();
+    }
+}
@@ -0,0 +1,129 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SingleFlight<String, Integer> flight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        flight = new SingleFlight<>();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneComputation() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> leader = executor.submit(() -> flight.execute("key", () -> {
+            computations.incrementAndGet();
+            await(release);
+            return 42;
+        }));
+        waitUntil(() -> flight.inFlightCount() == 1);
+
+        List<Future<Integer>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(executor.submit(() -> flight.execute("key", () -> {
+                computations.incrementAndGet();
+                return -1;
+            })));
+        }
+        waitUntil(() -> flight.coalescedCount() == 5);
+        release.countDown();
+
+        assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Integer> follower : followers) {
+            assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, flight.executedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void testSequentialCallsComputeAgain() {
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, flight.execute("key", computations::incrementAndGet));
+        assertEquals(2, flight.execute("key", computations::incrementAndGet));
+        assertEquals(2, flight.executedCount());
+        assertEquals(0, flight.coalescedCount());
+    }
+
+    @Test
+    void testDifferentKeysDoNotWaitForEachOther() {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> flight.execute("slow", () -> {
+            await(release);
+            return 1;
+        }));
+        waitUntil(() -> flight.inFlightCount() == 1);
+
+        assertEquals(2, flight.execute("fast", () -> 2));
+        release.countDown();
+    }
+
+    @Test
+    void testFailureIsSharedAndNotRemembered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> leader = executor.submit(() -> flight.execute("key", () -> {
+            await(release);
+            throw new IllegalStateException("boom");
+        }));
+        waitUntil(() -> flight.inFlightCount() == 1);
+        Future<Integer> follower = executor.submit(() -> flight.execute("key", () -> 0));
+        waitUntil(() -> flight.coalescedCount() == 1);
+        release.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+        assertEquals(7, flight.execute("key", () -> 7));
+    }
+
+    @Test
+    void testNullResultIsShared() {
+        assertNull(flight.execute("key", () -> null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.onSpinWait();
+        }
+    }
+}
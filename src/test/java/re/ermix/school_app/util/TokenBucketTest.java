@@ -0,0 +1,81 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void testAllowsABurstThenReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), 3, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND / 10, bucket.tryAcquire(0));
+        assertEquals(SECOND / 20, bucket.tryAcquire(SECOND / 20));
+    }
+
+    @Test
+    void testRefillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(SECOND / 10 - 1) > 0);
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    void testIdleTimeDoesNotExceedTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), 2, 0);
+        long later = 60 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void testConcurrentCallersNeverExceedTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, Duration.ofSeconds(1), 50, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    int acquired = 0;
+                    for (int j = 0; j < 1000; j++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(50, total);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, Duration.ofSeconds(1), 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, Duration.ZERO, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, Duration.ofSeconds(1), 0, 0));
+    }
+}
@@ -0,0 +1,93 @@
+package re.ermix.school_app.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(3);
+        index.put(1L, "John", "Doe", "john.doe@example.com");
+        index.put(2L, "Jane", "Smith", "jane.smith@example.com");
+        index.put(3L, "Johnny", "Smithers", "johnny.s@example.com");
+    }
+
+    @Test
+    void testMatchAllFindsSubstringsIgnoringCase() {
+        assertArrayEquals(new long[]{2L, 3L}, index.matchAll(null, "MIT", null));
+        assertArrayEquals(new long[]{1L, 3L}, index.matchAll("ohn", null, null));
+        assertArrayEquals(new long[]{3L}, index.matchAll("ohn", "smi", null));
+    }
+
+    @Test
+    void testMatchIgnoresAccentsLikeTheDatabaseCollation() {
+        index.put(4L, "José", "Müller", "jose.muller@example.com");
+        index.put(5L, "Søren", "Straße", "soren@example.com");
+
+        assertArrayEquals(new long[]{4L}, index.matchAll("jose", null, null));
+        assertArrayEquals(new long[]{4L}, index.matchAll("JOSÉ", "mül", null));
+        assertArrayEquals(new long[]{4L}, index.matchAll(null, "muller", null));
+        assertArrayEquals(new long[]{5L}, index.matchAll("soren", "strasse", null));
+        // Precomposed and decomposed accents fold the same way
+        assertArrayEquals(new long[]{4L}, index.matchAny("Jose\u0301"));
+    }
+
+    @Test
+    void testMatchAllIsFieldSpecific() {
+        assertArrayEquals(new long[0], index.matchAll("smith", null, null));
+        assertArrayEquals(new long[]{2L}, index.matchAll(null, null, "jane.smith@example.com"));
+    }
+
+    @Test
+    void testShortQueriesCannotBeResolved() {
+        assertNull(index.matchAll("Jo", null, null));
+        assertNull(index.matchAny("Sm"));
+        // A short query on one field does not narrow, but the others still do
+        assertArrayEquals(new long[]{2L, 3L}, index.matchAll("J", "Smi", null));
+    }
+
+    @Test
+    void testMatchAnyUnionsFields() {
+        assertArrayEquals(new long[]{1L, 3L}, index.matchAny("john"));
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.matchAny("example"));
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDrops() {
+        index.put(1L, "John", "Smithson", "john.doe@example.com");
+        index.remove(2L);
+
+        assertArrayEquals(new long[0], index.matchAll(null, "doe", null));
+        assertArrayEquals(new long[]{1L, 3L}, index.matchAll(null, "smith", null));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testPutIfAbsentKeepsExistingEntry() {
+        assertFalse(index.putIfAbsent(1L, "Stale", "Name", "stale@example.com"));
+        assertTrue(index.putIfAbsent(4L, "Mary", "Jones", "mary.jones@example.com"));
+
+        assertArrayEquals(new long[0], index.matchAll("stale", null, null));
+        assertArrayEquals(new long[]{4L}, index.matchAll("mary", null, null));
+    }
+
+    @Test
+    void testCompactionKeepsLiveEntries() {
+        for (int round = 0; round < 5; round++) {
+            for (long id = 100; id < 1100; id++) {
+                index.put(id, "Student" + round, "Number" + id, "s" + id + "@example.com");
+            }
+        }
+
+        assertEquals(1003, index.size());
+        assertEquals(1000, index.matchAll("student4", null, null).length);
+        assertArrayEquals(new long[0], index.matchAll("student3", null, null));
+        assertArrayEquals(new long[]{1L, 3L}, index.matchAll("ohn", null, null));
+        assertArrayEquals(new long[]{1099L}, index.matchAll(null, "number1099", null));
+    }
+}